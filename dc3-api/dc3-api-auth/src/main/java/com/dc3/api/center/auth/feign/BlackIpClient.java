@@ -29,6 +29,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import javax.validation.constraints.NotNull;
+import java.util.List;
 
 /**
  * Ip 黑名单 FeignClient
@@ -104,4 +105,12 @@ public interface BlackIpClient {
     @GetMapping("/check/{ip}")
     R<Boolean> checkBlackIpValid(@NotNull @PathVariable(value = "ip") String ip);
 
+    /**
+     * 查询所有启用的 Ip 黑名单，包括 CIDR 网段
+     *
+     * @return List<String>
+     */
+    @GetMapping("/enable")
+    R<List<String>> selectEnableIps();
+
 }
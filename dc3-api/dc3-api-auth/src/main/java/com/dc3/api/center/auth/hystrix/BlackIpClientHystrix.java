@@ -22,6 +22,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * BlackIpClientHystrix
  *
@@ -72,6 +74,11 @@ public class BlackIpClientHystrix implements FallbackFactory<BlackIpClient> {
             public R<Boolean> checkBlackIpValid(String ip) {
                 return R.fail(message);
             }
+
+            @Override
+            public R<List<String>> selectEnableIps() {
+                return R.fail(message);
+            }
         };
     }
 }
\ No newline at end of file
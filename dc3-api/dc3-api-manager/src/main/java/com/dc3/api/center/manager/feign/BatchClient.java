@@ -16,6 +16,7 @@ package com.dc3.api.center.manager.feign;
 import com.dc3.api.center.manager.hystrix.BatchClientHystrix;
 import com.dc3.common.bean.R;
 import com.dc3.common.bean.batch.BatchDriver;
+import com.dc3.common.bean.batch.BatchImportResult;
 import com.dc3.common.constant.Common;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
@@ -36,19 +37,19 @@ public interface BatchClient {
      * 批量导入，包含：驱动->模版->驱动配置->位号->设备->位号配置
      *
      * @param multipartFile MultipartFile
-     * @return Boolean
+     * @return BatchImportResult
      */
     @PostMapping("/import")
-    R<Boolean> batchImport(@RequestParam(value = "file") MultipartFile multipartFile);
+    R<BatchImportResult> batchImport(@RequestParam(value = "file") MultipartFile multipartFile);
 
     /**
      * 批量导入，包含：驱动->模版->驱动配置->位号->设备->位号配置
      *
      * @param batchDrivers List<BatchDriver>
-     * @return Boolean
+     * @return BatchImportResult
      */
     @PostMapping("/import/batch_driver")
-    R<Boolean> batchImport(@RequestBody List<BatchDriver> batchDrivers);
+    R<BatchImportResult> batchImport(@RequestBody List<BatchDriver> batchDrivers);
 
     /**
      * 批量导出，包含：驱动->模版->驱动配置->位号->设备->位号配置
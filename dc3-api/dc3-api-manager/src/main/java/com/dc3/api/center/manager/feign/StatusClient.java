@@ -23,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.constraints.NotNull;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 设备 FeignClient
@@ -72,4 +73,14 @@ public interface StatusClient {
     @GetMapping("/device/profile_id/{profileId}")
     R<Map<Long, String>> deviceStatusByProfileId(@NotNull @PathVariable(value = "profileId") Long profileId);
 
+    /**
+     * 根据 设备ID 集合批量查询 Device 服务状态
+     * ONLINE, OFFLINE, MAINTAIN, FAULT
+     *
+     * @param deviceIds Device Id Set
+     * @return Map<Long, String>
+     */
+    @PostMapping("/device/ids")
+    R<Map<Long, String>> deviceStatusByIds(@RequestBody Set<Long> deviceIds);
+
 }
@@ -16,6 +16,7 @@ package com.dc3.api.center.manager.hystrix;
 import com.dc3.api.center.manager.feign.BatchClient;
 import com.dc3.common.bean.R;
 import com.dc3.common.bean.batch.BatchDriver;
+import com.dc3.common.bean.batch.BatchImportResult;
 import org.springframework.cloud.openfeign.FallbackFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -40,12 +41,12 @@ public class BatchClientHystrix implements FallbackFactory<BatchClient> {
         return new BatchClient() {
 
             @Override
-            public R<Boolean> batchImport(MultipartFile multipartFile) {
+            public R<BatchImportResult> batchImport(MultipartFile multipartFile) {
                 return R.fail(message);
             }
 
             @Override
-            public R<Boolean> batchImport(List<BatchDriver> batchDrivers) {
+            public R<BatchImportResult> batchImport(List<BatchDriver> batchDrivers) {
                 return R.fail(message);
             }
 
@@ -22,6 +22,7 @@ import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * DeviceClientHystrix
@@ -58,6 +59,11 @@ public class StatusClientHystrix implements FallbackFactory<StatusClient> {
             public R<Map<Long, String>> deviceStatusByProfileId(Long profileId) {
                 return R.fail(message);
             }
+
+            @Override
+            public R<Map<Long, String>> deviceStatusByIds(Set<Long> deviceIds) {
+                return R.fail(message);
+            }
         };
     }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
+import java.util.List;
 
 /**
  * Ip 黑名单 Feign Client 接口实现
@@ -122,4 +123,13 @@ public class BlackIpApi implements BlackIpClient {
         }
     }
 
+    @Override
+    public R<List<String>> selectEnableIps() {
+        try {
+            return R.ok(blackIpService.selectEnableIps());
+        } catch (Exception e) {
+            return R.fail(e.getMessage());
+        }
+    }
+
 }
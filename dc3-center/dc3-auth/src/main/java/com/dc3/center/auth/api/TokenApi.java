@@ -13,6 +13,7 @@
 
 package com.dc3.center.auth.api;
 
+import cn.hutool.core.util.StrUtil;
 import com.dc3.api.center.auth.feign.TokenClient;
 import com.dc3.center.auth.bean.TokenValid;
 import com.dc3.center.auth.service.TokenService;
@@ -22,10 +23,15 @@ import com.dc3.common.constant.Common;
 import com.dc3.common.exception.UnAuthorizedException;
 import com.dc3.common.utils.Dc3Util;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
 
 /**
  * 令牌 Feign Client 接口实现
@@ -37,8 +43,13 @@ import javax.annotation.Resource;
 @RequestMapping(Common.Service.DC3_AUTH_TOKEN_URL_PREFIX)
 public class TokenApi implements TokenClient {
 
+    @Value("${auth.login.trusted-proxies}")
+    private Integer trustedProxies;
+
     @Resource
     private TokenService tokenService;
+    @Resource
+    private HttpServletRequest request;
 
     @Override
     public R<String> generateSalt(Login login) {
@@ -48,7 +59,7 @@ public class TokenApi implements TokenClient {
 
     @Override
     public R<String> generateToken(Login login) {
-        String token = tokenService.generateToken(login.getTenant(), login.getName(), login.getSalt(), login.getPassword());
+        String token = tokenService.generateToken(login.getTenant(), login.getName(), login.getSalt(), login.getPassword(), remoteIp());
         return null != token ? R.ok(token, "The token will expire in 12 hours.") : R.fail();
     }
 
@@ -69,4 +80,26 @@ public class TokenApi implements TokenClient {
     /*static void main(String[] args) {
         System.out.println(Dc3Util.md5("10e339be1130a90dc1b9ff0332abced6" + "dsb785i4ikx0h4wt"));
     }*/
+
+    /**
+     * 获取客户端 Ip
+     * <p>
+     * x-forwarded-for 中靠前的 Ip 可以由客户端任意填写，只信任最后 trustedProxies 个代理追加的 Ip，
+     * 取倒数第 trustedProxies 个 Ip，即最外层可信代理看到的对端地址；经过 dc3-gateway 时该值至少为 1
+     *
+     * @return Remote Ip
+     */
+    private String remoteIp() {
+        if (trustedProxies > 0) {
+            List<String> ips = new ArrayList<>();
+            Enumeration<String> headers = request.getHeaders("x-forwarded-for");
+            while (headers.hasMoreElements()) {
+                ips.addAll(StrUtil.split(headers.nextElement(), ',', true, true));
+            }
+            if (ips.size() >= trustedProxies) {
+                return ips.get(ips.size() - trustedProxies);
+            }
+        }
+        return request.getRemoteAddr();
+    }
 }
@@ -17,6 +17,8 @@ import com.dc3.common.base.Service;
 import com.dc3.common.dto.BlackIpDto;
 import com.dc3.common.model.BlackIp;
 
+import java.util.List;
+
 /**
  * User Interface
  *
@@ -38,4 +40,11 @@ public interface BlackIpService extends Service<BlackIp, BlackIpDto> {
      * @return boolean
      */
     boolean checkBlackIpValid(String ip);
+
+    /**
+     * 查询所有启用的 Ip 黑名单，包括 CIDR 网段，供网关批量加载
+     *
+     * @return Ip List
+     */
+    List<String> selectEnableIps();
 }
@@ -36,9 +36,10 @@ public interface TokenService {
      * @param name     User Name
      * @param salt     User Salt
      * @param password User Password
+     * @param ip       Remote Ip
      * @return String
      */
-    String generateToken(String tenant, String name, String salt, String password);
+    String generateToken(String tenant, String name, String salt, String password, String ip);
 
     /**
      * 校验用户的Token令牌是否有效
@@ -29,9 +29,12 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * 用户服务接口实现类
@@ -44,6 +47,8 @@ public class BlackIpServiceImpl implements BlackIpService {
 
     @Resource
     private BlackIpMapper blackIpMapper;
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
 
     @Override
     @Caching(
@@ -61,6 +66,7 @@ public class BlackIpServiceImpl implements BlackIpService {
             throw new ServiceException("The ip already exists in the blacklist");
         }
         if (blackIpMapper.insert(blackIp) > 0) {
+            stringRedisTemplate.convertAndSend(Common.Cache.BLACK_IP_CHANGE_TOPIC, blackIp.getIp());
             return blackIpMapper.selectById(blackIp.getId());
         }
         throw new ServiceException("The ip add to the blacklist failed");
@@ -79,7 +85,11 @@ public class BlackIpServiceImpl implements BlackIpService {
         if (null == blackIp) {
             throw new ServiceException("The ip does not exist in the blacklist");
         }
-        return blackIpMapper.deleteById(id) > 0;
+        boolean delete = blackIpMapper.deleteById(id) > 0;
+        if (delete) {
+            stringRedisTemplate.convertAndSend(Common.Cache.BLACK_IP_CHANGE_TOPIC, blackIp.getIp());
+        }
+        return delete;
     }
 
     @Override
@@ -97,6 +107,7 @@ public class BlackIpServiceImpl implements BlackIpService {
         if (blackIpMapper.updateById(blackIp) > 0) {
             BlackIp select = blackIpMapper.selectById(blackIp.getId());
             blackIp.setIp(select.getIp());
+            stringRedisTemplate.convertAndSend(Common.Cache.BLACK_IP_CHANGE_TOPIC, select.getIp());
             return select;
         }
         throw new ServiceException("The ip update failed in the blacklist");
@@ -134,6 +145,13 @@ public class BlackIpServiceImpl implements BlackIpService {
         return false;
     }
 
+    @Override
+    public List<String> selectEnableIps() {
+        LambdaQueryWrapper<BlackIp> queryWrapper = Wrappers.<BlackIp>query().lambda();
+        queryWrapper.select(BlackIp::getIp).eq(BlackIp::getEnable, true);
+        return blackIpMapper.selectList(queryWrapper).stream().map(BlackIp::getIp).collect(Collectors.toList());
+    }
+
     @Override
     public LambdaQueryWrapper<BlackIp> fuzzyQuery(BlackIpDto blackIpDto) {
         LambdaQueryWrapper<BlackIp> queryWrapper = Wrappers.<BlackIp>query().lambda();
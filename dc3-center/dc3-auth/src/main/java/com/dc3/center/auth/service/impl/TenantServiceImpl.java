@@ -31,6 +31,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
@@ -47,6 +48,8 @@ public class TenantServiceImpl implements TenantService {
 
     @Resource
     private TenantMapper tenantMapper;
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
 
     @Override
     @Caching(
@@ -84,7 +87,11 @@ public class TenantServiceImpl implements TenantService {
         if (null == tenant) {
             throw new NotFoundException("The tenant does not exist");
         }
-        return tenantMapper.deleteById(id) > 0;
+        boolean delete = tenantMapper.deleteById(id) > 0;
+        if (delete) {
+            stringRedisTemplate.convertAndSend(Common.Cache.TENANT_REVOCATION_TOPIC, tenant.getName());
+        }
+        return delete;
     }
 
     @Override
@@ -103,6 +110,7 @@ public class TenantServiceImpl implements TenantService {
         if (tenantMapper.updateById(tenant) > 0) {
             Tenant select = tenantMapper.selectById(tenant.getId());
             tenant.setName(select.getName());
+            stringRedisTemplate.convertAndSend(Common.Cache.TENANT_REVOCATION_TOPIC, select.getName());
             return select;
         }
         throw new ServiceException("The tenant update failed");
@@ -13,16 +13,18 @@
 
 package com.dc3.center.auth.service.impl;
 
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import com.dc3.center.auth.bean.TokenValid;
-import com.dc3.center.auth.bean.UserLimit;
+import com.dc3.center.auth.service.BlackIpService;
 import com.dc3.center.auth.service.TenantBindService;
 import com.dc3.center.auth.service.TenantService;
 import com.dc3.center.auth.service.TokenService;
 import com.dc3.center.auth.service.UserService;
 import com.dc3.common.constant.Common;
 import com.dc3.common.exception.ServiceException;
+import com.dc3.common.model.BlackIp;
 import com.dc3.common.model.Tenant;
 import com.dc3.common.model.User;
 import com.dc3.common.utils.Dc3Util;
@@ -30,12 +32,18 @@ import com.dc3.common.utils.KeyUtil;
 import com.dc3.common.utils.RedisUtil;
 import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
-import java.util.Calendar;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Optional;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -47,15 +55,43 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class TokenServiceImpl implements TokenService {
 
+    /**
+     * 登录限制脚本，在一次 Redis 调用内完成失败计数、锁定判断以及锁定时间递增
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> LOGIN_LIMIT_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        LOGIN_LIMIT_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("lua/login_limit.lua")));
+        LOGIN_LIMIT_SCRIPT.setResultType(List.class);
+    }
+
+    @Value("${auth.login.window}")
+    private Duration window;
+    @Value("${auth.login.user-times}")
+    private Integer userTimes;
+    @Value("${auth.login.ip-times}")
+    private Integer ipTimes;
+    @Value("${auth.login.black-strikes}")
+    private Integer blackStrikes;
+    @Value("${auth.login.lock-time}")
+    private Duration lockTime;
+    @Value("${auth.login.max-lock-time}")
+    private Duration maxLockTime;
+
     @Resource
     private TenantService tenantService;
     @Resource
     private TenantBindService tenantBindService;
     @Resource
     private UserService userService;
+    @Resource
+    private BlackIpService blackIpService;
 
     @Resource
     private RedisUtil redisUtil;
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
 
     @Override
     public String generateSalt(String username) {
@@ -69,8 +105,8 @@ public class TokenServiceImpl implements TokenService {
     }
 
     @Override
-    public String generateToken(String tenant, String name, String salt, String password) {
-        checkUserLimit(name);
+    public String generateToken(String tenant, String name, String salt, String password, String ip) {
+        checkLoginLimit(name, ip);
         Tenant tempTenant = tenantService.selectByName(tenant);
         User tempUser = userService.selectByName(name);
         if (tempTenant.getEnable() && tempUser.getEnable()) {
@@ -82,11 +118,14 @@ public class TokenServiceImpl implements TokenService {
                     String redisTokenKey = Common.Cache.USER + Common.Cache.TOKEN + Common.Cache.SEPARATOR + name;
                     String token = KeyUtil.generateToken(name, tempSalt);
                     redisUtil.setKey(redisTokenKey, token, Common.Cache.TOKEN_CACHE_TIMEOUT, TimeUnit.HOURS);
+                    // 新 token 会替换旧 token，通知网关丢弃缓存
+                    stringRedisTemplate.convertAndSend(Common.Cache.TOKEN_REVOCATION_TOPIC, name);
+                    stringRedisTemplate.delete(Common.Cache.USER + Common.Cache.LIMIT + Common.Cache.FAIL + Common.Cache.SEPARATOR + name);
                     return token;
                 }
             }
         }
-        updateUserLimit(name, true);
+        updateLoginLimit(name, ip);
         throw new ServiceException("Invalid tenant、username、password");
     }
 
@@ -107,48 +146,65 @@ public class TokenServiceImpl implements TokenService {
     @Override
     public boolean cancelToken(String username) {
         redisUtil.deleteKey(Common.Cache.USER + Common.Cache.TOKEN + Common.Cache.SEPARATOR + username);
+        stringRedisTemplate.convertAndSend(Common.Cache.TOKEN_REVOCATION_TOPIC, username);
         return true;
     }
 
     /**
-     * 检测用户登录限制，返回该用户是否受限
+     * 检测用户以及 Ip 的登录限制，受限时抛出异常
      *
      * @param username Username
+     * @param ip       Remote Ip
      */
-    private void checkUserLimit(String username) {
-        String redisKey = Common.Cache.USER + Common.Cache.LIMIT + Common.Cache.SEPARATOR + username;
-        UserLimit limit = redisUtil.getKey(redisKey, UserLimit.class);
-        if (null != limit && limit.getTimes() >= 5) {
-            Date now = new Date();
-            long interval = limit.getExpireTime().getTime() - now.getTime();
-            if (interval > 0) {
-                limit = updateUserLimit(username, false);
-                throw new ServiceException("Access restricted，Please try again after {}", Dc3Util.formatData(limit.getExpireTime()));
-            }
+    private void checkLoginLimit(String username, String ip) {
+        long remain = loginLimit("check", username, ip).get(0);
+        if (remain > 0) {
+            throw new ServiceException("Access restricted，Please try again after {}", Dc3Util.formatData(new Date(System.currentTimeMillis() + remain)));
         }
     }
 
     /**
-     * 更新用户登录限制
+     * 记录一次登录失败，Ip 多次被锁定后自动加入 Ip 黑名单
      *
      * @param username Username
-     * @return UserLimit
+     * @param ip       Remote Ip
      */
-    private UserLimit updateUserLimit(String username, boolean expireTime) {
-        int amount = Common.Cache.USER_LIMIT_TIMEOUT;
-        String redisKey = Common.Cache.USER + Common.Cache.LIMIT + Common.Cache.SEPARATOR + username;
-        UserLimit limit = Optional.ofNullable(redisUtil.getKey(redisKey, UserLimit.class)).orElse(new UserLimit(0, new Date()));
-        limit.setTimes(limit.getTimes() + 1);
-        if (limit.getTimes() > 20) {
-            //TODO 拉黑IP和锁定用户操作，然后通过Gateway进行拦截
-            amount = 24 * 60;
-        } else if (limit.getTimes() > 5) {
-            amount = limit.getTimes() * Common.Cache.USER_LIMIT_TIMEOUT;
-        }
-        if (expireTime) {
-            limit.setExpireTime(Dc3Util.expireTime(amount, Calendar.MINUTE));
+    private void updateLoginLimit(String username, String ip) {
+        List<Long> result = loginLimit("fail", username, ip);
+        if (result.get(1) > 0 && !"127.0.0.1".equals(ip) && !"0:0:0:0:0:0:0:1".equals(ip)) {
+            try {
+                BlackIp blackIp = new BlackIp(ip, true);
+                blackIp.setDescription("Too many failed login attempts");
+                blackIpService.add(blackIp);
+                log.warn("Ip {} has been added to the blacklist due to too many failed login attempts", ip);
+            } catch (Exception e) {
+                log.warn("Add black ip {} failed: {}", ip, e.getMessage());
+            }
         }
-        redisUtil.setKey(redisKey, limit, 1, TimeUnit.DAYS);
-        return limit;
+    }
+
+    /**
+     * 执行登录限制脚本
+     *
+     * @param mode     check 或 fail
+     * @param username Username
+     * @param ip       Remote Ip
+     * @return [剩余锁定时间(ms)，是否需要拉黑 Ip]
+     */
+    @SuppressWarnings("unchecked")
+    private List<Long> loginLimit(String mode, String username, String ip) {
+        String userKey = Common.Cache.USER + Common.Cache.LIMIT;
+        String ipKey = Common.Cache.BLACK_IP + Common.Cache.LIMIT;
+        String userSuffix = Common.Cache.SEPARATOR + username;
+        String ipSuffix = Common.Cache.SEPARATOR + ip;
+        List<String> keys = Arrays.asList(
+                userKey + Common.Cache.FAIL + userSuffix, userKey + Common.Cache.LOCK + userSuffix, userKey + Common.Cache.STRIKE + userSuffix,
+                ipKey + Common.Cache.FAIL + ipSuffix, ipKey + Common.Cache.LOCK + ipSuffix, ipKey + Common.Cache.STRIKE + ipSuffix
+        );
+        return stringRedisTemplate.execute(LOGIN_LIMIT_SCRIPT, keys,
+                mode, String.valueOf(System.currentTimeMillis()), String.valueOf(window.toMillis()), IdUtil.fastSimpleUUID(),
+                String.valueOf(userTimes), String.valueOf(ipTimes), String.valueOf(blackStrikes),
+                String.valueOf(lockTime.toMillis()), String.valueOf(maxLockTime.toMillis())
+        );
     }
 }
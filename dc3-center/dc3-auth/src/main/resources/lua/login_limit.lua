@@ -0,0 +1,68 @@
+--
+-- Copyright 2016-2021 Pnoker. All Rights Reserved.
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--     http://www.apache.org/licenses/LICENSE-2.0
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- 登录限制，滑动窗口记录失败次数，达到阈值后按锁定次数成倍延长锁定时间
+--
+-- KEYS[1] 用户失败记录(zset)  KEYS[2] 用户锁定  KEYS[3] 用户锁定次数
+-- KEYS[4] Ip 失败记录(zset)   KEYS[5] Ip 锁定   KEYS[6] Ip 锁定次数
+-- ARGV[1] 模式：check 仅检测锁定，fail 记录一次失败
+-- ARGV[2] 当前时间(ms)  ARGV[3] 窗口(ms)  ARGV[4] 失败记录唯一标识
+-- ARGV[5] 用户失败阈值  ARGV[6] Ip 失败阈值  ARGV[7] Ip 被锁定多少次后拉黑
+-- ARGV[8] 基础锁定时间(ms)  ARGV[9] 最大锁定时间(ms)
+--
+-- 返回 {剩余锁定时间(ms)，是否需要拉黑 Ip}
+
+local function locked()
+    return math.max(redis.call('PTTL', KEYS[2]), redis.call('PTTL', KEYS[5]), 0)
+end
+
+local remain = locked()
+if ARGV[1] == 'check' or remain > 0 then
+    return { remain, 0 }
+end
+
+local now = tonumber(ARGV[2])
+local window = tonumber(ARGV[3])
+local base = tonumber(ARGV[8])
+local max = tonumber(ARGV[9])
+
+local function fail(record)
+    redis.call('ZREMRANGEBYSCORE', record, '-inf', now - window)
+    redis.call('ZADD', record, now, ARGV[4])
+    redis.call('PEXPIRE', record, window)
+    return redis.call('ZCARD', record)
+end
+
+local function lock(record, lockKey, strikeKey)
+    local strike = redis.call('INCR', strikeKey)
+    redis.call('PEXPIRE', strikeKey, 86400000)
+    local time = math.floor(math.min(base * 2 ^ (strike - 1), max))
+    redis.call('SET', lockKey, strike, 'PX', time)
+    redis.call('DEL', record)
+    return time, strike
+end
+
+local userTimes = fail(KEYS[1])
+local ipTimes = fail(KEYS[4])
+local black = 0
+if userTimes >= tonumber(ARGV[5]) then
+    remain = math.max(remain, (lock(KEYS[1], KEYS[2], KEYS[3])))
+end
+if ipTimes >= tonumber(ARGV[6]) then
+    local time, strike = lock(KEYS[4], KEYS[5], KEYS[6])
+    remain = math.max(remain, time)
+    if strike >= tonumber(ARGV[7]) then
+        black = 1
+    end
+end
+return { remain, black }
@@ -21,6 +21,7 @@ import com.dc3.center.data.service.PointValueService;
 import com.dc3.common.bean.Pages;
 import com.dc3.common.bean.R;
 import com.dc3.common.bean.point.PointValue;
+import com.dc3.common.cache.TypedRedisSerializer;
 import com.dc3.common.constant.Common;
 import com.dc3.common.dto.PointValueDto;
 import com.dc3.common.model.Device;
@@ -28,13 +29,16 @@ import com.dc3.common.model.Point;
 import com.dc3.common.utils.RedisUtil;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.util.*;
 import java.util.concurrent.Future;
@@ -61,6 +65,19 @@ public class PointValueServiceImpl implements PointValueService {
     @Resource
     private ThreadPoolExecutor threadPoolExecutor;
 
+    @Value("${data.point.cache.format}")
+    private String cacheFormat;
+
+    /**
+     * 实时值按类型序列化，不再写入类名，读取时兼容原有数据
+     */
+    private RedisSerializer<PointValue> pointValueSerializer;
+
+    @PostConstruct
+    public void initPointValueSerializer() {
+        pointValueSerializer = TypedRedisSerializer.of(cacheFormat, PointValue.class);
+    }
+
     @Override
     public void savePointValue(PointValue pointValue) {
         if (null != pointValue) {
@@ -130,11 +147,11 @@ public class PointValueServiceImpl implements PointValueService {
     @Override
     public List<PointValue> realtime(Long deviceId) {
         R<List<Point>> listR = pointClient.selectByDeviceId(deviceId);
-        if (!listR.isOk()) {
-            String prefix = Common.Cache.REAL_TIME_VALUE_KEY_PREFIX + deviceId + "_";
+        if (listR.isOk()) {
+            String prefix = Common.Cache.REAL_TIME_VALUE_KEY_PREFIX + deviceId + Common.Cache.DOT;
             List<String> keys = listR.getData().stream().map(point -> prefix + point.getId()).collect(Collectors.toList());
             if (keys.size() > 0) {
-                List<PointValue> pointValues = redisUtil.getKey(keys, PointValue.class);
+                List<PointValue> pointValues = redisUtil.getKey(keys, pointValueSerializer);
                 pointValues = pointValues.stream().filter(Objects::nonNull).map(pointValue -> pointValue.setTimeOut(null).setTimeUnit(null)).collect(Collectors.toList());
                 if (pointValues.size() > 0) {
                     return pointValues;
@@ -146,8 +163,8 @@ public class PointValueServiceImpl implements PointValueService {
 
     @Override
     public PointValue realtime(Long deviceId, Long pointId) {
-        String key = Common.Cache.REAL_TIME_VALUE_KEY_PREFIX + deviceId + "_" + pointId;
-        PointValue pointValue = redisUtil.getKey(key, PointValue.class);
+        String key = Common.Cache.REAL_TIME_VALUE_KEY_PREFIX + deviceId + Common.Cache.DOT + pointId;
+        PointValue pointValue = redisUtil.getKey(key, pointValueSerializer);
         if (null != pointValue) {
             pointValue.setTimeOut(null).setTimeUnit(null);
         }
@@ -308,7 +325,8 @@ public class PointValueServiceImpl implements PointValueService {
                 Common.Cache.REAL_TIME_VALUE_KEY_PREFIX + pointValue.getDeviceId() + Common.Cache.DOT + pointIdKey,
                 pointValue,
                 pointValue.getTimeOut(),
-                pointValue.getTimeUnit()
+                pointValue.getTimeUnit(),
+                pointValueSerializer
         );
     }
 
@@ -318,7 +336,7 @@ public class PointValueServiceImpl implements PointValueService {
      * @param pointValues Point Value Array
      */
     private void savePointValuesToRedis(final List<PointValue> pointValues) {
-        Map<String, Object> valueMap = new HashMap<>(16);
+        Map<String, PointValue> valueMap = new HashMap<>(16);
         Map<String, Long> expireMap = new HashMap<>(16);
         for (PointValue pointValue : pointValues) {
             String pointIdKey = pointValue.getPointId() != null ? String.valueOf(pointValue.getPointId()) : Common.Cache.ASTERISK;
@@ -326,7 +344,7 @@ public class PointValueServiceImpl implements PointValueService {
             valueMap.put(key, pointValue);
             expireMap.put(key, pointValue.getTimeUnit().toMillis(pointValue.getTimeOut()));
         }
-        redisUtil.setKey(valueMap, expireMap);
+        redisUtil.setKey(valueMap, expireMap, pointValueSerializer);
     }
 
     private PointValue latestPointValue(Long deviceId, Long pointId) {
@@ -19,6 +19,7 @@ import com.dc3.api.center.manager.feign.BatchClient;
 import com.dc3.center.manager.service.BatchService;
 import com.dc3.common.bean.R;
 import com.dc3.common.bean.batch.BatchDriver;
+import com.dc3.common.bean.batch.BatchImportResult;
 import com.dc3.common.constant.Common;
 import com.dc3.common.exception.ServiceException;
 import com.dc3.common.utils.Dc3Util;
@@ -45,7 +46,7 @@ public class BatchApi implements BatchClient {
 
 
     @Override
-    public R<Boolean> batchImport(MultipartFile multipartFile) {
+    public R<BatchImportResult> batchImport(MultipartFile multipartFile) {
         try {
             if (multipartFile.isEmpty()) {
                 throw new ServiceException("Import file is empty");
@@ -58,21 +59,21 @@ public class BatchApi implements BatchClient {
             if (null == batchDrivers) {
                 throw new ServiceException("Import file is blank");
             }
-            batchService.batchImport(batchDrivers);
-            return R.ok();
+            BatchImportResult result = batchService.batchImport(batchDrivers);
+            return result.getErrors().size() > 0 ? R.fail(result, "Batch import failed with " + result.getErrors().size() + " error(s)") : R.ok(result);
         } catch (Exception e) {
             return R.fail(e.getMessage());
         }
     }
 
     @Override
-    public R<Boolean> batchImport(List<BatchDriver> batchDrivers) {
+    public R<BatchImportResult> batchImport(List<BatchDriver> batchDrivers) {
         try {
             if (null == batchDrivers) {
                 throw new ServiceException("Import file is blank");
             }
-            batchService.batchImport(batchDrivers);
-            return R.ok();
+            BatchImportResult result = batchService.batchImport(batchDrivers);
+            return result.getErrors().size() > 0 ? R.fail(result, "Batch import failed with " + result.getErrors().size() + " error(s)") : R.ok(result);
         } catch (Exception e) {
             return R.fail(e.getMessage());
         }
@@ -25,6 +25,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 设备 Client 接口实现
@@ -64,9 +65,7 @@ public class StatusApi implements StatusClient {
     @Override
     public R<Map<Long, String>> deviceStatusByDriverId(Long driverId) {
         try {
-            DeviceDto deviceDto = new DeviceDto();
-            deviceDto.setDriverId(driverId);
-            Map<Long, String> statuses = statusService.device(deviceDto);
+            Map<Long, String> statuses = statusService.deviceByDriverId(driverId);
             return R.ok(statuses);
         } catch (Exception e) {
             return R.fail(e.getMessage());
@@ -83,4 +82,14 @@ public class StatusApi implements StatusClient {
         }
     }
 
+    @Override
+    public R<Map<Long, String>> deviceStatusByIds(Set<Long> deviceIds) {
+        try {
+            Map<Long, String> statuses = statusService.deviceByIds(deviceIds);
+            return R.ok(statuses);
+        } catch (Exception e) {
+            return R.fail(e.getMessage());
+        }
+    }
+
 }
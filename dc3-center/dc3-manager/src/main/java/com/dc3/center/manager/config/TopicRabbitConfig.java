@@ -96,4 +96,42 @@ public class TopicRabbitConfig {
                 .with(Common.Rabbit.ROUTING_DEVICE_EVENT_PREFIX + "*");
     }
 
+    /**
+     * 每个 dc3-manager 实例独占一个心跳队列，使每个实例的设备状态表都能收到全部设备的心跳
+     */
+    @Bean
+    Queue deviceHeartbeatQueue() {
+        Map<String, Object> arguments = new HashMap<>();
+        // 15秒：15 * 1000 = 15000L
+        arguments.put("x-message-ttl", 15000L);
+        return new AnonymousQueue(new Base64UrlNamingStrategy(Common.Rabbit.QUEUE_DEVICE_HEARTBEAT_PREFIX), arguments);
+    }
+
+    @Bean
+    Binding deviceHeartbeatBinding() {
+        return BindingBuilder
+                .bind(deviceHeartbeatQueue())
+                .to(eventExchange())
+                .with(Common.Rabbit.ROUTING_DEVICE_HEARTBEAT_PREFIX + "*");
+    }
+
+    /**
+     * 全部 dc3-manager 实例共享的心跳队列，每批心跳只由一个实例消费，用于将设备状态写入 Redis
+     */
+    @Bean
+    Queue deviceStatusQueue() {
+        Map<String, Object> arguments = new HashMap<>();
+        // 15秒：15 * 1000 = 15000L
+        arguments.put("x-message-ttl", 15000L);
+        return new Queue(Common.Rabbit.QUEUE_DEVICE_STATUS, true, false, false, arguments);
+    }
+
+    @Bean
+    Binding deviceStatusBinding() {
+        return BindingBuilder
+                .bind(deviceStatusQueue())
+                .to(eventExchange())
+                .with(Common.Rabbit.ROUTING_DEVICE_HEARTBEAT_PREFIX + "*");
+    }
+
 }
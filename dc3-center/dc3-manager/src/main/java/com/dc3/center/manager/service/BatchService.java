@@ -14,9 +14,12 @@
 package com.dc3.center.manager.service;
 
 import com.dc3.common.bean.batch.BatchDriver;
+import com.dc3.common.bean.batch.BatchImportResult;
 import com.dc3.common.bean.driver.DriverMetadata;
+import com.dc3.common.bean.driver.DriverMetadataChunk;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * BatchService Interface
@@ -36,9 +39,12 @@ public interface BatchService {
      *     <li>位号配置</li>
      * </ul>
      *
+     * 先一次性校验全部数据，存在错误时不写入任何数据；校验通过后各驱动并行批量写入，每个驱动独立事务
+     *
      * @param batchDrivers List<BatchDriver>
+     * @return BatchImportResult
      */
-    void batchImport(List<BatchDriver> batchDrivers);
+    BatchImportResult batchImport(List<BatchDriver> batchDrivers);
 
     /**
      * 批量导出
@@ -64,4 +70,13 @@ public interface BatchService {
      */
     DriverMetadata batchDriverMetadata(String serviceName);
 
+    /**
+     * 分块获取驱动元数据，按设备分页逐块交给 consumer 处理
+     *
+     * @param serviceName Driver Service Name
+     * @param size        每块包含的设备数量
+     * @param consumer    DriverMetadataChunk Consumer
+     */
+    void batchDriverMetadataChunk(String serviceName, int size, Consumer<DriverMetadataChunk> consumer);
+
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.center.manager.service;
+
+import com.dc3.common.bean.driver.DeviceHeartbeat;
+
+/**
+ * Device Status Interface
+ *
+ * @author pnoker
+ */
+public interface DeviceStatusService {
+
+    /**
+     * 处理驱动上报的批量心跳，刷新设备状态表，仅在状态变化时记录 status 设备事件
+     *
+     * @param deviceHeartbeat DeviceHeartbeat
+     */
+    void heartbeat(DeviceHeartbeat deviceHeartbeat);
+
+    /**
+     * 将批量心跳中的设备状态写入 Redis，每批心跳只由一个实例写入
+     *
+     * @param deviceHeartbeat DeviceHeartbeat
+     */
+    void save(DeviceHeartbeat deviceHeartbeat);
+
+    /**
+     * 从设备状态表中查询设备状态
+     *
+     * @param deviceId Device Id
+     * @return Status，状态表中不存在时返回 null
+     */
+    String status(Long deviceId);
+}
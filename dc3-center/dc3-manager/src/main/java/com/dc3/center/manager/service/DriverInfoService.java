@@ -18,6 +18,7 @@ import com.dc3.common.dto.DriverInfoDto;
 import com.dc3.common.model.DriverInfo;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * DriverInfo Interface
@@ -50,4 +51,12 @@ public interface DriverInfoService extends Service<DriverInfo, DriverInfoDto> {
      * @return DriverInfo Array
      */
     List<DriverInfo> selectByDeviceId(Long deviceId);
+
+    /**
+     * 根据设备 ID 集合批量查询
+     *
+     * @param deviceIds Device Id Set
+     * @return DriverInfo Array
+     */
+    List<DriverInfo> selectByDeviceIds(Set<Long> deviceIds);
 }
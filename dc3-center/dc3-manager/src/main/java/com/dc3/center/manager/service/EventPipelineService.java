@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.center.manager.service;
+
+import com.dc3.common.model.DeviceEvent;
+import com.dc3.common.model.DriverEvent;
+
+/**
+ * 事件接收管道，对驱动上报的事件去重、限流后批量写入
+ *
+ * @author pnoker
+ */
+public interface EventPipelineService {
+
+    /**
+     * 接收 DeviceEvent，同一设备、位号、类型的事件在去重窗口内只保留第一条
+     *
+     * @param deviceEvent DeviceEvent
+     */
+    void acceptDeviceEvent(DeviceEvent deviceEvent);
+
+    /**
+     * 接收 DriverEvent，同一驱动、类型的事件在去重窗口内只保留第一条
+     *
+     * @param driverEvent DriverEvent
+     */
+    void acceptDriverEvent(DriverEvent driverEvent);
+}
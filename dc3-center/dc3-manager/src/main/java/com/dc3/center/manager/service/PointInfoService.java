@@ -18,6 +18,7 @@ import com.dc3.common.dto.PointInfoDto;
 import com.dc3.common.model.PointInfo;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * PointInfo Interface
@@ -60,4 +61,12 @@ public interface PointInfoService extends Service<PointInfo, PointInfoDto> {
      * @return PointInfo Array
      */
     List<PointInfo> selectByDeviceIdAndPointId(Long deviceId, Long pointId);
+
+    /**
+     * 根据 设备 ID 集合批量查询
+     *
+     * @param deviceIds Device Id Set
+     * @return PointInfo Array
+     */
+    List<PointInfo> selectByDeviceIds(Set<Long> deviceIds);
 }
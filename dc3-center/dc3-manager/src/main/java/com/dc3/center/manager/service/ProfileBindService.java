@@ -17,6 +17,7 @@ import com.dc3.common.base.Service;
 import com.dc3.common.dto.ProfileBindDto;
 import com.dc3.common.model.ProfileBind;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -66,4 +67,12 @@ public interface ProfileBindService extends Service<ProfileBind, ProfileBindDto>
      */
     Set<Long> selectProfileIdByDeviceId(Long deviceId);
 
+    /**
+     * 根据 设备ID 集合批量查询关联的模版映射
+     *
+     * @param deviceIds Device Id Set
+     * @return ProfileBind Array
+     */
+    List<ProfileBind> selectByDeviceIds(Set<Long> deviceIds);
+
 }
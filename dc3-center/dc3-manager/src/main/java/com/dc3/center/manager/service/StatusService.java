@@ -16,6 +16,7 @@ package com.dc3.center.manager.service;
 import com.dc3.common.dto.DeviceDto;
 import com.dc3.common.dto.DriverDto;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -57,6 +58,14 @@ public interface StatusService {
      */
     Map<Long, String> device(DeviceDto deviceDto);
 
+    /**
+     * 根据 驱动ID 查询 Device 服务状态
+     *
+     * @param driverId Driver Id
+     * @return Map<Long, String>
+     */
+    Map<Long, String> deviceByDriverId(Long driverId);
+
     /**
      * 根据 模板ID 查询 Device 服务状态
      *
@@ -64,4 +73,12 @@ public interface StatusService {
      * @return Map<Long, String>
      */
     Map<Long, String> deviceByProfileId(Long profileId);
+
+    /**
+     * 根据 设备ID 集合批量查询 Device 服务状态，一次 Redis 往返
+     *
+     * @param ids Device Id Array
+     * @return Map<Long, String>
+     */
+    Map<Long, String> deviceByIds(Collection<Long> ids);
 }
@@ -13,23 +13,46 @@
 
 package com.dc3.center.manager.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.dc3.center.manager.mapper.*;
 import com.dc3.center.manager.service.*;
 import com.dc3.common.bean.batch.*;
 import com.dc3.common.bean.driver.AttributeInfo;
 import com.dc3.common.bean.driver.DriverMetadata;
+import com.dc3.common.bean.driver.DriverMetadataChunk;
 import com.dc3.common.constant.Common;
 import com.dc3.common.exception.NotFoundException;
-import com.dc3.common.exception.ServiceException;
 import com.dc3.common.model.*;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Resource;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -65,34 +88,135 @@ public class BatchServiceImpl implements BatchService {
     @Resource
     private NotifyService notifyService;
 
-    @Override
-    @Transactional
-    public void batchImport(List<BatchDriver> batchDrivers) {
-        batchDrivers.forEach(batchDriver -> {
-            if (StrUtil.isBlank(batchDriver.getServiceName())) {
-                throw new ServiceException("Driver service name is blank");
-            }
-            Driver driver = driverService.selectByServiceName(batchDriver.getServiceName());
-            if (null == driver) {
-                throw new ServiceException("Driver service does not exist: " + batchDriver.getServiceName());
-            }
+    @Resource
+    private ProfileMapper profileMapper;
+    @Resource
+    private PointMapper pointMapper;
+    @Resource
+    private GroupMapper groupMapper;
+    @Resource
+    private DeviceMapper deviceMapper;
+    @Resource
+    private DriverInfoMapper driverInfoMapper;
+    @Resource
+    private PointInfoMapper pointInfoMapper;
 
-            batchDriver.getProfiles().forEach(batchProfile -> {
+    @Resource
+    private CacheManager cacheManager;
+    @Resource
+    private PlatformTransactionManager transactionManager;
+    @Resource
+    private ThreadPoolExecutor threadPoolExecutor;
+
+    @Value("${manager.batch.size}")
+    private Integer batchSize;
+
+    private static final Log BATCH_LOG = LogFactory.getLog(BatchServiceImpl.class);
 
-                // import Profile
-                Profile profile = importProfile(driver, batchProfile);
+    /**
+     * 批量导入涉及的缓存，导入结束后统一清理一次
+     */
+    private static final List<String> IMPORT_CACHES = Arrays.asList(
+            Common.Cache.PROFILE + Common.Cache.ID,
+            Common.Cache.PROFILE + Common.Cache.NAME,
+            Common.Cache.PROFILE + Common.Cache.NAME + Common.Cache.TYPE,
+            Common.Cache.PROFILE + Common.Cache.DIC,
+            Common.Cache.PROFILE + Common.Cache.LIST,
+            Common.Cache.POINT + Common.Cache.ID,
+            Common.Cache.POINT + Common.Cache.NAME + Common.Cache.PROFILE_ID,
+            Common.Cache.POINT + Common.Cache.PROFILE_ID + Common.Cache.LIST,
+            Common.Cache.POINT + Common.Cache.UNIT,
+            Common.Cache.POINT + Common.Cache.DIC,
+            Common.Cache.POINT + Common.Cache.LIST,
+            Common.Cache.GROUP + Common.Cache.ID,
+            Common.Cache.GROUP + Common.Cache.NAME,
+            Common.Cache.GROUP + Common.Cache.DIC,
+            Common.Cache.GROUP + Common.Cache.LIST,
+            Common.Cache.DEVICE + Common.Cache.ID,
+            Common.Cache.DEVICE + Common.Cache.NAME,
+            Common.Cache.DEVICE + Common.Cache.DIC,
+            Common.Cache.DEVICE + Common.Cache.DEVICE_ID + Common.Cache.LIST,
+            Common.Cache.DEVICE + Common.Cache.LIST,
+            Common.Cache.PROFILE_BIND + Common.Cache.ID,
+            Common.Cache.PROFILE_BIND + Common.Cache.DEVICE_ID,
+            Common.Cache.PROFILE_BIND + Common.Cache.PROFILE_ID,
+            Common.Cache.PROFILE_BIND + Common.Cache.DEVICE_ID + Common.Cache.PROFILE_ID,
+            Common.Cache.PROFILE_BIND + Common.Cache.DIC,
+            Common.Cache.PROFILE_BIND + Common.Cache.LIST,
+            Common.Cache.DRIVER_INFO + Common.Cache.ID,
+            Common.Cache.DRIVER_INFO + Common.Cache.ATTRIBUTE_ID + Common.Cache.DEVICE_ID,
+            Common.Cache.DRIVER_INFO + Common.Cache.ATTRIBUTE_ID + Common.Cache.LIST,
+            Common.Cache.DRIVER_INFO + Common.Cache.DEVICE_ID + Common.Cache.LIST,
+            Common.Cache.DRIVER_INFO + Common.Cache.DIC,
+            Common.Cache.DRIVER_INFO + Common.Cache.LIST,
+            Common.Cache.POINT_INFO + Common.Cache.ID,
+            Common.Cache.POINT_INFO + Common.Cache.ATTRIBUTE_ID + Common.Cache.DEVICE_ID + Common.Cache.POINT_ID,
+            Common.Cache.POINT_INFO + Common.Cache.ATTRIBUTE_ID + Common.Cache.LIST,
+            Common.Cache.POINT_INFO + Common.Cache.DEVICE_ID + Common.Cache.LIST,
+            Common.Cache.POINT_INFO + Common.Cache.DEVICE_ID + Common.Cache.POINT_ID + Common.Cache.LIST,
+            Common.Cache.POINT_INFO + Common.Cache.DIC,
+            Common.Cache.POINT_INFO + Common.Cache.LIST,
+            Common.Cache.DRIVER + Common.Cache.PROFILE_ID,
+            Common.Cache.DRIVER + Common.Cache.DEVICE_ID
+    );
 
-                // import Driver Info Array
-                // todo bug
-                importDriverInfo(driver, null, batchProfile.getDriverConfig());
+    @Override
+    public BatchImportResult batchImport(List<BatchDriver> batchDrivers) {
+        long start = System.currentTimeMillis();
+        BatchImportResult result = new BatchImportResult();
+
+        // 校验阶段：只读，生成每个驱动的导入计划并收集全部错误
+        List<ImportPlan> plans = resolveDrivers(batchDrivers, result.getErrors());
+        checkConflicts(plans, result.getErrors());
+        List<Group> addGroups = new ArrayList<>(16);
+        Map<String, Group> groupMap = resolveGroups(plans, addGroups);
+
+        CompletableFuture.allOf(plans.stream()
+                .map(plan -> CompletableFuture.runAsync(() -> planDriver(plan, groupMap), threadPoolExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+        plans.forEach(plan -> result.getErrors().addAll(plan.getErrors()));
+        if (result.getErrors().size() > 0) {
+            log.warn("Batch import rejected with {} error(s), nothing is imported", result.getErrors().size());
+            return result;
+        }
+        log.info("Batch import validated in {} ms: {} driver(s), {} row(s)", System.currentTimeMillis() - start, plans.size(), plans.stream().mapToInt(ImportPlan::size).sum() + addGroups.size());
 
-                // import Point Array
-                importPoint(profile, batchProfile.getPoints());
+        // 写入阶段：分组为多个驱动共享，先行写入；之后各驱动并行写入，每个驱动独立事务
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> insertBatch(GroupMapper.class, Group.class, addGroups));
+        result.setGroups(addGroups.size());
 
-                // import Device Array
-                importDevice(driver, profile, batchProfile.getGroups(), batchProfile.getPointConfig());
-            });
+        AtomicInteger finished = new AtomicInteger();
+        CompletableFuture.allOf(plans.stream()
+                .map(plan -> CompletableFuture.runAsync(() -> {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> importDriver(plan));
+                        plan.setImported(true);
+                        log.info("Batch import driver {} finished ({}/{}), {} row(s)", plan.getDriver().getServiceName(), finished.incrementAndGet(), plans.size(), plan.size());
+                    } catch (Exception e) {
+                        plan.getErrors().add(plan.getPath() + ": import failed, " + e.getMessage());
+                        log.error("Batch import driver {} failed ({}/{}): {}", plan.getDriver().getServiceName(), finished.incrementAndGet(), plans.size(), e.getMessage(), e);
+                    }
+                }, threadPoolExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+
+        // 全部写入结束后统一清理一次缓存，再通知驱动
+        IMPORT_CACHES.forEach(name -> Optional.ofNullable(cacheManager.getCache(name)).ifPresent(Cache::clear));
+        plans.forEach(plan -> {
+            result.getErrors().addAll(plan.getErrors());
+            if (plan.isImported()) {
+                result.setDrivers(result.getDrivers() + 1)
+                        .setProfiles(result.getProfiles() + plan.getAddProfiles().size() + plan.getUpdateProfiles().size())
+                        .setPoints(result.getPoints() + plan.getAddPoints().size() + plan.getUpdatePoints().size())
+                        .setDevices(result.getDevices() + plan.getAddDevices().size() + plan.getUpdateDevices().size())
+                        .setDriverInfos(result.getDriverInfos() + plan.getAddDriverInfos().size() + plan.getUpdateDriverInfos().size())
+                        .setPointInfos(result.getPointInfos() + plan.getAddPointInfos().size() + plan.getUpdatePointInfos().size());
+                notifyDriver(plan);
+            }
         });
+
+        log.info("Batch import finished in {} ms: {}", System.currentTimeMillis() - start, result);
+        return result;
     }
 
     @Override
@@ -133,7 +257,7 @@ public class BatchServiceImpl implements BatchService {
             Map<Long, Device> deviceMap = getDeviceMap(devices);
             driverMetadata.setDeviceMap(deviceMap);
 
-            Map<Long, Map<Long, Point>> profilePointMap = getProfilePointMap(deviceIds);
+            Map<Long, Map<Long, Point>> profilePointMap = getProfilePointMap(devices);
             driverMetadata.setProfilePointMap(profilePointMap);
 
             Map<Long, Map<Long, Map<String, AttributeInfo>>> devicePointInfoMap = getPointInfoMap(devices, profilePointMap, pointAttributeMap);
@@ -146,198 +270,55 @@ public class BatchServiceImpl implements BatchService {
         return driverMetadata;
     }
 
-    /**
-     * 导入 Profile
-     *
-     * @param driver       Driver
-     * @param batchProfile BatchProfile
-     */
-    private Profile importProfile(Driver driver, BatchProfile batchProfile) {
-        if (StrUtil.isBlank(batchProfile.getName())) {
-            throw new ServiceException("Profile name is blank");
-        }
-
-        Profile profile;
-        try {
-            profile = profileService.selectByNameAndType(batchProfile.getName(), batchProfile.getType(), driver.getTenantId());
-            profile.setShare(batchProfile.getShare());
-            profile.setDescription("批量导入：更新操作");
-            profile = profileService.update(profile);
-            notifyService.notifyDriverProfile(Common.Driver.Profile.UPDATE, profile);
-        } catch (NotFoundException notFoundException) {
-            profile = new Profile(batchProfile.getName(), batchProfile.getShare(), driver.getId(), driver.getTenantId());
-            profile.setDescription("批量导入：新增操作");
-            profile = profileService.add(profile);
-            notifyService.notifyDriverProfile(Common.Driver.Profile.ADD, profile);
-        }
-
-        return profile;
-    }
-
-    /**
-     * 导入 Driver Info 列表
-     *
-     * @param driver       Driver
-     * @param device       Device
-     * @param driverConfig Driver Config
-     */
-    private void importDriverInfo(Driver driver, Device device, final Map<String, String> driverConfig) {
-        List<String> driverInfoList = new ArrayList<>(16);
-        if (null == driverConfig) {
-            return;
-        }
-
-        driverConfig.forEach((name, value) -> {
-            DriverAttribute driverAttribute = driverAttributeService.selectByNameAndDriverId(name, driver.getId());
-            if (driverInfoList.contains(name)) {
-                throw new ServiceException("Repeatedly driver info: " + name);
+    @Override
+    public void batchDriverMetadataChunk(String serviceName, int size, Consumer<DriverMetadataChunk> consumer) {
+        Driver driver = driverService.selectByServiceName(serviceName);
+        Map<Long, DriverAttribute> driverAttributeMap = getDriverAttributeMap(driver.getId());
+        Map<Long, PointAttribute> pointAttributeMap = getPointAttributeMap(driver.getId());
+        Map<Long, Map<Long, Point>> profilePointMap = new HashMap<>(16);
+
+        // 直接按 Id 游标查询设备表，不经过设备列表缓存，避免读到过期的分页以及为每一页写入缓存
+        long total = deviceMapper.selectCount(Wrappers.<Device>query().lambda().eq(Device::getDriverId, driver.getId()));
+        long lastId = 0;
+        int sequence = 0;
+        boolean last = false;
+        while (!last) {
+            LambdaQueryWrapper<Device> queryWrapper = Wrappers.<Device>query().lambda();
+            queryWrapper.eq(Device::getDriverId, driver.getId()).gt(Device::getId, lastId)
+                    .orderByAsc(Device::getId).last("limit " + (size + 1));
+            List<Device> devices = deviceMapper.selectList(queryWrapper);
+            last = devices.size() <= size;
+            if (!last) {
+                devices = devices.subList(0, size);
             }
-            driverInfoList.add(name);
-
-            try {
-                DriverInfo driverInfo = driverInfoService.selectByAttributeIdAndDeviceId(driverAttribute.getId(), device.getId());
-                driverInfo.setDescription("批量导入：更新操作");
-                driverInfo = driverInfoService.update(driverInfo.setValue(value));
-                notifyService.notifyDriverDriverInfo(Common.Driver.DriverInfo.UPDATE, driverInfo);
-            } catch (NotFoundException notFoundException) {
-                DriverInfo driverInfo = new DriverInfo(driverAttribute.getId(), value, device.getId());
-                driverInfo.setDescription("批量导入：新增操作");
-                driverInfo = driverInfoService.add(driverInfo);
-                notifyService.notifyDriverDriverInfo(Common.Driver.DriverInfo.ADD, driverInfo);
+            if (!devices.isEmpty()) {
+                lastId = devices.get(devices.size() - 1).getId();
             }
-        });
-    }
-
-    /**
-     * 导入 Point 列表
-     *
-     * @param profile Profile
-     * @param points  Point Array
-     */
-    private void importPoint(Profile profile, List<BatchPoint> points) {
-        points.forEach(importPoint -> {
-            // If point does not exist, add a new point, otherwise point will be updated
-            try {
-                Point point = pointService.selectByNameAndProfileId(importPoint.getName(), profile.getId());
-                point
-                        .setName(importPoint.getName())
-                        .setType(importPoint.getType())
-                        .setRw(importPoint.getRw())
-                        .setBase(importPoint.getBase())
-                        .setMinimum(importPoint.getMinimum())
-                        .setMaximum(importPoint.getMaximum())
-                        .setMultiple(importPoint.getMultiple())
-                        .setAccrue(importPoint.getAccrue())
-                        .setFormat(importPoint.getFormat())
-                        .setUnit(importPoint.getUnit());
-                point.setDescription("批量导入：更新操作");
-                pointService.update(point);
-                notifyService.notifyDriverPoint(Common.Driver.Point.UPDATE, point);
-            } catch (NotFoundException notFoundException) {
-                Point point = new Point(
-                        importPoint.getName(),
-                        importPoint.getType(),
-                        importPoint.getRw(),
-                        importPoint.getBase(),
-                        importPoint.getMinimum(),
-                        importPoint.getMaximum(),
-                        importPoint.getMultiple(),
-                        importPoint.getAccrue(),
-                        importPoint.getFormat(),
-                        importPoint.getUnit(),
-                        profile.getId(),
-                        profile.getTenantId()
-                );
-                point.setDescription("批量导入：新增操作");
-                point = pointService.add(point);
-                notifyService.notifyDriverPoint(Common.Driver.Point.ADD, point);
-            }
-        });
-    }
+            fillProfileIds(devices);
+            Set<Long> deviceIds = devices.stream().map(Description::getId).collect(Collectors.toSet());
 
-    /**
-     * 导入 Device 列表
-     *
-     * @param driver  Driver
-     * @param profile Profile
-     * @param groups  Device Group
-     */
-    private void importDevice(Driver driver, Profile profile, List<BatchGroup> groups, final Map<String, Map<String, String>> pointConfig) {
-        groups.forEach(importGroup -> {
-            // If group does not exist, add a new group
-            Group groupTemp;
-            try {
-                groupTemp = groupService.selectByName(importGroup.getName(), driver.getTenantId());
-            } catch (NotFoundException notFoundException) {
-                groupTemp = new Group(importGroup.getName(), driver.getTenantId());
-                groupTemp = groupService.add(groupTemp);
+            DriverMetadataChunk chunk = new DriverMetadataChunk()
+                    .setDriverId(driver.getId()).setTenantId(driver.getTenantId())
+                    .setSequence(sequence).setLast(last).setTotal(total);
+            if (sequence == 0) {
+                chunk.setDriverAttributeMap(driverAttributeMap).setPointAttributeMap(pointAttributeMap);
             }
 
-            final Group group = groupTemp;
-            importGroup.getDevices().forEach(batchDevice -> {
-                Device device;
-                try {
-                    // todo bug
-                    //device = deviceService.selectDeviceByNameAndGroupId(batchDevice.getName(), group.getId());
-                    device = null;
-                    device.setMulti(batchDevice.getMulti());
-                    device.setDescription("批量导入：更新操作");
-                    deviceService.update(device);
-                    notifyService.notifyDriverDevice(Common.Driver.Device.UPDATE, device);
-                } catch (NotFoundException notFoundException) {
-                    device = new Device(batchDevice.getName(), profile.getId(), group.getId());
-                    if (batchDevice.getMulti()) {
-                        device.setMulti(true);
-                    }
-                    device.setDescription("批量导入：新增操作");
-                    device = deviceService.add(device);
-                    notifyService.notifyDriverDevice(Common.Driver.Device.ADD, device);
-                }
-
-                // Upsert Point Info
-                if (profile.getShare()) {
-                    importPointInfo(driver, profile, device, pointConfig);
-                } else {
-                    importPointInfo(driver, profile, device, batchDevice.getPointConfig());
-                }
-            });
-        });
-    }
-
-    /**
-     * 导入 Point Info 列表
-     *
-     * @param driver      Driver
-     * @param profile     Profile
-     * @param device      Device
-     * @param pointConfig Point Config Map
-     */
-    private void importPointInfo(Driver driver, Profile profile, Device device, final Map<String, Map<String, String>> pointConfig) {
-        pointConfig.forEach((pointName, pointConfigMap) -> {
-            List<String> pointInfoList = new ArrayList<>(16);
-            pointConfigMap.forEach((name, value) -> {
-                PointAttribute pointAttribute = pointAttributeService.selectByNameAndDriverId(name, driver.getId());
-                if (pointInfoList.contains(name)) {
-                    throw new ServiceException("Repeatedly point info: " + name);
-                }
-                pointInfoList.add(name);
-
-                Point point = pointService.selectByNameAndProfileId(pointName, profile.getId());
-
-                // If point info does not exist, add a new point info, otherwise point info will be updated
-                try {
-                    PointInfo pointInfo = pointInfoService.selectByAttributeIdAndDeviceIdAndPointId(pointAttribute.getId(), device.getId(), point.getId());
-                    pointInfo.setDescription("批量导入：更新操作");
-                    pointInfo = pointInfoService.update(pointInfo.setValue(value));
-                    notifyService.notifyDriverPointInfo(Common.Driver.PointInfo.UPDATE, pointInfo);
-                } catch (NotFoundException notFoundException) {
-                    PointInfo pointInfo = new PointInfo(pointAttribute.getId(), value, device.getId(), point.getId());
-                    pointInfo.setDescription("批量导入：新增操作");
-                    pointInfo = pointInfoService.add(pointInfo);
-                    notifyService.notifyDriverPointInfo(Common.Driver.PointInfo.ADD, pointInfo);
-                }
-            });
-        });
+            // Only the points of profiles first referenced by this page are sent
+            Set<Long> profileIds = devices.stream()
+                    .flatMap(device -> device.getProfileIds().stream())
+                    .filter(profileId -> !profilePointMap.containsKey(profileId))
+                    .collect(Collectors.toSet());
+            Map<Long, Map<Long, Point>> chunkProfilePointMap = getProfilePointMap(profileIds);
+            profilePointMap.putAll(chunkProfilePointMap);
+
+            chunk.setProfilePointMap(chunkProfilePointMap)
+                    .setDriverInfoMap(getDriverInfoMap(deviceIds, driverAttributeMap))
+                    .setPointInfoMap(getPointInfoMap(devices, profilePointMap, pointAttributeMap))
+                    .setDeviceMap(getDeviceMap(devices));
+            consumer.accept(chunk);
+            sequence++;
+        }
     }
 
     /**
@@ -544,44 +525,33 @@ public class BatchServiceImpl implements BatchService {
 
     /**
      * Get driver info map
+     * <p>
+     * 一次性加载全部设备的驱动配置信息，在内存中按设备组装
      *
-     * @param deviceList         Device Set
+     * @param deviceIds          Device Id Set
      * @param driverAttributeMap Driver Attribute Map
      * @return map(deviceId ( driverAttribute.name, ( drverInfo.value, driverAttribute.type)))
      */
-    public Map<Long, Map<String, AttributeInfo>> getDriverInfoMap(Set<Long> deviceList, Map<Long, DriverAttribute> driverAttributeMap) {
+    public Map<Long, Map<String, AttributeInfo>> getDriverInfoMap(Set<Long> deviceIds, Map<Long, DriverAttribute> driverAttributeMap) {
         Map<Long, Map<String, AttributeInfo>> driverInfoMap = new ConcurrentHashMap<>(16);
-        deviceList.forEach(deviceId -> {
-            Map<String, AttributeInfo> infoMap = getDriverInfoMap(deviceId, driverAttributeMap);
-            if (infoMap.size() > 0) {
-                driverInfoMap.put(deviceId, infoMap);
-            }
-        });
-        return driverInfoMap;
-    }
-
-    /**
-     * Get driver info map
-     *
-     * @param deviceId           Device Id
-     * @param driverAttributeMap Driver Attribute Map
-     * @return map(attributeName, attributeInfo ( value, type))
-     */
-    public Map<String, AttributeInfo> getDriverInfoMap(Long deviceId, Map<Long, DriverAttribute> driverAttributeMap) {
-        Map<String, AttributeInfo> attributeInfoMap = new ConcurrentHashMap<>(16);
         try {
-            List<DriverInfo> driverInfos = driverInfoService.selectByDeviceId(deviceId);
+            List<DriverInfo> driverInfos = driverInfoService.selectByDeviceIds(deviceIds);
             driverInfos.forEach(driverInfo -> {
                 DriverAttribute attribute = driverAttributeMap.get(driverInfo.getDriverAttributeId());
-                attributeInfoMap.put(attribute.getName(), new AttributeInfo(driverInfo.getValue(), attribute.getType()));
+                if (null != attribute) {
+                    driverInfoMap.computeIfAbsent(driverInfo.getDeviceId(), k -> new ConcurrentHashMap<>(16))
+                            .put(attribute.getName(), new AttributeInfo(driverInfo.getValue(), attribute.getType()));
+                }
             });
         } catch (NotFoundException ignored) {
         }
-        return attributeInfoMap;
+        return driverInfoMap;
     }
 
     /**
      * Get point info map
+     * <p>
+     * 一次性加载全部设备的位号配置信息，仅保留设备所关联模版下的位号
      *
      * @param devices           Device Array
      * @param profilePointMap   Profile Point Map
@@ -590,49 +560,28 @@ public class BatchServiceImpl implements BatchService {
      */
     public Map<Long, Map<Long, Map<String, AttributeInfo>>> getPointInfoMap(List<Device> devices, Map<Long, Map<Long, Point>> profilePointMap, Map<Long, PointAttribute> pointAttributeMap) {
         Map<Long, Map<Long, Map<String, AttributeInfo>>> devicePointInfoMap = new ConcurrentHashMap<>(16);
-        devices.forEach(device -> {
-            Map<Long, Map<String, AttributeInfo>> infoMap = getPointInfoMap(device, profilePointMap, pointAttributeMap);
-            if (infoMap.size() > 0) {
-                devicePointInfoMap.put(device.getId(), infoMap);
-            }
-        });
+        Map<Long, Device> deviceMap = getDeviceMap(devices);
+        try {
+            List<PointInfo> pointInfos = pointInfoService.selectByDeviceIds(deviceMap.keySet());
+            pointInfos.forEach(pointInfo -> {
+                Device device = deviceMap.get(pointInfo.getDeviceId());
+                PointAttribute attribute = pointAttributeMap.get(pointInfo.getPointAttributeId());
+                if (null != device && null != attribute && containsPoint(device, pointInfo.getPointId(), profilePointMap)) {
+                    devicePointInfoMap.computeIfAbsent(device.getId(), k -> new ConcurrentHashMap<>(16))
+                            .computeIfAbsent(pointInfo.getPointId(), k -> new ConcurrentHashMap<>(16))
+                            .put(attribute.getName(), new AttributeInfo(pointInfo.getValue(), attribute.getType()));
+                }
+            });
+        } catch (NotFoundException ignored) {
+        }
         return devicePointInfoMap;
     }
 
-    /**
-     * Get point info map
-     *
-     * @param device            Device
-     * @param profilePointMap   Profile Point Map
-     * @param pointAttributeMap Point Attribute Map
-     * @return map(pointId, attribute ( attributeName, attributeInfo ( value, type)))
-     */
-    public Map<Long, Map<String, AttributeInfo>> getPointInfoMap(Device device, Map<Long, Map<Long, Point>> profilePointMap, Map<Long, PointAttribute> pointAttributeMap) {
-        Map<Long, Map<String, AttributeInfo>> attributeInfoMap = new ConcurrentHashMap<>(16);
-        device.getProfileIds().forEach(profileId -> profilePointMap.get(profileId).keySet()
-                .forEach(pointId -> {
-                    try {
-                        List<PointInfo> pointInfos = pointInfoService.selectByDeviceIdAndPointId(device.getId(), pointId);
-                        Map<String, AttributeInfo> infoMap = new ConcurrentHashMap<>(16);
-                        pointInfos.forEach(pointInfo -> {
-                            PointAttribute attribute = pointAttributeMap.get(pointInfo.getPointAttributeId());
-                            infoMap.put(attribute.getName(), new AttributeInfo(pointInfo.getValue(), attribute.getType()));
-                        });
-
-                        if (infoMap.size() > 0) {
-                            attributeInfoMap.put(pointId, infoMap);
-                        }
-                    } catch (NotFoundException ignored) {
-                    }
-                }));
-        return attributeInfoMap;
-    }
-
     /**
      * Get device map
      *
      * @param devices Device Array
-     * @return map(pointId, point)
+     * @return map(deviceId, device)
      */
     public Map<Long, Device> getDeviceMap(List<Device> devices) {
         Map<Long, Device> deviceMap = new ConcurrentHashMap<>(16);
@@ -641,33 +590,660 @@ public class BatchServiceImpl implements BatchService {
     }
 
     /**
-     * Get profile  map
+     * Get profile map
+     * <p>
+     * 一次性加载全部设备所关联模版下的位号
      *
-     * @param deviceIds Device Id Set
+     * @param devices Device Array
      * @return map(profileId ( pointId, point))
      */
-    public Map<Long, Map<Long, Point>> getProfilePointMap(Set<Long> deviceIds) {
-        Map<Long, Map<Long, Point>> profilePointMap = new ConcurrentHashMap<>(16);
-        deviceIds.forEach(deviceId -> {
-            Set<Long> profileIds = profileBindService.selectProfileIdByDeviceId(deviceId);
-            profileIds.forEach(profileId -> profilePointMap.put(profileId, getPointMap(profileId)));
-        });
-        return profilePointMap;
+    public Map<Long, Map<Long, Point>> getProfilePointMap(List<Device> devices) {
+        Set<Long> profileIds = devices.stream().flatMap(device -> device.getProfileIds().stream()).collect(Collectors.toSet());
+        return getProfilePointMap(profileIds);
     }
 
     /**
-     * Get point map
+     * Get profile map
      *
-     * @param profileId Profile Id
-     * @return map(pointId, point)
+     * @param profileIds Profile Id Set
+     * @return map(profileId ( pointId, point))
      */
-    public Map<Long, Point> getPointMap(Long profileId) {
-        Map<Long, Point> pointMap = new ConcurrentHashMap<>(16);
+    public Map<Long, Map<Long, Point>> getProfilePointMap(Set<Long> profileIds) {
+        Map<Long, Map<Long, Point>> profilePointMap = new ConcurrentHashMap<>(16);
+        if (profileIds.size() < 1) {
+            return profilePointMap;
+        }
+        profileIds.forEach(profileId -> profilePointMap.put(profileId, new ConcurrentHashMap<>(16)));
         try {
-            pointService.selectByProfileId(profileId).forEach(point -> pointMap.put(point.getId(), point));
+            pointService.selectByProfileIds(profileIds).forEach(point -> profilePointMap.computeIfAbsent(point.getProfileId(), k -> new ConcurrentHashMap<>(16)).put(point.getId(), point));
         } catch (NotFoundException ignored) {
         }
+        return profilePointMap;
+    }
+
+    /**
+     * 填充设备关联的模版 Id
+     *
+     * @param devices Device Array
+     */
+    private void fillProfileIds(List<Device> devices) {
+        if (devices.isEmpty()) {
+            return;
+        }
+        Set<Long> deviceIds = devices.stream().map(Device::getId).collect(Collectors.toSet());
+        Map<Long, Set<Long>> profileIdsMap = profileBindService.selectByDeviceIds(deviceIds).stream()
+                .collect(Collectors.groupingBy(ProfileBind::getDeviceId, Collectors.mapping(ProfileBind::getProfileId, Collectors.toSet())));
+        devices.forEach(device -> device.setProfileIds(profileIdsMap.getOrDefault(device.getId(), new HashSet<>(8))));
+    }
+
+    /**
+     * 判断位号是否属于设备所关联的模版
+     *
+     * @param device          Device
+     * @param pointId         Point Id
+     * @param profilePointMap Profile Point Map
+     * @return boolean
+     */
+    private boolean containsPoint(Device device, Long pointId, Map<Long, Map<Long, Point>> profilePointMap) {
+        return device.getProfileIds().stream()
+                .map(profilePointMap::get)
+                .anyMatch(pointMap -> null != pointMap && pointMap.containsKey(pointId));
+    }
+
+    /**
+     * 解析导入数据中的驱动，每个驱动生成一个导入计划
+     *
+     * @param batchDrivers BatchDriver Array
+     * @param errors       Error Array
+     * @return ImportPlan Array
+     */
+    private List<ImportPlan> resolveDrivers(List<BatchDriver> batchDrivers, List<String> errors) {
+        List<ImportPlan> plans = new ArrayList<>(16);
+        Set<String> serviceNames = new HashSet<>(16);
+        for (int i = 0; i < batchDrivers.size(); i++) {
+            BatchDriver batchDriver = batchDrivers.get(i);
+            String path = "driver[" + i + "]";
+            if (StrUtil.isBlank(batchDriver.getServiceName())) {
+                errors.add(path + ": driver service name is blank");
+                continue;
+            }
+            path = "driver[" + batchDriver.getServiceName() + "]";
+            if (!serviceNames.add(batchDriver.getServiceName())) {
+                errors.add(path + ": repeatedly driver");
+                continue;
+            }
+            try {
+                Driver driver = driverService.selectByServiceName(batchDriver.getServiceName());
+                plans.add(new ImportPlan(path, driver, batchDriver));
+            } catch (NotFoundException notFoundException) {
+                errors.add(path + ": driver service does not exist");
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * 检查跨驱动的冲突：同一租户下的模版和设备只能由一个驱动导入
+     *
+     * @param plans  ImportPlan Array
+     * @param errors Error Array
+     */
+    private void checkConflicts(List<ImportPlan> plans, List<String> errors) {
+        Map<String, String> profileOwners = new HashMap<>(16);
+        Map<String, String> deviceOwners = new HashMap<>(16);
+        plans.forEach(plan -> {
+            Long tenantId = plan.getDriver().getTenantId();
+            String serviceName = plan.getDriver().getServiceName();
+            Set<String> deviceKeys = new HashSet<>(16);
+            nullToEmpty(plan.getBatchDriver().getProfiles()).stream().filter(batchProfile -> StrUtil.isNotBlank(batchProfile.getName())).forEach(batchProfile -> {
+                String profileKey = tenantId + Common.Cache.DOT + batchProfile.getName() + Common.Cache.DOT + profileType(batchProfile);
+                String owner = profileOwners.putIfAbsent(profileKey, serviceName);
+                if (null != owner && !owner.equals(serviceName)) {
+                    errors.add(plan.getPath() + ".profile[" + batchProfile.getName() + "]: profile is also imported by driver " + owner);
+                }
+                nullToEmpty(batchProfile.getGroups()).forEach(batchGroup -> nullToEmpty(batchGroup.getDevices()).stream().filter(batchDevice -> StrUtil.isNotBlank(batchDevice.getName())).forEach(batchDevice -> {
+                    String deviceKey = tenantId + Common.Cache.DOT + batchDevice.getName();
+                    if (deviceKeys.add(deviceKey)) {
+                        String deviceOwner = deviceOwners.putIfAbsent(deviceKey, serviceName);
+                        if (null != deviceOwner) {
+                            errors.add(plan.getPath() + ".device[" + batchDevice.getName() + "]: device is also imported by driver " + deviceOwner);
+                        }
+                    }
+                }));
+            });
+        });
+    }
+
+    /**
+     * 一次性加载导入数据中涉及的全部分组，不存在的分组预先分配 Id
+     *
+     * @param plans     ImportPlan Array
+     * @param addGroups 需要新增的分组
+     * @return map(tenantId.groupName, group)
+     */
+    private Map<String, Group> resolveGroups(List<ImportPlan> plans, List<Group> addGroups) {
+        Map<Long, Set<String>> tenantGroupNames = new HashMap<>(16);
+        plans.forEach(plan -> nullToEmpty(plan.getBatchDriver().getProfiles())
+                .forEach(batchProfile -> nullToEmpty(batchProfile.getGroups()).stream()
+                        .map(BatchGroup::getName).filter(StrUtil::isNotBlank)
+                        .forEach(name -> tenantGroupNames.computeIfAbsent(plan.getDriver().getTenantId(), k -> new HashSet<>(16)).add(name))));
+
+        Map<String, Group> groupMap = new HashMap<>(16);
+        tenantGroupNames.forEach((tenantId, names) -> {
+            selectIn(names, part -> {
+                LambdaQueryWrapper<Group> queryWrapper = Wrappers.<Group>query().lambda();
+                queryWrapper.eq(Group::getTenantId, tenantId).in(Group::getName, part);
+                return groupMapper.selectList(queryWrapper);
+            }).forEach(group -> groupMap.put(tenantId + Common.Cache.DOT + group.getName(), group));
+
+            names.stream().filter(name -> !groupMap.containsKey(tenantId + Common.Cache.DOT + name)).forEach(name -> {
+                Group group = new Group(name, tenantId);
+                group.setId(IdWorker.getId());
+                group.setDescription("批量导入：新增操作");
+                groupMap.put(tenantId + Common.Cache.DOT + name, group);
+                addGroups.add(group);
+            });
+        });
+        return groupMap;
+    }
+
+    /**
+     * 生成单个驱动的导入计划
+     * <p>
+     * 一次性加载驱动下已存在的模版、位号、设备及配置信息，在内存中比对出需要新增和更新的数据，
+     * 校验失败的数据记录到 ImportPlan 的错误信息中
+     *
+     * @param plan     ImportPlan
+     * @param groupMap map(tenantId.groupName, group)
+     */
+    private void planDriver(ImportPlan plan, Map<String, Group> groupMap) {
+        Driver driver = plan.getDriver();
+        Long tenantId = driver.getTenantId();
+        List<BatchProfile> batchProfiles = nullToEmpty(plan.getBatchDriver().getProfiles());
+
+        Map<String, DriverAttribute> driverAttributeMap = getDriverAttributeMap(driver.getId()).values().stream()
+                .collect(Collectors.toMap(DriverAttribute::getName, Function.identity(), (a, b) -> a));
+        Map<String, PointAttribute> pointAttributeMap = getPointAttributeMap(driver.getId()).values().stream()
+                .collect(Collectors.toMap(PointAttribute::getName, Function.identity(), (a, b) -> a));
+
+        // 已存在的模版及其位号
+        Set<String> profileNames = batchProfiles.stream().map(BatchProfile::getName).filter(StrUtil::isNotBlank).collect(Collectors.toSet());
+        Map<String, Profile> existProfiles = selectIn(profileNames, part -> {
+            LambdaQueryWrapper<Profile> queryWrapper = Wrappers.<Profile>query().lambda();
+            queryWrapper.eq(Profile::getTenantId, tenantId).in(Profile::getName, part);
+            return profileMapper.selectList(queryWrapper);
+        }).stream().collect(Collectors.toMap(profile -> profile.getName() + Common.Cache.DOT + profile.getType(), Function.identity(), (a, b) -> a));
+        Map<Long, Map<String, Point>> existPoints = selectIn(existProfiles.values().stream().map(Profile::getId).collect(Collectors.toSet()), part -> {
+            LambdaQueryWrapper<Point> queryWrapper = Wrappers.<Point>query().lambda();
+            queryWrapper.in(Point::getProfileId, part);
+            return pointMapper.selectList(queryWrapper);
+        }).stream().collect(Collectors.groupingBy(Point::getProfileId, Collectors.toMap(Point::getName, Function.identity(), (a, b) -> a)));
+
+        // 已存在的设备及其模版绑定、驱动配置、位号配置
+        Set<String> deviceNames = batchProfiles.stream()
+                .flatMap(batchProfile -> nullToEmpty(batchProfile.getGroups()).stream())
+                .flatMap(batchGroup -> nullToEmpty(batchGroup.getDevices()).stream())
+                .map(BatchDevice::getName).filter(StrUtil::isNotBlank).collect(Collectors.toSet());
+        Map<String, Device> existDevices = selectIn(deviceNames, part -> {
+            LambdaQueryWrapper<Device> queryWrapper = Wrappers.<Device>query().lambda();
+            queryWrapper.eq(Device::getTenantId, tenantId).in(Device::getName, part);
+            return deviceMapper.selectList(queryWrapper);
+        }).stream().collect(Collectors.toMap(Device::getName, Function.identity(), (a, b) -> a));
+        Set<Long> existDeviceIds = existDevices.values().stream().map(Device::getId).collect(Collectors.toSet());
+        Map<Long, Set<Long>> existProfileIds = selectIn(existDeviceIds, part -> profileBindService.selectByDeviceIds(new HashSet<>(part))).stream()
+                .collect(Collectors.groupingBy(ProfileBind::getDeviceId, Collectors.mapping(ProfileBind::getProfileId, Collectors.toSet())));
+        Map<String, DriverInfo> existDriverInfos = selectIn(existDeviceIds, part -> {
+            LambdaQueryWrapper<DriverInfo> queryWrapper = Wrappers.<DriverInfo>query().lambda();
+            queryWrapper.in(DriverInfo::getDeviceId, part);
+            return driverInfoMapper.selectList(queryWrapper);
+        }).stream().collect(Collectors.toMap(driverInfo -> driverInfo.getDriverAttributeId() + Common.Cache.DOT + driverInfo.getDeviceId(), Function.identity(), (a, b) -> a));
+        Map<String, PointInfo> existPointInfos = selectIn(existDeviceIds, part -> {
+            LambdaQueryWrapper<PointInfo> queryWrapper = Wrappers.<PointInfo>query().lambda();
+            queryWrapper.in(PointInfo::getDeviceId, part);
+            return pointInfoMapper.selectList(queryWrapper);
+        }).stream().collect(Collectors.toMap(pointInfo -> pointInfo.getPointAttributeId() + Common.Cache.DOT + pointInfo.getDeviceId() + Common.Cache.DOT + pointInfo.getPointId(), Function.identity(), (a, b) -> a));
+
+        Set<String> profileKeys = new HashSet<>(16);
+        for (BatchProfile batchProfile : batchProfiles) {
+            if (StrUtil.isBlank(batchProfile.getName())) {
+                plan.error(plan.getPath() + ".profile: profile name is blank");
+                continue;
+            }
+            String profilePath = plan.getPath() + ".profile[" + batchProfile.getName() + "]";
+            Short type = profileType(batchProfile);
+            if (!profileKeys.add(batchProfile.getName() + Common.Cache.DOT + type)) {
+                plan.error(profilePath + ": repeatedly profile");
+                continue;
+            }
+
+            Profile profile = planProfile(plan, existProfiles.get(batchProfile.getName() + Common.Cache.DOT + type), batchProfile, type);
+            Map<String, Point> pointMap = planPoint(plan, profilePath, profile, existPoints.getOrDefault(profile.getId(), Collections.emptyMap()), batchProfile.getPoints());
+
+            Map<Long, String> driverConfig = new HashMap<>(16);
+            Optional.ofNullable(batchProfile.getDriverConfig()).orElse(Collections.emptyMap()).forEach((name, value) -> {
+                DriverAttribute driverAttribute = driverAttributeMap.get(name);
+                if (null == driverAttribute) {
+                    plan.error(profilePath + ".driverConfig[" + name + "]: driver attribute does not exist");
+                } else if (null == value) {
+                    plan.error(profilePath + ".driverConfig[" + name + "]: value is null");
+                } else {
+                    driverConfig.put(driverAttribute.getId(), value);
+                }
+            });
+            Map<Long, Map<Long, String>> sharePointConfig = profile.getShare() ?
+                    resolvePointConfig(plan, profilePath, pointMap, pointAttributeMap, batchProfile.getPointConfig()) : Collections.emptyMap();
+
+            for (BatchGroup batchGroup : nullToEmpty(batchProfile.getGroups())) {
+                if (StrUtil.isBlank(batchGroup.getName())) {
+                    plan.error(profilePath + ".group: group name is blank");
+                    continue;
+                }
+                Group group = groupMap.get(tenantId + Common.Cache.DOT + batchGroup.getName());
+                for (BatchDevice batchDevice : nullToEmpty(batchGroup.getDevices())) {
+                    if (StrUtil.isBlank(batchDevice.getName())) {
+                        plan.error(profilePath + ".group[" + batchGroup.getName() + "].device: device name is blank");
+                        continue;
+                    }
+                    String devicePath = profilePath + ".group[" + batchGroup.getName() + "].device[" + batchDevice.getName() + "]";
+                    Device device = planDevice(plan, devicePath, existDevices.get(batchDevice.getName()), existProfileIds, batchDevice, group);
+                    if (null == device) {
+                        continue;
+                    }
+                    if (device.getProfileIds().add(profile.getId())) {
+                        ProfileBind profileBind = new ProfileBind(profile.getId(), device.getId());
+                        profileBind.setId(IdWorker.getId());
+                        plan.getAddProfileBinds().add(profileBind);
+                    }
+
+                    driverConfig.forEach((attributeId, value) -> planDriverInfo(plan, existDriverInfos, attributeId, device.getId(), value));
+                    Map<Long, Map<Long, String>> pointConfig = profile.getShare() ? sharePointConfig :
+                            resolvePointConfig(plan, devicePath, pointMap, pointAttributeMap, batchDevice.getPointConfig());
+                    pointConfig.forEach((pointId, config) -> config.forEach((attributeId, value) -> planPointInfo(plan, existPointInfos, attributeId, device.getId(), pointId, value)));
+                }
+            }
+        }
+
+        log.info("Batch import driver {} planned: {} row(s), {} error(s)", driver.getServiceName(), plan.size(), plan.getErrors().size());
+    }
+
+    /**
+     * 计划导入 Profile
+     *
+     * @param plan         ImportPlan
+     * @param profile      已存在的 Profile，不存在时为 null
+     * @param batchProfile BatchProfile
+     * @param type         Profile Type
+     * @return Profile
+     */
+    private Profile planProfile(ImportPlan plan, Profile profile, BatchProfile batchProfile, Short type) {
+        if (null == profile) {
+            profile = new Profile(batchProfile.getName(), null != batchProfile.getShare() ? batchProfile.getShare() : true, plan.getDriver().getId(), plan.getDriver().getTenantId());
+            profile.setType(type);
+            profile.setId(IdWorker.getId());
+            profile.setDescription("批量导入：新增操作");
+            plan.getAddProfiles().add(profile);
+        } else {
+            if (null != batchProfile.getShare()) {
+                profile.setShare(batchProfile.getShare());
+            }
+            profile.setDescription("批量导入：更新操作");
+            profile.setUpdateTime(null);
+            plan.getUpdateProfiles().add(profile);
+        }
+        return profile;
+    }
+
+    /**
+     * 计划导入 Point 列表
+     *
+     * @param plan        ImportPlan
+     * @param path        Error Path
+     * @param profile     Profile
+     * @param existPoints 模版下已存在的位号，map(pointName, point)
+     * @param batchPoints BatchPoint Array
+     * @return 模版下导入后的全部位号，map(pointName, point)
+     */
+    private Map<String, Point> planPoint(ImportPlan plan, String path, Profile profile, Map<String, Point> existPoints, List<BatchPoint> batchPoints) {
+        Map<String, Point> pointMap = new HashMap<>(existPoints);
+        Set<String> pointNames = new HashSet<>(16);
+        for (BatchPoint batchPoint : nullToEmpty(batchPoints)) {
+            if (StrUtil.isBlank(batchPoint.getName())) {
+                plan.error(path + ".point: point name is blank");
+                continue;
+            }
+            if (!pointNames.add(batchPoint.getName())) {
+                plan.error(path + ".point[" + batchPoint.getName() + "]: repeatedly point");
+                continue;
+            }
+
+            Point point = existPoints.get(batchPoint.getName());
+            if (null == point) {
+                point = new Point(
+                        batchPoint.getName(),
+                        batchPoint.getType(),
+                        batchPoint.getRw(),
+                        batchPoint.getBase(),
+                        batchPoint.getMinimum(),
+                        batchPoint.getMaximum(),
+                        batchPoint.getMultiple(),
+                        batchPoint.getAccrue(),
+                        batchPoint.getFormat(),
+                        batchPoint.getUnit(),
+                        profile.getId(),
+                        profile.getTenantId()
+                );
+                point.setId(IdWorker.getId());
+                point.setDescription("批量导入：新增操作");
+                plan.getAddPoints().add(point);
+            } else {
+                point
+                        .setType(batchPoint.getType())
+                        .setRw(batchPoint.getRw())
+                        .setBase(batchPoint.getBase())
+                        .setMinimum(batchPoint.getMinimum())
+                        .setMaximum(batchPoint.getMaximum())
+                        .setMultiple(batchPoint.getMultiple())
+                        .setAccrue(batchPoint.getAccrue())
+                        .setFormat(batchPoint.getFormat())
+                        .setUnit(batchPoint.getUnit());
+                point.setDescription("批量导入：更新操作");
+                point.setUpdateTime(null);
+                plan.getUpdatePoints().add(point);
+            }
+            pointMap.put(point.getName(), point);
+        }
         return pointMap;
     }
 
+    /**
+     * 计划导入 Device
+     * <p>
+     * 同一驱动下多个模版引用同一设备时，设备只导入一次并绑定到全部模版
+     *
+     * @param plan            ImportPlan
+     * @param path            Error Path
+     * @param exist           已存在的 Device，不存在时为 null
+     * @param existProfileIds 已存在设备的模版绑定，map(deviceId, profileIds)
+     * @param batchDevice     BatchDevice
+     * @param group           Group
+     * @return Device，校验失败时为 null
+     */
+    private Device planDevice(ImportPlan plan, String path, Device exist, Map<Long, Set<Long>> existProfileIds, BatchDevice batchDevice, Group group) {
+        Device device = plan.getDevices().get(batchDevice.getName());
+        if (null != device) {
+            if (!group.getId().equals(device.getGroupId())) {
+                plan.error(path + ": device is already imported in another group");
+                return null;
+            }
+            if (Boolean.TRUE.equals(batchDevice.getMulti())) {
+                device.setMulti(true);
+            }
+            return device;
+        }
+
+        if (null == exist) {
+            device = new Device(batchDevice.getName(), null, group.getId());
+            device.setMulti(Boolean.TRUE.equals(batchDevice.getMulti()))
+                    .setDriverId(plan.getDriver().getId())
+                    .setTenantId(plan.getDriver().getTenantId())
+                    .setProfileIds(new HashSet<>(8));
+            device.setId(IdWorker.getId());
+            device.setDescription("批量导入：新增操作");
+            plan.getAddDevices().add(device);
+        } else {
+            if (!plan.getDriver().getId().equals(exist.getDriverId())) {
+                plan.error(path + ": device already belongs to another driver");
+                return null;
+            }
+            device = exist;
+            device.setGroupId(group.getId())
+                    .setProfileIds(new HashSet<>(existProfileIds.getOrDefault(device.getId(), Collections.emptySet())));
+            if (null != batchDevice.getMulti()) {
+                device.setMulti(batchDevice.getMulti());
+            }
+            device.setDescription("批量导入：更新操作");
+            device.setUpdateTime(null);
+            plan.getUpdateDevices().add(device);
+        }
+        plan.getDevices().put(device.getName(), device);
+        return device;
+    }
+
+    /**
+     * 计划导入 Driver Info，值未变化的配置不会更新
+     *
+     * @param plan        ImportPlan
+     * @param exist       已存在的 DriverInfo，map(attributeId.deviceId, driverInfo)
+     * @param attributeId Driver Attribute Id
+     * @param deviceId    Device Id
+     * @param value       Value
+     */
+    private void planDriverInfo(ImportPlan plan, Map<String, DriverInfo> exist, Long attributeId, Long deviceId, String value) {
+        String key = attributeId + Common.Cache.DOT + deviceId;
+        DriverInfo driverInfo = plan.getAddDriverInfos().get(key);
+        if (null != driverInfo) {
+            driverInfo.setValue(value);
+            return;
+        }
+
+        driverInfo = exist.get(key);
+        if (null == driverInfo) {
+            driverInfo = new DriverInfo(attributeId, value, deviceId);
+            driverInfo.setId(IdWorker.getId());
+            driverInfo.setDescription("批量导入：新增操作");
+            plan.getAddDriverInfos().put(key, driverInfo);
+        } else if (!value.equals(driverInfo.getValue())) {
+            driverInfo.setValue(value);
+            driverInfo.setDescription("批量导入：更新操作");
+            driverInfo.setUpdateTime(null);
+            plan.getUpdateDriverInfos().put(key, driverInfo);
+        }
+    }
+
+    /**
+     * 计划导入 Point Info，值未变化的配置不会更新
+     *
+     * @param plan        ImportPlan
+     * @param exist       已存在的 PointInfo，map(attributeId.deviceId.pointId, pointInfo)
+     * @param attributeId Point Attribute Id
+     * @param deviceId    Device Id
+     * @param pointId     Point Id
+     * @param value       Value
+     */
+    private void planPointInfo(ImportPlan plan, Map<String, PointInfo> exist, Long attributeId, Long deviceId, Long pointId, String value) {
+        String key = attributeId + Common.Cache.DOT + deviceId + Common.Cache.DOT + pointId;
+        PointInfo pointInfo = plan.getAddPointInfos().get(key);
+        if (null != pointInfo) {
+            pointInfo.setValue(value);
+            return;
+        }
+
+        pointInfo = exist.get(key);
+        if (null == pointInfo) {
+            pointInfo = new PointInfo(attributeId, value, deviceId, pointId);
+            pointInfo.setId(IdWorker.getId());
+            pointInfo.setDescription("批量导入：新增操作");
+            plan.getAddPointInfos().put(key, pointInfo);
+        } else if (!value.equals(pointInfo.getValue())) {
+            pointInfo.setValue(value);
+            pointInfo.setDescription("批量导入：更新操作");
+            pointInfo.setUpdateTime(null);
+            plan.getUpdatePointInfos().put(key, pointInfo);
+        }
+    }
+
+    /**
+     * 解析位号配置，将位号名称和位号属性名称转换为 Id
+     *
+     * @param plan              ImportPlan
+     * @param path              Error Path
+     * @param pointMap          map(pointName, point)
+     * @param pointAttributeMap map(pointAttributeName, pointAttribute)
+     * @param pointConfig       Point Config Map
+     * @return map(pointId, map(pointAttributeId, value))
+     */
+    private Map<Long, Map<Long, String>> resolvePointConfig(ImportPlan plan, String path, Map<String, Point> pointMap, Map<String, PointAttribute> pointAttributeMap, Map<String, Map<String, String>> pointConfig) {
+        Map<Long, Map<Long, String>> pointConfigMap = new HashMap<>(16);
+        if (null == pointConfig) {
+            return pointConfigMap;
+        }
+
+        pointConfig.forEach((pointName, configMap) -> {
+            Point point = pointMap.get(pointName);
+            if (null == point) {
+                plan.error(path + ".pointConfig[" + pointName + "]: point does not exist");
+                return;
+            }
+            Optional.ofNullable(configMap).orElse(Collections.emptyMap()).forEach((name, value) -> {
+                PointAttribute pointAttribute = pointAttributeMap.get(name);
+                if (null == pointAttribute) {
+                    plan.error(path + ".pointConfig[" + pointName + "][" + name + "]: point attribute does not exist");
+                } else if (null == value) {
+                    plan.error(path + ".pointConfig[" + pointName + "][" + name + "]: value is null");
+                } else {
+                    pointConfigMap.computeIfAbsent(point.getId(), k -> new HashMap<>(16)).put(pointAttribute.getId(), value);
+                }
+            });
+        });
+        return pointConfigMap;
+    }
+
+    /**
+     * 执行单个驱动的导入计划，需在事务中调用
+     *
+     * @param plan ImportPlan
+     */
+    private void importDriver(ImportPlan plan) {
+        insertBatch(ProfileMapper.class, Profile.class, plan.getAddProfiles());
+        updateBatch(ProfileMapper.class, Profile.class, plan.getUpdateProfiles());
+        insertBatch(PointMapper.class, Point.class, plan.getAddPoints());
+        updateBatch(PointMapper.class, Point.class, plan.getUpdatePoints());
+        insertBatch(DeviceMapper.class, Device.class, plan.getAddDevices());
+        updateBatch(DeviceMapper.class, Device.class, plan.getUpdateDevices());
+        insertBatch(ProfileBindMapper.class, ProfileBind.class, plan.getAddProfileBinds());
+        insertBatch(DriverInfoMapper.class, DriverInfo.class, plan.getAddDriverInfos().values());
+        updateBatch(DriverInfoMapper.class, DriverInfo.class, plan.getUpdateDriverInfos().values());
+        insertBatch(PointInfoMapper.class, PointInfo.class, plan.getAddPointInfos().values());
+        updateBatch(PointInfoMapper.class, PointInfo.class, plan.getUpdatePointInfos().values());
+    }
+
+    /**
+     * 导入完成后通知驱动，同一驱动的通知会被 NotifyService 合并发送
+     *
+     * @param plan ImportPlan
+     */
+    private void notifyDriver(ImportPlan plan) {
+        plan.getAddProfiles().forEach(profile -> notifyService.notifyDriverProfile(Common.Driver.Profile.ADD, profile));
+        plan.getUpdateProfiles().forEach(profile -> notifyService.notifyDriverProfile(Common.Driver.Profile.UPDATE, profile));
+        plan.getAddPoints().forEach(point -> notifyService.notifyDriverPoint(Common.Driver.Point.ADD, point));
+        plan.getUpdatePoints().forEach(point -> notifyService.notifyDriverPoint(Common.Driver.Point.UPDATE, point));
+        plan.getAddDevices().forEach(device -> notifyService.notifyDriverDevice(Common.Driver.Device.ADD, device));
+        plan.getUpdateDevices().forEach(device -> notifyService.notifyDriverDevice(Common.Driver.Device.UPDATE, device));
+        plan.getAddDriverInfos().values().forEach(driverInfo -> notifyService.notifyDriverDriverInfo(Common.Driver.DriverInfo.ADD, driverInfo));
+        plan.getUpdateDriverInfos().values().forEach(driverInfo -> notifyService.notifyDriverDriverInfo(Common.Driver.DriverInfo.UPDATE, driverInfo));
+        plan.getAddPointInfos().values().forEach(pointInfo -> notifyService.notifyDriverPointInfo(Common.Driver.PointInfo.ADD, pointInfo));
+        plan.getUpdatePointInfos().values().forEach(pointInfo -> notifyService.notifyDriverPointInfo(Common.Driver.PointInfo.UPDATE, pointInfo));
+    }
+
+    /**
+     * JDBC 批量插入，加入当前事务
+     *
+     * @param mapperClass Mapper Class
+     * @param entityClass Entity Class
+     * @param entities    Entity Array
+     */
+    private <T> void insertBatch(Class<? extends BaseMapper<T>> mapperClass, Class<T> entityClass, Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        String sqlStatement = SqlHelper.getSqlStatement(mapperClass, SqlMethod.INSERT_ONE);
+        SqlHelper.executeBatch(entityClass, BATCH_LOG, entities, batchSize, (sqlSession, entity) -> sqlSession.insert(sqlStatement, entity));
+    }
+
+    /**
+     * JDBC 批量按 Id 更新，加入当前事务
+     *
+     * @param mapperClass Mapper Class
+     * @param entityClass Entity Class
+     * @param entities    Entity Array
+     */
+    private <T> void updateBatch(Class<? extends BaseMapper<T>> mapperClass, Class<T> entityClass, Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        String sqlStatement = SqlHelper.getSqlStatement(mapperClass, SqlMethod.UPDATE_BY_ID);
+        SqlHelper.executeBatch(entityClass, BATCH_LOG, entities, batchSize, (sqlSession, entity) -> {
+            MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
+            param.put(Constants.ENTITY, entity);
+            sqlSession.update(sqlStatement, param);
+        });
+    }
+
+    /**
+     * 分批执行 in 查询，避免单条 SQL 过长
+     *
+     * @param values 查询条件值
+     * @param query  查询方法
+     * @return 全部查询结果
+     */
+    private <V, T> List<T> selectIn(Collection<V> values, Function<List<V>, List<T>> query) {
+        List<T> result = new ArrayList<>(16);
+        if (null == values || values.isEmpty()) {
+            return result;
+        }
+        CollUtil.split(values, batchSize).forEach(part -> result.addAll(query.apply(part)));
+        return result;
+    }
+
+    private Short profileType(BatchProfile batchProfile) {
+        return null != batchProfile.getType() ? batchProfile.getType() : 1;
+    }
+
+    private <T> List<T> nullToEmpty(List<T> list) {
+        return null != list ? list : Collections.emptyList();
+    }
+
+    /**
+     * 单个驱动的导入计划，校验阶段生成，写入阶段执行
+     */
+    @Getter
+    private static class ImportPlan {
+        private final String path;
+        private final Driver driver;
+        private final BatchDriver batchDriver;
+        private final List<String> errors = new ArrayList<>(16);
+
+        private final List<Profile> addProfiles = new ArrayList<>(16);
+        private final List<Profile> updateProfiles = new ArrayList<>(16);
+        private final List<Point> addPoints = new ArrayList<>(16);
+        private final List<Point> updatePoints = new ArrayList<>(16);
+        private final Map<String, Device> devices = new HashMap<>(16);
+        private final List<Device> addDevices = new ArrayList<>(16);
+        private final List<Device> updateDevices = new ArrayList<>(16);
+        private final List<ProfileBind> addProfileBinds = new ArrayList<>(16);
+        private final Map<String, DriverInfo> addDriverInfos = new LinkedHashMap<>(16);
+        private final Map<String, DriverInfo> updateDriverInfos = new LinkedHashMap<>(16);
+        private final Map<String, PointInfo> addPointInfos = new LinkedHashMap<>(16);
+        private final Map<String, PointInfo> updatePointInfos = new LinkedHashMap<>(16);
+
+        @Setter
+        private volatile boolean imported;
+
+        ImportPlan(String path, Driver driver, BatchDriver batchDriver) {
+            this.path = path;
+            this.driver = driver;
+            this.batchDriver = batchDriver;
+        }
+
+        void error(String error) {
+            errors.add(error);
+        }
+
+        int size() {
+            return addProfiles.size() + updateProfiles.size() + addPoints.size() + updatePoints.size()
+                    + addDevices.size() + updateDevices.size() + addProfileBinds.size()
+                    + addDriverInfos.size() + updateDriverInfos.size() + addPointInfos.size() + updatePointInfos.size();
+        }
+    }
+
 }
@@ -30,6 +30,8 @@ import com.dc3.common.model.Point;
 import com.dc3.common.model.Profile;
 import com.dc3.common.model.ProfileBind;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -39,8 +41,10 @@ import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * DeviceService Impl
@@ -63,6 +67,9 @@ public class DeviceServiceImpl implements DeviceService {
     @Resource
     private ProfileBindService profileBindService;
 
+    @Resource
+    private CacheManager cacheManager;
+
     @Override
     @Caching(
             put = {
@@ -70,8 +77,6 @@ public class DeviceServiceImpl implements DeviceService {
                     @CachePut(value = Common.Cache.DEVICE + Common.Cache.NAME, key = "#device.name+'.'+#device.tenantId", condition = "#result!=null")
             },
             evict = {
-                    @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.DIC, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.DEVICE_ID + Common.Cache.LIST, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.LIST, allEntries = true, condition = "#result!=null")
             }
     )
@@ -84,6 +89,7 @@ public class DeviceServiceImpl implements DeviceService {
                 addProfileBind(device.getId(), device.getProfileIds());
                 Device select = deviceMapper.selectById(device.getId());
                 select.setProfileIds(device.getProfileIds());
+                evictCache(select);
                 return select;
             }
             throw new ServiceException("The device add failed");
@@ -94,16 +100,17 @@ public class DeviceServiceImpl implements DeviceService {
     @Caching(
             evict = {
                     @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.ID, key = "#id", condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.NAME, allEntries = true, condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.DIC, allEntries = true, condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.DEVICE_ID + Common.Cache.LIST, allEntries = true, condition = "#result==true"),
                     @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.LIST, allEntries = true, condition = "#result==true")
             }
     )
     public boolean delete(Long id) {
-        selectById(id);
+        Device device = selectById(id);
         profileBindService.deleteByDeviceId(id);
-        return deviceMapper.deleteById(id) > 0;
+        if (deviceMapper.deleteById(id) > 0) {
+            evictCache(device);
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -113,13 +120,11 @@ public class DeviceServiceImpl implements DeviceService {
                     @CachePut(value = Common.Cache.DEVICE + Common.Cache.NAME, key = "#device.name+'.'+#device.tenantId", condition = "#result!=null")
             },
             evict = {
-                    @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.DIC, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.DEVICE_ID + Common.Cache.LIST, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.DEVICE + Common.Cache.LIST, allEntries = true, condition = "#result!=null")
             }
     )
     public Device update(Device device) {
-        selectById(device.getId());
+        Device old = selectById(device.getId());
 
         Set<Long> newProfileIds = null != device.getProfileIds() ? device.getProfileIds() : new HashSet<>();
         Set<Long> oldProfileIds = profileBindService.selectProfileIdByDeviceId(device.getId());
@@ -138,13 +143,15 @@ public class DeviceServiceImpl implements DeviceService {
             Device select = deviceMapper.selectById(device.getId());
             select.setProfileIds(newProfileIds);
             device.setName(select.getName());
+            evictCache(old);
+            evictCache(select);
             return select;
         }
         throw new ServiceException("The device update failed");
     }
 
     @Override
-    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.ID, key = "#id", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.ID, key = "#id", sync = true)
     public Device selectById(Long id) {
         Device device = deviceMapper.selectById(id);
         if (null == device) {
@@ -154,7 +161,7 @@ public class DeviceServiceImpl implements DeviceService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.NAME, key = "#name+'.'+#tenantId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.NAME, key = "#name+'.'+#tenantId", sync = true)
     public Device selectByName(String name, Long tenantId) {
         LambdaQueryWrapper<Device> queryWrapper = Wrappers.<Device>query().lambda();
         queryWrapper.eq(Device::getName, name);
@@ -167,7 +174,7 @@ public class DeviceServiceImpl implements DeviceService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.DEVICE_ID + Common.Cache.LIST, key = "#driverId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.DEVICE_ID + Common.Cache.LIST, key = "#driverId", sync = true)
     public List<Device> selectByDriverId(Long driverId) {
         DeviceDto deviceDto = new DeviceDto();
         deviceDto.setDriverId(driverId);
@@ -175,7 +182,7 @@ public class DeviceServiceImpl implements DeviceService {
         if (null == devices || devices.size() < 1) {
             throw new NotFoundException("The devices does not exist");
         }
-        devices.forEach(device -> device.setProfileIds(profileBindService.selectProfileIdByDeviceId(device.getId())));
+        fillProfileIds(devices);
         return devices;
     }
 
@@ -185,24 +192,24 @@ public class DeviceServiceImpl implements DeviceService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", sync = true)
     public List<Device> selectByIds(Set<Long> ids) {
         List<Device> devices = deviceMapper.selectBatchIds(ids);
         if (null == devices || devices.size() < 1) {
             throw new NotFoundException("The devices does not exist");
         }
-        devices.forEach(device -> device.setProfileIds(profileBindService.selectProfileIdByDeviceId(device.getId())));
+        fillProfileIds(devices);
         return devices;
     }
 
     @Override
-    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", sync = true)
     public Page<Device> list(DeviceDto deviceDto) {
         if (!Optional.ofNullable(deviceDto.getPage()).isPresent()) {
             deviceDto.setPage(new Pages());
         }
         Page<Device> page = deviceMapper.selectPage(deviceDto.getPage().convert(), fuzzyQuery(deviceDto));
-        page.getRecords().forEach(device -> device.setProfileIds(profileBindService.selectProfileIdByDeviceId(device.getId())));
+        fillProfileIds(page.getRecords());
         return page;
     }
 
@@ -226,6 +233,40 @@ public class DeviceServiceImpl implements DeviceService {
         return queryWrapper;
     }
 
+    /**
+     * 一次性加载设备集合关联的模版映射，并回填 profileIds
+     *
+     * @param devices Device Array
+     */
+    private void fillProfileIds(List<Device> devices) {
+        Set<Long> deviceIds = devices.stream().map(Device::getId).collect(Collectors.toSet());
+        Map<Long, Set<Long>> profileIdsMap = profileBindService.selectByDeviceIds(deviceIds).stream()
+                .collect(Collectors.groupingBy(ProfileBind::getDeviceId, Collectors.mapping(ProfileBind::getProfileId, Collectors.toSet())));
+        devices.forEach(device -> device.setProfileIds(profileIdsMap.getOrDefault(device.getId(), new HashSet<>(8))));
+    }
+
+    /**
+     * 按 Key 精确清理设备变更影响的缓存
+     * <p>
+     * 包括设备名称、所属驱动的设备列表、驱动缓存以及租户下的设备字典和设备位号字典
+     *
+     * @param device Device
+     */
+    private void evictCache(Device device) {
+        evictCache(Common.Cache.DEVICE + Common.Cache.NAME, device.getName() + Common.Cache.DOT + device.getTenantId());
+        evictCache(Common.Cache.DEVICE + Common.Cache.DEVICE_ID + Common.Cache.LIST, device.getDriverId());
+        evictCache(Common.Cache.DEVICE + Common.Cache.DIC, Common.Cache.DIC_KEY_PREFIX + device.getTenantId());
+        evictCache(Common.Cache.POINT + Common.Cache.DIC, Common.Cache.DIC_DEVICE_KEY_PREFIX + device.getTenantId());
+        evictCache(Common.Cache.DRIVER + Common.Cache.DEVICE_ID, device.getId());
+    }
+
+    private void evictCache(String name, Object key) {
+        Cache cache = cacheManager.getCache(name);
+        if (null != cache) {
+            cache.evict(key);
+        }
+    }
+
     private void addProfileBind(Long deviceId, Set<Long> profileIds) {
         if (null != profileIds) {
             profileIds.forEach(profileId -> {
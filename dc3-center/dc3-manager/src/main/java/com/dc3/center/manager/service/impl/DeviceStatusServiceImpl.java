@@ -0,0 +1,271 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.center.manager.service.impl;
+
+import com.dc3.center.manager.service.DeviceStatusService;
+import com.dc3.center.manager.service.EventPipelineService;
+import com.dc3.common.bean.driver.DeviceHeartbeat;
+import com.dc3.common.bean.driver.DeviceStatusChange;
+import com.dc3.common.constant.Common;
+import com.dc3.common.model.DeviceEvent;
+import com.dc3.common.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeviceStatusService Impl
+ * <p>
+ * 内存中的设备状态表，由批量心跳刷新，心跳超时由时间轮检测。
+ * 设备只在进入超时时间所在的槽位时被检查一次，期间的心跳只更新截止时间，
+ * 检查时截止时间已延后的设备重新放入对应槽位，因此心跳本身不会操作时间轮。
+ * 状态表由每个实例各自维护，Redis 中的设备状态由共享队列的消费者写入，每批心跳只写一次。
+ * 状态变化以 status 设备事件写入事件记录，各实例通过 Redis 中记录的上一次状态交换去重，每次变化只记录一次。
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+public class DeviceStatusServiceImpl implements DeviceStatusService {
+
+    /**
+     * 时间轮槽位数量，超过一圈的截止时间会在到达时重新放入槽位
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    @Value("${manager.status.tick}")
+    private Long tick;
+
+    @Resource
+    private RedisUtil redisUtil;
+    @Resource
+    private EventPipelineService eventPipelineService;
+    @Resource
+    private ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+
+    /**
+     * deviceId,DeviceState
+     */
+    private final Map<Long, DeviceState> stateTable = new ConcurrentHashMap<>(1024);
+
+    /**
+     * 时间轮，槽位以及 cursor 均由 wheel 加锁保护
+     */
+    private final List<Set<Long>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private long cursor;
+    private ScheduledFuture<?> ticker;
+
+    @PostConstruct
+    public void initial() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new HashSet<>());
+        }
+        cursor = System.currentTimeMillis() / tick;
+        ticker = scheduledThreadPoolExecutor.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (null != ticker) {
+            ticker.cancel(false);
+        }
+    }
+
+    @Override
+    public void heartbeat(DeviceHeartbeat deviceHeartbeat) {
+        if (null == deviceHeartbeat.getStatuses() || deviceHeartbeat.getStatuses().isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long timeout = deviceHeartbeat.getTimeUnit().toMillis(deviceHeartbeat.getTimeOut());
+        List<DeviceStatusChange> changes = new ArrayList<>();
+        deviceHeartbeat.getStatuses().forEach((deviceId, status) -> {
+            if (null == deviceId || null == status) {
+                return;
+            }
+            String previous = refresh(deviceId, status, now + timeout);
+            if (!status.equals(previous)) {
+                changes.add(new DeviceStatusChange(deviceId, previous, status, now));
+            }
+        });
+        publish(changes);
+    }
+
+    @Override
+    public void save(DeviceHeartbeat deviceHeartbeat) {
+        if (null == deviceHeartbeat.getStatuses() || deviceHeartbeat.getStatuses().isEmpty()) {
+            return;
+        }
+
+        long timeout = deviceHeartbeat.getTimeUnit().toMillis(deviceHeartbeat.getTimeOut());
+        int capacity = deviceHeartbeat.getStatuses().size() * 4 / 3 + 1;
+        Map<String, Object> valueMap = new HashMap<>(capacity);
+        Map<String, Long> expireMap = new HashMap<>(capacity);
+        deviceHeartbeat.getStatuses().forEach((deviceId, status) -> {
+            if (null == deviceId || null == status) {
+                return;
+            }
+            String key = Common.Cache.DEVICE_STATUS_KEY_PREFIX + deviceId;
+            valueMap.put(key, status);
+            expireMap.put(key, timeout);
+        });
+
+        // 整批设备状态在一次管道中写入
+        redisUtil.setKey(valueMap, expireMap);
+    }
+
+    @Override
+    public String status(Long deviceId) {
+        DeviceState state = stateTable.get(deviceId);
+        return null != state ? state.status : null;
+    }
+
+    /**
+     * 刷新设备状态以及截止时间，新设备放入时间轮
+     *
+     * @param deviceId Device Id
+     * @param status   Status
+     * @param deadline 截止时间
+     * @return 刷新前的状态
+     */
+    private String refresh(Long deviceId, String status, long deadline) {
+        while (true) {
+            DeviceState state = stateTable.computeIfAbsent(deviceId, k -> new DeviceState());
+            synchronized (state) {
+                // 已被超时检查移除，重新创建
+                if (state.removed) {
+                    continue;
+                }
+                String previous = state.status;
+                state.status = status;
+                state.deadline = deadline;
+                if (!state.scheduled) {
+                    state.scheduled = true;
+                    schedule(deviceId, deadline);
+                }
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * 将设备放入截止时间所在的槽位，至少为下一个槽位，至多为一圈之内
+     *
+     * @param deviceId Device Id
+     * @param deadline 截止时间
+     */
+    private void schedule(Long deviceId, long deadline) {
+        synchronized (wheel) {
+            long target = Math.min(Math.max(deadline / tick, cursor + 1), cursor + WHEEL_SIZE - 1);
+            wheel.get((int) (target % WHEEL_SIZE)).add(deviceId);
+        }
+    }
+
+    /**
+     * 推进时间轮，处理到期槽位中的设备
+     */
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            long target = now / tick;
+            while (true) {
+                Set<Long> slot;
+                synchronized (wheel) {
+                    if (cursor >= target) {
+                        break;
+                    }
+                    cursor++;
+                    int index = (int) (cursor % WHEEL_SIZE);
+                    slot = wheel.get(index);
+                    if (slot.isEmpty()) {
+                        continue;
+                    }
+                    wheel.set(index, new HashSet<>());
+                }
+                expire(slot, now);
+            }
+        } catch (Exception e) {
+            log.error("Device status tick error: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 检查槽位中的设备，截止时间已过的设备置为离线并移出状态表，其余设备重新放入时间轮
+     *
+     * @param slot Device Id Set
+     * @param now  当前时间
+     */
+    private void expire(Set<Long> slot, long now) {
+        List<DeviceStatusChange> changes = new ArrayList<>();
+        for (Long deviceId : slot) {
+            DeviceState state = stateTable.get(deviceId);
+            if (null == state) {
+                continue;
+            }
+            synchronized (state) {
+                if (state.deadline > now) {
+                    schedule(deviceId, state.deadline);
+                    continue;
+                }
+                state.removed = true;
+                stateTable.remove(deviceId, state);
+                if (!Common.Device.Status.OFFLINE.equals(state.status)) {
+                    changes.add(new DeviceStatusChange(deviceId, state.status, Common.Device.Status.OFFLINE, now));
+                }
+            }
+        }
+        publish(changes);
+    }
+
+    /**
+     * 记录设备状态变化
+     * <p>
+     * 每个实例都会检测到同一次变化，只有将 Redis 中记录的状态换为新状态的实例写入事件，
+     * 因此实例重启后重新收到心跳也不会重复记录 ONLINE。
+     *
+     * @param changes DeviceStatusChange Array
+     */
+    private void publish(List<DeviceStatusChange> changes) {
+        changes.forEach(change -> {
+            String recorded = redisUtil.getAndSetKey(Common.Cache.DEVICE_STATUS_CHANGE_KEY_PREFIX + change.getDeviceId(), change.getStatus(), String.class);
+            String previous = null != recorded ? recorded : Common.Device.Status.OFFLINE;
+            if (previous.equals(change.getStatus())) {
+                return;
+            }
+
+            log.info("Device({}) status changed: {} -> {}", change.getDeviceId(), previous, change.getStatus());
+            DeviceEvent deviceEvent = new DeviceEvent(change.getDeviceId(), Common.Device.Event.STATUS, change.setPrevious(previous));
+            eventPipelineService.acceptDeviceEvent(deviceEvent.setOriginTime(change.getChangeTime()));
+        });
+    }
+
+    private static class DeviceState {
+        private String status = Common.Device.Status.OFFLINE;
+        private long deadline;
+        private boolean scheduled;
+        private boolean removed;
+    }
+
+}
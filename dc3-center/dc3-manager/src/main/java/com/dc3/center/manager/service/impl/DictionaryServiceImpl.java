@@ -49,7 +49,7 @@ public class DictionaryServiceImpl implements DictionaryService {
     private PointMapper pointMapper;
 
     @Override
-    @Cacheable(value = Common.Cache.DRIVER + Common.Cache.DIC, key = "'dic.'+#tenantId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DRIVER + Common.Cache.DIC, key = "'" + Common.Cache.DIC_KEY_PREFIX + "'+#tenantId", unless = "#result==null")
     public List<Dictionary> driverDictionary(Long tenantId) {
         List<Dictionary> dictionaries = new ArrayList<>(16);
         LambdaQueryWrapper<Driver> queryWrapper = Wrappers.<Driver>query().lambda();
@@ -60,7 +60,7 @@ public class DictionaryServiceImpl implements DictionaryService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.DRIVER_ATTRIBUTE + Common.Cache.DIC, key = "'dic.'+#tenantId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DRIVER_ATTRIBUTE + Common.Cache.DIC, key = "'" + Common.Cache.DIC_KEY_PREFIX + "'+#tenantId", unless = "#result==null")
     public List<Dictionary> driverAttributeDictionary(Long tenantId) {
         List<Dictionary> dictionaries = driverDictionary(tenantId);
         dictionaries.forEach(driverDictionary -> {
@@ -78,7 +78,7 @@ public class DictionaryServiceImpl implements DictionaryService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT_ATTRIBUTE + Common.Cache.DIC, key = "'dic.'+#tenantId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT_ATTRIBUTE + Common.Cache.DIC, key = "'" + Common.Cache.DIC_KEY_PREFIX + "'+#tenantId", unless = "#result==null")
     public List<Dictionary> pointAttributeDictionary(Long tenantId) {
         List<Dictionary> dictionaries = driverDictionary(tenantId);
         dictionaries.forEach(driverDictionary -> {
@@ -96,7 +96,7 @@ public class DictionaryServiceImpl implements DictionaryService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.PROFILE + Common.Cache.DIC, key = "'dic.'+#tenantId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.PROFILE + Common.Cache.DIC, key = "'" + Common.Cache.DIC_KEY_PREFIX + "'+#tenantId", unless = "#result==null")
     public List<Dictionary> profileDictionary(Long tenantId) {
         List<Dictionary> dictionaries = new ArrayList<>(16);
         LambdaQueryWrapper<Profile> queryWrapper = Wrappers.<Profile>query().lambda();
@@ -107,7 +107,7 @@ public class DictionaryServiceImpl implements DictionaryService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.DIC, key = "'dic.'+#tenantId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.DEVICE + Common.Cache.DIC, key = "'" + Common.Cache.DIC_KEY_PREFIX + "'+#tenantId", unless = "#result==null")
     public List<Dictionary> deviceDictionary(Long tenantId) {
         List<Dictionary> dictionaries = driverDictionary(tenantId);
         dictionaries.forEach(driverDictionary -> {
@@ -124,11 +124,11 @@ public class DictionaryServiceImpl implements DictionaryService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT + Common.Cache.DIC, key = "'dic.'+#parent+'.'+#tenantId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT + Common.Cache.DIC, key = "'" + Common.Cache.DIC_KEY_PREFIX + "'+#parent+'" + Common.Cache.DOT + "'+#tenantId", unless = "#result==null")
     public List<Dictionary> pointDictionary(String parent, Long tenantId) {
         List<Dictionary> dictionaries = new ArrayList<>(16);
         switch (parent) {
-            case "profile":
+            case Common.Cache.PROFILE:
                 List<Dictionary> profileDictionaryList = new ArrayList<>(16);
 
                 LambdaQueryWrapper<Profile> profileQueryWrapper = Wrappers.<Profile>query().lambda();
@@ -150,7 +150,7 @@ public class DictionaryServiceImpl implements DictionaryService {
 
                 dictionaries = profileDictionaryList;
                 break;
-            case "device":
+            case Common.Cache.DEVICE:
                 List<Dictionary> deviceDictionaryList = new ArrayList<>(16);
 
                 LambdaQueryWrapper<Device> deviceQueryWrapper = Wrappers.<Device>query().lambda();
@@ -35,6 +35,7 @@ import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * DriverInfoService Impl
@@ -167,6 +168,20 @@ public class DriverInfoServiceImpl implements DriverInfoService {
         return driverInfos;
     }
 
+    @Override
+    public List<DriverInfo> selectByDeviceIds(Set<Long> deviceIds) {
+        if (null == deviceIds || deviceIds.size() < 1) {
+            throw new NotFoundException("The driver infos does not exist");
+        }
+        LambdaQueryWrapper<DriverInfo> queryWrapper = Wrappers.<DriverInfo>query().lambda();
+        queryWrapper.in(DriverInfo::getDeviceId, deviceIds);
+        List<DriverInfo> driverInfos = driverInfoMapper.selectList(queryWrapper);
+        if (null == driverInfos || driverInfos.size() < 1) {
+            throw new NotFoundException("The driver infos does not exist");
+        }
+        return driverInfos;
+    }
+
     @Override
     @Cacheable(value = Common.Cache.DRIVER_INFO + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", unless = "#result==null")
     public Page<DriverInfo> list(DriverInfoDto driverInfoDto) {
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.center.manager.service.impl;
+
+import com.dc3.center.manager.service.EventPipelineService;
+import com.dc3.center.manager.service.EventService;
+import com.dc3.common.constant.Common;
+import com.dc3.common.model.DeviceEvent;
+import com.dc3.common.model.DriverEvent;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventPipelineService Impl
+ * <p>
+ * 去重窗口内的重复事件只累加计数，窗口结束后计数写回窗口内第一条事件的 suppressed 字段；
+ * 超过类型限流的事件直接丢弃；保留的事件先进入缓冲区，达到 batchSize 或每隔 interval 批量写入。
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+@ConfigurationProperties(prefix = "manager.event")
+public class EventPipelineServiceImpl implements EventPipelineService {
+
+    /**
+     * 默认去重窗口，毫秒，小于等于 0 时不去重
+     */
+    @Setter
+    private long window = 60000;
+
+    /**
+     * 按事件类型配置的去重窗口，map(type, 毫秒)
+     */
+    @Setter
+    private Map<String, Long> windows = new HashMap<>(8);
+
+    /**
+     * 按事件类型配置的限流，map(type, 每秒事件数)，未配置的类型不限流
+     */
+    @Setter
+    private Map<String, Integer> rates = new HashMap<>(8);
+
+    @Setter
+    private int batchSize = 500;
+
+    /**
+     * 缓冲区写入间隔，毫秒
+     */
+    @Setter
+    private long interval = 1000;
+
+    @Resource
+    private EventService eventService;
+    @Resource
+    private MongoTemplate mongoTemplate;
+    @Resource
+    private ThreadPoolExecutor threadPoolExecutor;
+    @Resource
+    private ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+
+    /**
+     * dedupKey,Suppression
+     */
+    private final Map<String, Suppression> suppressions = new ConcurrentHashMap<>(256);
+    private final Map<String, RateLimit> rateLimits = new ConcurrentHashMap<>(8);
+    private final AtomicLong limited = new AtomicLong();
+
+    /**
+     * 缓冲区以及已结束且有重复计数的去重窗口，均由 buffer 加锁保护
+     */
+    private final Object buffer = new Object();
+    private List<DeviceEvent> deviceEvents = new ArrayList<>();
+    private List<DriverEvent> driverEvents = new ArrayList<>();
+    private List<Suppression> expired = new ArrayList<>();
+
+    private ScheduledFuture<?> flusher;
+
+    @PostConstruct
+    public void initial() {
+        flusher = scheduledThreadPoolExecutor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (null != flusher) {
+            flusher.cancel(false);
+        }
+        flush();
+    }
+
+    @Override
+    public void acceptDeviceEvent(DeviceEvent deviceEvent) {
+        String key = Common.Cache.DEVICE + Common.Cache.DOT + deviceEvent.getDeviceId() + Common.Cache.DOT + deviceEvent.getPointId() + Common.Cache.DOT + deviceEvent.getType();
+        ObjectId id = new ObjectId();
+        if (!admit(key, deviceEvent.getType(), DeviceEvent.class, id)) {
+            return;
+        }
+
+        deviceEvent.setId(id);
+        boolean full;
+        synchronized (buffer) {
+            deviceEvents.add(deviceEvent);
+            full = deviceEvents.size() >= batchSize;
+        }
+        if (full) {
+            threadPoolExecutor.execute(this::flush);
+        }
+    }
+
+    @Override
+    public void acceptDriverEvent(DriverEvent driverEvent) {
+        String key = Common.Cache.DRIVER + Common.Cache.DOT + driverEvent.getServiceName() + Common.Cache.DOT + driverEvent.getType();
+        ObjectId id = new ObjectId();
+        if (!admit(key, driverEvent.getType(), DriverEvent.class, id)) {
+            return;
+        }
+
+        driverEvent.setId(id);
+        boolean full;
+        synchronized (buffer) {
+            driverEvents.add(driverEvent);
+            full = driverEvents.size() >= batchSize;
+        }
+        if (full) {
+            threadPoolExecutor.execute(this::flush);
+        }
+    }
+
+    /**
+     * 判断事件是否需要保留，重复事件累加到当前去重窗口，超过限流的事件丢弃
+     *
+     * @param key        去重 Key
+     * @param type       事件类型
+     * @param collection 事件类型，用于回写重复计数
+     * @param id         事件保留时使用的 Id
+     * @return 是否保留
+     */
+    private boolean admit(String key, String type, Class<?> collection, ObjectId id) {
+        long now = System.currentTimeMillis();
+        long typeWindow = windows.getOrDefault(type, window);
+        if (typeWindow <= 0) {
+            return acquire(type, now);
+        }
+
+        boolean[] admitted = {false};
+        suppressions.compute(key, (k, suppression) -> {
+            if (null != suppression && now - suppression.start < suppression.window) {
+                suppression.suppressed++;
+                return suppression;
+            }
+            if (!acquire(type, now)) {
+                return suppression;
+            }
+            if (null != suppression && suppression.suppressed > 0) {
+                expire(suppression);
+            }
+            admitted[0] = true;
+            return new Suppression(collection, id, now, typeWindow);
+        });
+        return admitted[0];
+    }
+
+    /**
+     * 按事件类型限流，每秒一个计数窗口
+     *
+     * @param type 事件类型
+     * @param now  当前时间
+     * @return 是否获取成功
+     */
+    private boolean acquire(String type, long now) {
+        Integer rate = rates.get(type);
+        if (null == rate || rate <= 0) {
+            return true;
+        }
+
+        RateLimit rateLimit = rateLimits.computeIfAbsent(type, k -> new RateLimit());
+        synchronized (rateLimit) {
+            long second = now / 1000;
+            if (rateLimit.second != second) {
+                rateLimit.second = second;
+                rateLimit.count = 0;
+            }
+            if (rateLimit.count < rate) {
+                rateLimit.count++;
+                return true;
+            }
+        }
+        limited.incrementAndGet();
+        return false;
+    }
+
+    private void expire(Suppression suppression) {
+        synchronized (buffer) {
+            expired.add(suppression);
+        }
+    }
+
+    /**
+     * 批量写入缓冲区中的事件，之后回写已结束去重窗口的重复计数
+     */
+    private void flush() {
+        try {
+            long now = System.currentTimeMillis();
+            suppressions.forEach((key, value) -> suppressions.computeIfPresent(key, (k, suppression) -> {
+                if (now - suppression.start < suppression.window) {
+                    return suppression;
+                }
+                if (suppression.suppressed > 0) {
+                    expire(suppression);
+                }
+                return null;
+            }));
+
+            List<DeviceEvent> deviceEventList;
+            List<DriverEvent> driverEventList;
+            List<Suppression> expiredList;
+            synchronized (buffer) {
+                deviceEventList = deviceEvents;
+                driverEventList = driverEvents;
+                expiredList = expired;
+                deviceEvents = new ArrayList<>();
+                driverEvents = new ArrayList<>();
+                expired = new ArrayList<>();
+            }
+
+            eventService.addDeviceEvents(deviceEventList);
+            eventService.addDriverEvents(driverEventList);
+            expiredList.forEach(suppression -> mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(suppression.id)),
+                    new Update().inc("suppressed", suppression.suppressed),
+                    suppression.collection
+            ));
+
+            long count = limited.getAndSet(0);
+            if (count > 0) {
+                log.warn("Event rate limit exceeded, {} event(s) dropped", count);
+            }
+        } catch (Exception e) {
+            log.error("Flush event error: {}", e.getMessage(), e);
+        }
+    }
+
+    private static class Suppression {
+        private final Class<?> collection;
+        private final ObjectId id;
+        private final long start;
+        private final long window;
+        private int suppressed;
+
+        private Suppression(Class<?> collection, ObjectId id, long start, long window) {
+            this.collection = collection;
+            this.id = id;
+            this.start = start;
+            this.window = window;
+        }
+    }
+
+    private static class RateLimit {
+        private long second;
+        private int count;
+    }
+
+}
@@ -13,6 +13,7 @@
 
 package com.dc3.center.manager.service.impl;
 
+import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dc3.center.manager.service.EventService;
 import com.dc3.common.bean.Pages;
@@ -21,14 +22,21 @@ import com.dc3.common.dto.DriverEventDto;
 import com.dc3.common.model.DeviceEvent;
 import com.dc3.common.model.DriverEvent;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author pnoker
@@ -37,13 +45,22 @@ import java.util.List;
 @Service
 public class EventServiceImpl implements EventService {
 
+    @Value("${manager.event.retention}")
+    private Integer retention;
+
     @Resource
     private MongoTemplate mongoTemplate;
 
+    @PostConstruct
+    public void initial() {
+        ensureEventIndex(DeviceEvent.class, new String[]{"deviceId"}, new String[]{"deviceId", "pointId"}, new String[]{"pointId"});
+        ensureEventIndex(DriverEvent.class, new String[]{"serviceName"});
+    }
+
     @Override
     public void addDriverEvent(DriverEvent driverEvent) {
         if (null != driverEvent) {
-            mongoTemplate.insert(driverEvent);
+            mongoTemplate.insert(driverEvent.setCreateTime(new Date()));
         }
     }
 
@@ -51,6 +68,8 @@ public class EventServiceImpl implements EventService {
     public void addDriverEvents(List<DriverEvent> driverEvents) {
         if (null != driverEvents) {
             if (driverEvents.size() > 0) {
+                Date createTime = new Date();
+                driverEvents.forEach(driverEvent -> driverEvent.setCreateTime(createTime));
                 mongoTemplate.insert(driverEvents, DriverEvent.class);
             }
         }
@@ -59,7 +78,7 @@ public class EventServiceImpl implements EventService {
     @Override
     public void addDeviceEvent(DeviceEvent deviceEvent) {
         if (null != deviceEvent) {
-            mongoTemplate.insert(deviceEvent);
+            mongoTemplate.insert(deviceEvent.setCreateTime(new Date()));
         }
     }
 
@@ -67,6 +86,8 @@ public class EventServiceImpl implements EventService {
     public void addDeviceEvents(List<DeviceEvent> deviceEvents) {
         if (null != deviceEvents) {
             if (deviceEvents.size() > 0) {
+                Date createTime = new Date();
+                deviceEvents.forEach(deviceEvent -> deviceEvent.setCreateTime(createTime));
                 mongoTemplate.insert(deviceEvents, DeviceEvent.class);
             }
         }
@@ -74,7 +95,16 @@ public class EventServiceImpl implements EventService {
 
     @Override
     public Page<DriverEvent> driverEvent(DriverEventDto driverEventDto) {
-        return null;
+        Criteria criteria = new Criteria();
+        if (null == driverEventDto) {
+            driverEventDto = new DriverEventDto();
+        }
+        if (StrUtil.isNotBlank(driverEventDto.getServiceName())) {
+            criteria.and("serviceName").is(driverEventDto.getServiceName());
+        }
+
+        Pages pages = null == driverEventDto.getPage() ? new Pages() : driverEventDto.getPage();
+        return eventPage(criteria, pages, driverEventDto.getAfterTime(), driverEventDto.getAfterId(), DriverEvent.class);
     }
 
     @Override
@@ -91,21 +121,88 @@ public class EventServiceImpl implements EventService {
         }
 
         Pages pages = null == deviceEventDto.getPage() ? new Pages() : deviceEventDto.getPage();
-        if (pages.getStartTime() > 0 && pages.getEndTime() > 0 && pages.getStartTime() <= pages.getEndTime()) {
-            criteria.and("originTime").gte(pages.getStartTime()).lte(pages.getEndTime());
+        return eventPage(criteria, pages, deviceEventDto.getAfterTime(), deviceEventDto.getAfterId(), DeviceEvent.class);
+    }
+
+    /**
+     * 按 (originTime, _id) 倒序分页查询事件
+     * <p>
+     * 传入游标时从游标之后开始查询，不使用 skip，也不统计总数；
+     * 否则按页码查询并统计总数。
+     *
+     * @param criteria  Criteria
+     * @param pages     Pages
+     * @param afterTime 游标 originTime
+     * @param afterId   游标 id
+     * @param type      Event Class
+     * @return Page
+     */
+    private <T> Page<T> eventPage(Criteria criteria, Pages pages, Long afterTime, String afterId, Class<T> type) {
+        Criteria timeCriteria = Criteria.where("originTime");
+        boolean timeRange = pages.getStartTime() > 0 && pages.getEndTime() > 0 && pages.getStartTime() <= pages.getEndTime();
+        if (timeRange) {
+            timeCriteria.gte(pages.getStartTime()).lte(pages.getEndTime());
+        }
+
+        boolean cursor = null != afterTime && ObjectId.isValid(afterId);
+        if (cursor) {
+            Criteria afterCriteria = new Criteria().orOperator(
+                    Criteria.where("originTime").lt(afterTime),
+                    Criteria.where("originTime").is(afterTime).and("_id").lt(new ObjectId(afterId))
+            );
+            criteria.andOperator(timeRange ? new Criteria[]{timeCriteria, afterCriteria} : new Criteria[]{afterCriteria});
+        } else if (timeRange) {
+            criteria.andOperator(timeCriteria);
         }
 
         Query query = new Query(criteria);
-        long count = mongoTemplate.count(query, DeviceEvent.class);
+        Page<T> page = new Page<T>().setCurrent(pages.getCurrent()).setSize(pages.getSize());
+        if (!cursor) {
+            page.setTotal(mongoTemplate.count(query, type));
+        }
 
-        query.with(Sort.by(Sort.Direction.DESC, "originTime"));
+        query.with(Sort.by(Sort.Direction.DESC, "originTime", "_id"));
         int size = (int) pages.getSize();
-        long page = pages.getCurrent();
-        query.limit(size).skip(size * (page - 1));
+        query.limit(size);
+        if (!cursor) {
+            query.skip(size * (pages.getCurrent() - 1));
+        }
 
-        List<DeviceEvent> deviceEvents = mongoTemplate.find(query, DeviceEvent.class);
+        return page.setRecords(mongoTemplate.find(query, type));
+    }
 
-        return (new Page<DeviceEvent>()).setCurrent(pages.getCurrent()).setSize(pages.getSize()).setTotal(count).setRecords(deviceEvents);
+    /**
+     * Ensure event index
+     * <p>
+     * 每个查询字段组合一个 (字段..., originTime, _id) 复合索引，满足过滤、时间范围以及排序；
+     * 每一种可单独出现的过滤组合都需要对应的索引，否则查询会扫描整个集合；
+     * retention 大于 0 时在 createTime 上建立 TTL 索引，事件保留 retention 天
+     *
+     * @param type   Event Class
+     * @param groups 查询字段组合，每个组合建立一个索引
+     */
+    private void ensureEventIndex(Class<?> type, String[]... groups) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(type);
+        indexOperations.ensureIndex(new Index().background()
+                .on("originTime", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("IX_time"));
+
+        for (String[] fields : groups) {
+            Index index = new Index().background();
+            for (String field : fields) {
+                index.on(field, Sort.Direction.ASC);
+            }
+            indexOperations.ensureIndex(index
+                    .on("originTime", Sort.Direction.DESC).on("_id", Sort.Direction.DESC).named("IX_" + String.join("_", fields) + "_time"));
+        }
+
+        if (null != retention && retention > 0) {
+            try {
+                indexOperations.ensureIndex(new Index().background()
+                        .on("createTime", Sort.Direction.ASC).expire(retention, TimeUnit.DAYS).named("TTL_create_time"));
+            } catch (Exception e) {
+                log.warn("Ensure {} ttl index failed, drop TTL_create_time to change the retention: {}", type.getSimpleName(), e.getMessage());
+            }
+        }
     }
 
 }
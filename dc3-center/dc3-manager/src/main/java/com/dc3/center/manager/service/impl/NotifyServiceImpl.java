@@ -20,10 +20,14 @@ import com.dc3.common.constant.Common;
 import com.dc3.common.model.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * NotifyService Impl
@@ -34,10 +38,24 @@ import java.util.List;
 @Service
 public class NotifyServiceImpl implements NotifyService {
 
+    @Value("${manager.notify.window}")
+    private Integer window;
+    @Value("${manager.notify.batch-size}")
+    private Integer batchSize;
+
     @Resource
     private DriverService driverService;
     @Resource
     private RabbitTemplate rabbitTemplate;
+    @Resource
+    private ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+
+    /**
+     * serviceName(notifyKey, DriverConfiguration)
+     * <p>
+     * 同一实体在合并窗口内的多次变更只保留最后一次
+     */
+    private final Map<String, Map<String, DriverConfiguration>> notifyBuffer = new HashMap<>(16);
 
     @Override
     public void notifyDriverProfile(String command, Profile profile) {
@@ -100,13 +118,82 @@ public class NotifyServiceImpl implements NotifyService {
 
     /**
      * notify driver
+     * <p>
+     * 变更先按驱动缓存，合并窗口结束或缓存数量达到 batchSize 时合并为一条消息发送
      *
      * @param driver              Driver
      * @param driverConfiguration DriverConfiguration
      */
     private void notifyDriver(Driver driver, DriverConfiguration driverConfiguration) {
         log.debug("Notify Driver {} : {}", driver.getServiceName(), driverConfiguration);
-        rabbitTemplate.convertAndSend(Common.Rabbit.TOPIC_EXCHANGE_METADATA, Common.Rabbit.ROUTING_DRIVER_METADATA_PREFIX + driver.getServiceName(), driverConfiguration);
+        String serviceName = driver.getServiceName();
+        boolean schedule, flush;
+        synchronized (notifyBuffer) {
+            Map<String, DriverConfiguration> buffer = notifyBuffer.get(serviceName);
+            schedule = null == buffer;
+            if (schedule) {
+                buffer = new LinkedHashMap<>(16);
+                notifyBuffer.put(serviceName, buffer);
+            }
+            String notifyKey = notifyKey(driverConfiguration);
+            buffer.remove(notifyKey);
+            buffer.put(notifyKey, driverConfiguration);
+            flush = buffer.size() >= batchSize;
+        }
+
+        if (flush) {
+            flushDriver(serviceName);
+        } else if (schedule) {
+            scheduledThreadPoolExecutor.schedule(() -> flushDriver(serviceName), window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 发送驱动缓存中的全部变更
+     *
+     * @param serviceName Driver Service Name
+     */
+    private void flushDriver(String serviceName) {
+        Map<String, DriverConfiguration> buffer;
+        synchronized (notifyBuffer) {
+            buffer = notifyBuffer.remove(serviceName);
+        }
+        if (null == buffer || buffer.size() < 1) {
+            return;
+        }
+
+        List<DriverConfiguration> driverConfigurations = new ArrayList<>(buffer.values());
+        DriverConfiguration driverConfiguration = driverConfigurations.size() == 1 ? driverConfigurations.get(0) :
+                new DriverConfiguration().setType(Common.Driver.Type.BATCH).setCommand(Common.Driver.Batch.CONFIGURATION).setContent(driverConfigurations);
+        log.debug("Flush Driver {} : {} configuration(s)", serviceName, driverConfigurations.size());
+        try {
+            rabbitTemplate.convertAndSend(Common.Rabbit.TOPIC_EXCHANGE_METADATA, Common.Rabbit.ROUTING_DRIVER_METADATA_PREFIX + serviceName, driverConfiguration);
+        } catch (Exception e) {
+            log.error("Flush Driver {} : {}", serviceName, e.getMessage());
+        }
+    }
+
+    /**
+     * 生成变更的合并 Key，同类型同 Id 的变更会被合并
+     *
+     * @param driverConfiguration DriverConfiguration
+     * @return Notify Key
+     */
+    private String notifyKey(DriverConfiguration driverConfiguration) {
+        Object content = driverConfiguration.getContent();
+        if (content instanceof Description && null != ((Description) content).getId()) {
+            return driverConfiguration.getType() + Common.Cache.DOT + ((Description) content).getId();
+        }
+        return driverConfiguration.getType() + Common.Cache.DOT + System.identityHashCode(driverConfiguration);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        Set<String> serviceNames;
+        synchronized (notifyBuffer) {
+            serviceNames = new HashSet<>(notifyBuffer.keySet());
+        }
+        serviceNames.forEach(this::flushDriver);
     }
 
 }
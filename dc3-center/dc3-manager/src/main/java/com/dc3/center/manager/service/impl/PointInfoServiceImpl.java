@@ -195,6 +195,20 @@ public class PointInfoServiceImpl implements PointInfoService {
         return pointInfos;
     }
 
+    @Override
+    public List<PointInfo> selectByDeviceIds(Set<Long> deviceIds) {
+        if (null == deviceIds || deviceIds.size() < 1) {
+            throw new NotFoundException("The point infos does not exist");
+        }
+        LambdaQueryWrapper<PointInfo> queryWrapper = Wrappers.<PointInfo>query().lambda();
+        queryWrapper.in(PointInfo::getDeviceId, deviceIds);
+        List<PointInfo> pointInfos = pointInfoMapper.selectList(queryWrapper);
+        if (null == pointInfos || pointInfos.size() < 1) {
+            throw new NotFoundException("The point infos does not exist");
+        }
+        return pointInfos;
+    }
+
     @Override
     @Cacheable(value = Common.Cache.POINT_INFO + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", unless = "#result==null")
     public Page<PointInfo> list(PointInfoDto pointInfoDto) {
@@ -18,6 +18,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dc3.center.manager.mapper.PointMapper;
+import com.dc3.center.manager.mapper.ProfileMapper;
 import com.dc3.center.manager.service.PointService;
 import com.dc3.center.manager.service.ProfileBindService;
 import com.dc3.common.bean.Pages;
@@ -27,7 +28,10 @@ import com.dc3.common.exception.DuplicateException;
 import com.dc3.common.exception.NotFoundException;
 import com.dc3.common.exception.ServiceException;
 import com.dc3.common.model.Point;
+import com.dc3.common.model.Profile;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -50,8 +54,13 @@ public class PointServiceImpl implements PointService {
     @Resource
     private PointMapper pointMapper;
     @Resource
+    private ProfileMapper profileMapper;
+    @Resource
     private ProfileBindService profileBindService;
 
+    @Resource
+    private CacheManager cacheManager;
+
     @Override
     @Caching(
             put = {
@@ -59,13 +68,8 @@ public class PointServiceImpl implements PointService {
                     @CachePut(value = Common.Cache.POINT + Common.Cache.NAME + Common.Cache.PROFILE_ID, key = "#point.name+'.'+#point.profileId", condition = "#result!=null")
             },
             evict = {
-                    @CacheEvict(value = Common.Cache.POINT + Common.Cache.DIC, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.POINT + Common.Cache.PROFILE_ID + Common.Cache.LIST, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.POINT + Common.Cache.LIST, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.POINT + Common.Cache.UNIT, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.ID, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.NAME, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.DIC, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.LIST, allEntries = true, condition = "#result!=null")
             }
     )
@@ -75,7 +79,9 @@ public class PointServiceImpl implements PointService {
             throw new DuplicateException("The point already exists in the profile");
         } catch (NotFoundException notFoundException) {
             if (pointMapper.insert(point) > 0) {
-                return pointMapper.selectById(point.getId());
+                Point select = pointMapper.selectById(point.getId());
+                evictCache(select);
+                return select;
             }
             throw new ServiceException("The point add failed");
         }
@@ -85,20 +91,18 @@ public class PointServiceImpl implements PointService {
     @Caching(
             evict = {
                     @CacheEvict(value = Common.Cache.POINT + Common.Cache.ID, key = "#id", condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.POINT + Common.Cache.NAME + Common.Cache.PROFILE_ID, allEntries = true, condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.POINT + Common.Cache.DIC, allEntries = true, condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.POINT + Common.Cache.PROFILE_ID + Common.Cache.LIST, allEntries = true, condition = "#result==true"),
                     @CacheEvict(value = Common.Cache.POINT + Common.Cache.LIST, allEntries = true, condition = "#result==true"),
                     @CacheEvict(value = Common.Cache.POINT + Common.Cache.UNIT, allEntries = true, condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.ID, allEntries = true, condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.NAME, allEntries = true, condition = "#result==true"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.DIC, allEntries = true, condition = "#result==true"),
                     @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.LIST, allEntries = true, condition = "#result==true")
             }
     )
     public boolean delete(Long id) {
-        selectById(id);
-        return pointMapper.deleteById(id) > 0;
+        Point point = selectById(id);
+        if (pointMapper.deleteById(id) > 0) {
+            evictCache(point);
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -108,13 +112,8 @@ public class PointServiceImpl implements PointService {
                     @CachePut(value = Common.Cache.POINT + Common.Cache.NAME + Common.Cache.PROFILE_ID, key = "#point.name+'.'+#point.profileId", condition = "#result!=null")
             },
             evict = {
-                    @CacheEvict(value = Common.Cache.POINT + Common.Cache.DIC, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.POINT + Common.Cache.PROFILE_ID + Common.Cache.LIST, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.POINT + Common.Cache.LIST, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.POINT + Common.Cache.UNIT, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.ID, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.NAME, allEntries = true, condition = "#result!=null"),
-                    @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.DIC, allEntries = true, condition = "#result!=null"),
                     @CacheEvict(value = Common.Cache.PROFILE + Common.Cache.LIST, allEntries = true, condition = "#result!=null")
             }
     )
@@ -131,13 +130,15 @@ public class PointServiceImpl implements PointService {
         if (pointMapper.updateById(point) > 0) {
             Point select = pointMapper.selectById(point.getId());
             point.setName(select.getName()).setProfileId(select.getProfileId());
+            evictCache(old);
+            evictCache(select);
             return select;
         }
         throw new ServiceException("The point update failed");
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT + Common.Cache.ID, key = "#id", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT + Common.Cache.ID, key = "#id", sync = true)
     public Point selectById(Long id) {
         Point point = pointMapper.selectById(id);
         if (null == point) {
@@ -147,7 +148,7 @@ public class PointServiceImpl implements PointService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT + Common.Cache.NAME + Common.Cache.PROFILE_ID, key = "#name+'.'+#profileId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT + Common.Cache.NAME + Common.Cache.PROFILE_ID, key = "#name+'.'+#profileId", sync = true)
     public Point selectByNameAndProfileId(String name, Long profileId) {
         LambdaQueryWrapper<Point> queryWrapper = Wrappers.<Point>query().lambda();
         queryWrapper.eq(Point::getName, name);
@@ -166,7 +167,7 @@ public class PointServiceImpl implements PointService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT + Common.Cache.PROFILE_ID + Common.Cache.LIST, key = "#profileId", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT + Common.Cache.PROFILE_ID + Common.Cache.LIST, key = "#profileId", sync = true)
     public List<Point> selectByProfileId(Long profileId) {
         PointDto pointDto = new PointDto();
         pointDto.setProfileId(profileId);
@@ -178,25 +179,22 @@ public class PointServiceImpl implements PointService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", sync = true)
     public List<Point> selectByProfileIds(Set<Long> profileIds) {
-        List<Point> points = new ArrayList<>(16);
-        profileIds.forEach(profileId -> {
-            PointDto pointDto = new PointDto();
-            pointDto.setProfileId(profileId);
-            List<Point> pointList = pointMapper.selectList(fuzzyQuery(pointDto));
-            if (null != pointList) {
-                points.addAll(pointList);
-            }
-        });
-        if (points.size() < 1) {
+        if (null == profileIds || profileIds.size() < 1) {
+            throw new NotFoundException("The points does not exist");
+        }
+        LambdaQueryWrapper<Point> queryWrapper = Wrappers.<Point>query().lambda();
+        queryWrapper.in(Point::getProfileId, profileIds);
+        List<Point> points = pointMapper.selectList(queryWrapper);
+        if (null == points || points.size() < 1) {
             throw new NotFoundException("The points does not exist");
         }
         return points;
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", sync = true)
     public Page<Point> list(PointDto pointDto) {
         if (!Optional.ofNullable(pointDto.getPage()).isPresent()) {
             pointDto.setPage(new Pages());
@@ -205,7 +203,7 @@ public class PointServiceImpl implements PointService {
     }
 
     @Override
-    @Cacheable(value = Common.Cache.POINT + Common.Cache.UNIT, keyGenerator = "commonKeyGenerator", unless = "#result==null")
+    @Cacheable(value = Common.Cache.POINT + Common.Cache.UNIT, keyGenerator = "commonKeyGenerator", sync = true)
     public Map<Long, String> unit(Set<Long> pointIds) {
         List<Point> points = pointMapper.selectBatchIds(pointIds);
         return points.stream().collect(Collectors.toMap(Point::getId, Point::getUnit));
@@ -240,4 +238,32 @@ public class PointServiceImpl implements PointService {
         return queryWrapper;
     }
 
+    /**
+     * 按 Key 精确清理位号变更影响的缓存
+     * <p>
+     * 包括位号所在模版的位号列表、模版（携带 pointIds）以及租户下的位号字典，
+     * Key 由参数整体生成的列表类缓存通过 allEntries 递增代数失效
+     *
+     * @param point Point
+     */
+    private void evictCache(Point point) {
+        evictCache(Common.Cache.POINT + Common.Cache.NAME + Common.Cache.PROFILE_ID, point.getName() + Common.Cache.DOT + point.getProfileId());
+        evictCache(Common.Cache.POINT + Common.Cache.PROFILE_ID + Common.Cache.LIST, point.getProfileId());
+        evictCache(Common.Cache.POINT + Common.Cache.DIC, Common.Cache.DIC_PROFILE_KEY_PREFIX + point.getTenantId());
+        evictCache(Common.Cache.POINT + Common.Cache.DIC, Common.Cache.DIC_DEVICE_KEY_PREFIX + point.getTenantId());
+        evictCache(Common.Cache.PROFILE + Common.Cache.ID, point.getProfileId());
+
+        Profile profile = profileMapper.selectById(point.getProfileId());
+        if (null != profile) {
+            evictCache(Common.Cache.PROFILE + Common.Cache.NAME + Common.Cache.TYPE, profile.getName() + Common.Cache.DOT + profile.getType() + Common.Cache.DOT + profile.getTenantId());
+        }
+    }
+
+    private void evictCache(String name, Object key) {
+        Cache cache = cacheManager.getCache(name);
+        if (null != cache) {
+            cache.evict(key);
+        }
+    }
+
 }
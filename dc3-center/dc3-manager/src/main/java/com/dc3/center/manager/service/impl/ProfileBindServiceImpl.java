@@ -33,6 +33,7 @@ import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -185,6 +186,16 @@ public class ProfileBindServiceImpl implements ProfileBindService {
         return profileBinds.stream().map(ProfileBind::getProfileId).collect(Collectors.toSet());
     }
 
+    @Override
+    public List<ProfileBind> selectByDeviceIds(Set<Long> deviceIds) {
+        if (null == deviceIds || deviceIds.size() < 1) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<ProfileBind> queryWrapper = Wrappers.<ProfileBind>query().lambda();
+        queryWrapper.in(ProfileBind::getDeviceId, deviceIds);
+        return profileBindMapper.selectList(queryWrapper);
+    }
+
     @Override
     @Cacheable(value = Common.Cache.PROFILE_BIND + Common.Cache.LIST, keyGenerator = "commonKeyGenerator", unless = "#result==null")
     public Page<ProfileBind> list(ProfileBindDto profileBindDto) {
@@ -15,12 +15,14 @@ package com.dc3.center.manager.service.impl;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dc3.center.manager.service.DeviceService;
+import com.dc3.center.manager.service.DeviceStatusService;
 import com.dc3.center.manager.service.DriverService;
 import com.dc3.center.manager.service.ProfileBindService;
 import com.dc3.center.manager.service.StatusService;
 import com.dc3.common.constant.Common;
 import com.dc3.common.dto.DeviceDto;
 import com.dc3.common.dto.DriverDto;
+import com.dc3.common.exception.NotFoundException;
 import com.dc3.common.model.Device;
 import com.dc3.common.model.Driver;
 import com.dc3.common.utils.RedisUtil;
@@ -28,11 +30,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
- * DeviceService Impl
+ * StatusService Impl
+ * <p>
+ * 设备状态优先从设备状态表中读取，状态表中不存在的设备（例如仍按设备发送 HEARTBEAT 事件的驱动）读取 Redis 中的状态
  *
  * @author pnoker
  */
@@ -48,6 +52,8 @@ public class StatusServiceImpl implements StatusService {
     private DeviceService deviceService;
     @Resource
     private ProfileBindService profileBindService;
+    @Resource
+    private DeviceStatusService deviceStatusService;
 
     @Override
     public String driver(String serviceName) {
@@ -59,51 +65,89 @@ public class StatusServiceImpl implements StatusService {
 
     @Override
     public Map<Long, String> driver(DriverDto driverDto) {
-        Map<Long, String> statusMap = new HashMap<>(16);
-
         Page<Driver> page = driverService.list(driverDto);
-        page.getRecords().forEach(driver -> {
-            String key = Common.Cache.DRIVER_STATUS_KEY_PREFIX + driver.getServiceName();
-            String status = redisUtil.getKey(key, String.class);
-            status = null != status ? status : Common.Driver.Status.OFFLINE;
-            statusMap.put(driver.getId(), status);
-        });
+        List<Driver> drivers = page.getRecords();
+        List<String> statuses = status(drivers.stream().map(driver -> Common.Cache.DRIVER_STATUS_KEY_PREFIX + driver.getServiceName()).collect(Collectors.toList()));
+
+        Map<Long, String> statusMap = new HashMap<>(drivers.size() * 4 / 3 + 1);
+        for (int i = 0; i < drivers.size(); i++) {
+            statusMap.put(drivers.get(i).getId(), statuses.get(i));
+        }
         return statusMap;
     }
 
     @Override
     public String device(Long id) {
+        String status = deviceStatusService.status(id);
+        if (null != status) {
+            return status;
+        }
+
         String key = Common.Cache.DEVICE_STATUS_KEY_PREFIX + id;
-        String status = redisUtil.getKey(key, String.class);
+        status = redisUtil.getKey(key, String.class);
         status = null != status ? status : Common.Driver.Status.OFFLINE;
         return status;
     }
 
     @Override
     public Map<Long, String> device(DeviceDto deviceDto) {
-        Map<Long, String> statusMap = new HashMap<>(16);
-
         Page<Device> page = deviceService.list(deviceDto);
-        page.getRecords().forEach(device -> {
-            String key = Common.Cache.DEVICE_STATUS_KEY_PREFIX + device.getId();
-            String status = redisUtil.getKey(key, String.class);
-            status = null != status ? status : Common.Driver.Status.OFFLINE;
-            statusMap.put(device.getId(), status);
-        });
-        return statusMap;
+        return deviceByIds(page.getRecords().stream().map(Device::getId).collect(Collectors.toList()));
+    }
+
+    @Override
+    public Map<Long, String> deviceByDriverId(Long driverId) {
+        try {
+            return deviceByIds(deviceService.selectByDriverId(driverId).stream().map(Device::getId).collect(Collectors.toList()));
+        } catch (NotFoundException e) {
+            // 驱动下没有设备时返回空结果
+            return new HashMap<>(2);
+        }
     }
 
     @Override
     public Map<Long, String> deviceByProfileId(Long profileId) {
-        Map<Long, String> statusMap = new HashMap<>(16);
-
-        profileBindService.selectDeviceIdByProfileId(profileId).forEach(id -> {
-            String key = Common.Cache.DEVICE_STATUS_KEY_PREFIX + id;
-            String status = redisUtil.getKey(key, String.class);
-            status = null != status ? status : Common.Driver.Status.OFFLINE;
-            statusMap.put(id, status);
-        });
+        return deviceByIds(profileBindService.selectDeviceIdByProfileId(profileId));
+    }
+
+    @Override
+    public Map<Long, String> deviceByIds(Collection<Long> ids) {
+        Map<Long, String> statusMap = new HashMap<>(ids.size() * 4 / 3 + 1);
+        List<Long> deviceIds = new ArrayList<>();
+        for (Long id : ids) {
+            String status = deviceStatusService.status(id);
+            if (null != status) {
+                statusMap.put(id, status);
+            } else {
+                deviceIds.add(id);
+            }
+        }
+
+        List<String> statuses = status(deviceIds.stream().map(id -> Common.Cache.DEVICE_STATUS_KEY_PREFIX + id).collect(Collectors.toList()));
+        for (int i = 0; i < deviceIds.size(); i++) {
+            statusMap.put(deviceIds.get(i), statuses.get(i));
+        }
         return statusMap;
     }
 
+    /**
+     * 通过一次 MGET 查询全部状态，缺失的状态按 OFFLINE 处理
+     *
+     * @param keys Status Key Array
+     * @return Status Array，与 keys 一一对应
+     */
+    private List<String> status(List<String> keys) {
+        List<String> statuses = new ArrayList<>(keys.size());
+        if (keys.isEmpty()) {
+            return statuses;
+        }
+
+        List<String> values = redisUtil.getKey(keys, String.class);
+        for (int i = 0; i < keys.size(); i++) {
+            String status = null != values ? values.get(i) : null;
+            statuses.add(null != status ? status : Common.Driver.Status.OFFLINE);
+        }
+        return statuses;
+    }
+
 }
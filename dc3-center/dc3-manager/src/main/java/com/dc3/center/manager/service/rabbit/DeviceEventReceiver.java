@@ -13,7 +13,7 @@
 
 package com.dc3.center.manager.service.rabbit;
 
-import com.dc3.center.manager.service.EventService;
+import com.dc3.center.manager.service.EventPipelineService;
 import com.dc3.common.constant.Common;
 import com.dc3.common.model.DeviceEvent;
 import com.dc3.common.utils.RedisUtil;
@@ -26,7 +26,6 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
 import java.io.IOException;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 接收驱动发送过来的设备事件
@@ -40,9 +39,7 @@ public class DeviceEventReceiver {
     @Resource
     private RedisUtil redisUtil;
     @Resource
-    private EventService eventService;
-    @Resource
-    private ThreadPoolExecutor threadPoolExecutor;
+    private EventPipelineService eventPipelineService;
 
     @RabbitHandler
     @RabbitListener(queues = "#{deviceEventQueue.name}")
@@ -68,8 +65,7 @@ public class DeviceEventReceiver {
                 case Common.Device.Event.ERROR:
                 case Common.Device.Event.OVER_UPPER_LIMIT:
                 case Common.Device.Event.OVER_LOWER_LIMIT:
-                    //TODO 去重
-                    threadPoolExecutor.execute(() -> eventService.addDeviceEvent(deviceEvent));
+                    eventPipelineService.acceptDeviceEvent(deviceEvent);
                     break;
                 default:
                     log.error("Invalid event type, {}", deviceEvent.getType());
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.center.manager.service.rabbit;
+
+import com.dc3.center.manager.service.DeviceStatusService;
+import com.dc3.common.bean.driver.DeviceHeartbeat;
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+
+/**
+ * 接收驱动发送过来的批量设备心跳
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Component
+public class DeviceHeartbeatReceiver {
+
+    @Resource
+    private DeviceStatusService deviceStatusService;
+
+    @RabbitHandler
+    @RabbitListener(queues = "#{deviceHeartbeatQueue.name}")
+    public void deviceHeartbeatReceive(Channel channel, Message message, DeviceHeartbeat deviceHeartbeat) {
+        try {
+            channel.basicAck(message.getMessageProperties().getDeliveryTag(), true);
+            if (null == deviceHeartbeat || null == deviceHeartbeat.getStatuses()) {
+                log.error("Invalid device heartbeat: {}", deviceHeartbeat);
+                return;
+            }
+            log.debug("Device heartbeat, From: {}, Devices: {}", message.getMessageProperties().getReceivedRoutingKey(), deviceHeartbeat.getStatuses().size());
+
+            deviceStatusService.heartbeat(deviceHeartbeat);
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    @RabbitHandler
+    @RabbitListener(queues = "#{deviceStatusQueue.name}")
+    public void deviceStatusReceive(Channel channel, Message message, DeviceHeartbeat deviceHeartbeat) {
+        try {
+            channel.basicAck(message.getMessageProperties().getDeliveryTag(), true);
+            if (null == deviceHeartbeat || null == deviceHeartbeat.getStatuses()) {
+                log.error("Invalid device heartbeat: {}", deviceHeartbeat);
+                return;
+            }
+
+            deviceStatusService.save(deviceHeartbeat);
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+}
@@ -17,7 +17,7 @@ import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.StrUtil;
 import com.dc3.center.manager.service.BatchService;
 import com.dc3.center.manager.service.DriverSdkService;
-import com.dc3.center.manager.service.EventService;
+import com.dc3.center.manager.service.EventPipelineService;
 import com.dc3.common.bean.driver.DriverConfiguration;
 import com.dc3.common.bean.driver.DriverRegister;
 import com.dc3.common.constant.Common;
@@ -34,7 +34,6 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
 import java.io.IOException;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 接收驱动发送过来的驱动事件数据
@@ -49,7 +48,7 @@ public class DriverEventReceiver {
     @Resource
     private RedisUtil redisUtil;
     @Resource
-    private EventService eventService;
+    private EventPipelineService eventPipelineService;
     @Resource
     private BatchService batchService;
     @Resource
@@ -57,8 +56,6 @@ public class DriverEventReceiver {
 
     @Resource
     private RabbitTemplate rabbitTemplate;
-    @Resource
-    private ThreadPoolExecutor threadPoolExecutor;
 
     @RabbitHandler
     @RabbitListener(queues = "#{driverEventQueue.name}")
@@ -124,6 +121,33 @@ public class DriverEventReceiver {
                             driverConfiguration
                     );
                     break;
+                case Common.Driver.Event.DRIVER_METADATA_SYNC_CHUNK:
+                    int size = Convert.toInt(driverEvent.getContent(), Common.Driver.DEFAULT_METADATA_CHUNK_SIZE);
+                    size = Math.max(1, Math.min(size, Common.Driver.MAX_METADATA_CHUNK_SIZE));
+                    try {
+                        batchService.batchDriverMetadataChunk(driverEvent.getServiceName(), size, chunk -> rabbitTemplate.convertAndSend(
+                                Common.Rabbit.TOPIC_EXCHANGE_METADATA,
+                                routingKey,
+                                new DriverConfiguration(
+                                        Common.Driver.Type.DRIVER,
+                                        Common.Driver.Event.DRIVER_METADATA_SYNC_CHUNK_BACK,
+                                        chunk,
+                                        Common.Response.OK
+                                )
+                        ));
+                    } catch (Exception e) {
+                        rabbitTemplate.convertAndSend(
+                                Common.Rabbit.TOPIC_EXCHANGE_METADATA,
+                                routingKey,
+                                new DriverConfiguration(
+                                        Common.Driver.Type.DRIVER,
+                                        Common.Driver.Event.DRIVER_METADATA_SYNC_CHUNK_BACK,
+                                        null,
+                                        e.getMessage()
+                                )
+                        );
+                    }
+                    break;
                 case Common.Driver.Event.HEARTBEAT:
                     redisUtil.setKey(
                             Common.Cache.DRIVER_STATUS_KEY_PREFIX + driverEvent.getServiceName(),
@@ -133,8 +157,8 @@ public class DriverEventReceiver {
                     );
                     break;
                 case Common.Driver.Event.ERROR:
-                    //TODO 去重
-                    threadPoolExecutor.execute(() -> eventService.addDriverEvent(driverEvent));
+                    eventPipelineService.acceptDriverEvent(driverEvent);
+                    break;
                 default:
                     log.error("Invalid event type, {}", driverEvent.getType());
                     break;
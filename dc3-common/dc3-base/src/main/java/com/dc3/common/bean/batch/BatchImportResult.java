@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.bean.batch;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果，包含各类数据的写入数量以及逐行的错误信息
+ *
+ * @author pnoker
+ */
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+public class BatchImportResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int drivers;
+    private int profiles;
+    private int points;
+    private int groups;
+    private int devices;
+    private int driverInfos;
+    private int pointInfos;
+
+    /**
+     * 错误信息，格式为 driver[serviceName].profile[name]...: message
+     */
+    private List<String> errors = new ArrayList<>();
+}
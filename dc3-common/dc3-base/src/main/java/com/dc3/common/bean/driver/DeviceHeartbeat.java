@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.bean.driver;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Device Heartbeat
+ * <p>
+ * 驱动在一条消息中上报其下全部设备的状态，替代逐个设备发送的 HEARTBEAT 设备事件
+ *
+ * @author pnoker
+ */
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeviceHeartbeat implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String serviceName;
+
+    /**
+     * deviceId,status
+     */
+    private Map<Long, String> statuses;
+
+    /**
+     * 超过该时间未收到心跳的设备视为离线
+     */
+    private int timeOut = 25;
+    private TimeUnit timeUnit = TimeUnit.SECONDS;
+
+    private Long originTime;
+
+    public DeviceHeartbeat(String serviceName, Map<Long, String> statuses, int timeOut, TimeUnit timeUnit) {
+        this.serviceName = serviceName;
+        this.statuses = statuses;
+        this.timeOut = timeOut;
+        this.timeUnit = timeUnit;
+        this.originTime = System.currentTimeMillis();
+    }
+}
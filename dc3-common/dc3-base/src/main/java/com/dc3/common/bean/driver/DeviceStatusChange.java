@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.bean.driver;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * Device Status Change
+ * <p>
+ * 设备状态发生变化时作为 status 设备事件的内容记录，例如首次心跳的 ONLINE 以及心跳超时的 OFFLINE
+ *
+ * @author pnoker
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class DeviceStatusChange implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long deviceId;
+
+    /**
+     * 变化前的状态，设备首次上线时为 OFFLINE
+     */
+    private String previous;
+    private String status;
+
+    private Long changeTime;
+}
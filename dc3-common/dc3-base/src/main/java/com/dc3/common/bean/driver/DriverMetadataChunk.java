@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.bean.driver;
+
+import com.dc3.common.model.Device;
+import com.dc3.common.model.DriverAttribute;
+import com.dc3.common.model.Point;
+import com.dc3.common.model.PointAttribute;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Driver Metadata Chunk
+ * <p>
+ * 分块同步时的一块驱动元数据，按设备分页生成：
+ * 第一块（sequence = 0）携带驱动属性以及位号属性，
+ * 每块只携带本页设备首次引用到的模版位号，
+ * 最后一块 last = true 作为同步完成标记。
+ *
+ * @author pnoker
+ */
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DriverMetadataChunk implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long driverId;
+    private Long tenantId;
+
+    /**
+     * 块序号，从 0 开始
+     */
+    private Integer sequence;
+
+    /**
+     * 是否为最后一块
+     */
+    private Boolean last;
+
+    /**
+     * 驱动下设备总数
+     */
+    private Long total;
+
+    private Map<Long, DriverAttribute> driverAttributeMap;
+    private Map<Long, PointAttribute> pointAttributeMap;
+
+    /**
+     * deviceId(driverAttribute.name,(driverInfo.value,driverAttribute.type))
+     */
+    private Map<Long, Map<String, AttributeInfo>> driverInfoMap;
+
+    /**
+     * deviceId(pointId(pointAttribute.name,(pointInfo.value,pointAttribute.type)))
+     */
+    private Map<Long, Map<Long, Map<String, AttributeInfo>>> pointInfoMap;
+
+    /**
+     * deviceId,device
+     */
+    private Map<Long, Device> deviceMap;
+
+    /**
+     * profileId(pointId,point)
+     */
+    private Map<Long, Map<Long, Point>> profilePointMap;
+}
@@ -26,4 +26,15 @@ public class ThreadProperty {
     private int corePoolSize;
     private int maximumPoolSize;
     private int keepAliveTime;
+
+    /**
+     * 设备 I/O 执行方式，platform 为平台线程池，virtual 为虚拟线程，虚拟线程仅在 JDK 21 及以上可用，
+     * 不可用时回退为平台线程池
+     */
+    private String executor = "platform";
+
+    /**
+     * 虚拟线程模式下同时执行设备 I/O 的最大数量，小于 1 时使用 maximumPoolSize
+     */
+    private int concurrency;
 }
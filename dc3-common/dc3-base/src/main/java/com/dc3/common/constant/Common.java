@@ -99,6 +99,9 @@ public interface Common {
         String QUEUE_DRIVER_EVENT = "dc3.queue.event.driver";
         String ROUTING_DEVICE_EVENT_PREFIX = "dc3.routing.event.device.";
         String QUEUE_DEVICE_EVENT = "dc3.queue.event.device";
+        String ROUTING_DEVICE_HEARTBEAT_PREFIX = "dc3.routing.heartbeat.device.";
+        String QUEUE_DEVICE_HEARTBEAT_PREFIX = "dc3.queue.heartbeat.device.";
+        String QUEUE_DEVICE_STATUS = "dc3.queue.status.device";
 
         // Metadata
         String TOPIC_EXCHANGE_METADATA = "dc3.exchange.metadata";
@@ -117,6 +120,37 @@ public interface Common {
     interface Driver {
         int MAX_REQUEST_SIZE = 100;
 
+        /**
+         * 分块同步驱动元数据时，每块包含的默认设备数量以及最大设备数量
+         */
+        int DEFAULT_METADATA_CHUNK_SIZE = 200;
+        int MAX_METADATA_CHUNK_SIZE = 2000;
+
+        /**
+         * SDK 内置的位号属性，驱动未声明时由 SDK 在注册时自动追加
+         */
+        interface Attribute {
+            /**
+             * 位号采集周期，毫秒，为空或小于 1 时使用 driver.schedule.read 的采集周期
+             */
+            String SCAN_INTERVAL = "scanInterval";
+
+            /**
+             * 绝对死区，数值变化量超过该值时上报
+             */
+            String DEADBAND = "deadband";
+
+            /**
+             * 百分比死区，数值变化量超过上次上报值的该百分比时上报
+             */
+            String DEADBAND_PERCENT = "deadbandPercent";
+
+            /**
+             * 最长静默时间，毫秒，超过该时间未上报时即使未变化也上报一次
+             */
+            String MAX_SILENCE = "maxSilence";
+        }
+
         /**
          * 设备状态
          */
@@ -151,6 +185,12 @@ public interface Common {
             String DRIVER_METADATA_SYNC = "driver_metadata_sync";
             String DRIVER_METADATA_SYNC_BACK = "driver_metadata_sync_back";
 
+            /**
+             * 分块同步驱动元数据事件，dc3-manager 按设备分页逐块返回驱动元数据
+             */
+            String DRIVER_METADATA_SYNC_CHUNK = "driver_metadata_sync_chunk";
+            String DRIVER_METADATA_SYNC_CHUNK_BACK = "driver_metadata_sync_chunk_back";
+
             /**
              * 驱动心跳事件，该事件用于向 dc3-manager 发送驱动的当前状态
              */
@@ -167,6 +207,14 @@ public interface Common {
             String POINT = "point";
             String DRIVER_INFO = "driver_info";
             String POINT_INFO = "point_info";
+            String BATCH = "batch";
+        }
+
+        /**
+         * 合并后的批量元数据变更，content 为 DriverConfiguration 数组
+         */
+        interface Batch {
+            String CONFIGURATION = "batch_configuration";
         }
 
         interface Profile {
@@ -224,6 +272,11 @@ public interface Common {
              */
             String HEARTBEAT = "heartbeat";
 
+            /**
+             * 设备状态变化事件，由 dc3-manager 的设备状态表产生
+             */
+            String STATUS = "status";
+
             /**
              * 超出上限事件
              */
@@ -326,11 +379,6 @@ public interface Common {
          */
         int SALT_CACHE_TIMEOUT = 5;
 
-        /**
-         * user 登陆限制失效时间，分钟
-         */
-        int USER_LIMIT_TIMEOUT = 5;
-
         /**
          * token 在 redis 中的失效时间，小时
          */
@@ -373,9 +421,13 @@ public interface Common {
         String EMAIL = "_email";
         String VALUE = "_value";
         String STATUS = "_status";
+        String CHANGE = "_change";
         String SALT = "_salt";
         String TOKEN = "_token";
         String LIMIT = "_limit";
+        String FAIL = "_fail";
+        String LOCK = "_lock";
+        String STRIKE = "_strike";
         String LIST = "_list";
         String DIC = "_dic";
         String IP = "_ip";
@@ -399,6 +451,25 @@ public interface Common {
         String REAL_TIME_VALUE_KEY_PREFIX = Cache.POINT + Cache.VALUE + Cache.SEPARATOR;
         String DRIVER_STATUS_KEY_PREFIX = Cache.DRIVER + Cache.STATUS + Cache.SEPARATOR;
         String DEVICE_STATUS_KEY_PREFIX = Cache.DEVICE + Cache.STATUS + Cache.SEPARATOR;
+        String DEVICE_STATUS_CHANGE_KEY_PREFIX = Cache.DEVICE + Cache.STATUS + Cache.CHANGE + Cache.SEPARATOR;
+
+        /**
+         * 字典缓存的 Key 前缀，完整 Key 为前缀 + tenantId，字典的 @Cacheable 与按 Key 清理共用
+         */
+        String DIC_KEY_PREFIX = "dic" + Cache.DOT;
+        String DIC_PROFILE_KEY_PREFIX = Cache.DIC_KEY_PREFIX + Cache.PROFILE + Cache.DOT;
+        String DIC_DEVICE_KEY_PREFIX = Cache.DIC_KEY_PREFIX + Cache.DEVICE + Cache.DOT;
+
+        /**
+         * token、tenant 失效通知的 Redis pub/sub 频道，消息内容分别为 username、tenant name
+         */
+        String TOKEN_REVOCATION_TOPIC = "dc3_token_revocation";
+        String TENANT_REVOCATION_TOPIC = "dc3_tenant_revocation";
+
+        /**
+         * Ip 黑名单变更通知的 Redis pub/sub 频道，消息内容为变更的 Ip
+         */
+        String BLACK_IP_CHANGE_TOPIC = "dc3_black_ip_change";
     }
 
 }
@@ -39,6 +39,13 @@ public class DeviceEventDto implements Serializable {
     private Long deviceId;
     private Long pointId;
 
+    /**
+     * 游标分页，传入上一页最后一条事件的 originTime 以及 id，
+     * 查询该事件之后的一页，此时不再统计总数
+     */
+    private Long afterTime;
+    private String afterId;
+
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private Pages page;
 
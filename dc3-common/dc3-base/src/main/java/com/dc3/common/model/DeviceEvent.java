@@ -14,6 +14,8 @@
 package com.dc3.common.model;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,6 +26,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.MongoId;
 
 import java.io.Serializable;
+import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,9 +42,10 @@ public class DeviceEvent implements Serializable {
     private static final long serialVersionUID = 1L;
 
     /**
-     * MongoDB Object Id
+     * MongoDB Object Id，序列化为十六进制字符串，作为分页游标使用
      */
     @MongoId
+    @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId id;
 
     /**
@@ -64,6 +68,11 @@ public class DeviceEvent implements Serializable {
     private Boolean confirm = false;
     private Object content;
 
+    /**
+     * 去重窗口内被合并的重复事件数量
+     */
+    private Integer suppressed;
+
     @Transient
     private int timeOut = 15;
 
@@ -73,6 +82,11 @@ public class DeviceEvent implements Serializable {
     private Long originTime;
     private Long confirmTime;
 
+    /**
+     * 写入时间，用于按保留时间自动清理的 TTL 索引
+     */
+    private Date createTime;
+
     public DeviceEvent(Long deviceId, String type, Object content) {
         this.deviceId = deviceId;
         this.type = type;
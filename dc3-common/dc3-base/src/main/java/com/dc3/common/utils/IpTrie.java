@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.utils;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+
+/**
+ * Ip 前缀树，支持单个 Ip 以及 CIDR 网段，例如 192.168.1.10、10.0.0.0/8、2001:db8::/32
+ * <p>
+ * IPv4 与 IPv6 各使用一棵按位展开的二叉树，节点保存在 int 数组中；
+ * 构建完成后只读，可以在多个线程中并发查询，更新时整体替换
+ *
+ * @author pnoker
+ */
+public class IpTrie {
+
+    private final Trie ipv4 = new Trie();
+    private final Trie ipv6 = new Trie();
+    private int size;
+
+    /**
+     * 添加 Ip 或者 CIDR 网段
+     *
+     * @param cidr Ip or CIDR
+     * @return 格式是否合法
+     */
+    public boolean add(String cidr) {
+        if (null == cidr) {
+            return false;
+        }
+        String value = cidr.trim();
+        int prefix = -1;
+        int index = value.indexOf('/');
+        if (index > 0) {
+            try {
+                prefix = Integer.parseInt(value.substring(index + 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (prefix < 0) {
+                return false;
+            }
+            value = value.substring(0, index);
+        }
+
+        byte[] address = parse(value);
+        if (null == address) {
+            return false;
+        }
+        int bits = address.length * 8;
+        if (prefix < 0) {
+            prefix = bits;
+        } else if (prefix > bits) {
+            return false;
+        }
+
+        (address.length == 4 ? ipv4 : ipv6).insert(address, prefix);
+        size++;
+        return true;
+    }
+
+    /**
+     * 判断 Ip 是否命中任意一条记录
+     *
+     * @param ip Ip
+     * @return boolean
+     */
+    public boolean contains(String ip) {
+        if (null == ip || 0 == size) {
+            return false;
+        }
+        byte[] address = parse(ip.trim());
+        if (null == address) {
+            return false;
+        }
+        return (address.length == 4 ? ipv4 : ipv6).match(address);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 解析 Ip 字面量，IPv4 直接解析，IPv6 交由 InetAddress 处理
+     * <p>
+     * 非 Ip 字面量的字符串直接返回 null，不会触发 DNS 查询
+     *
+     * @param ip Ip
+     * @return byte[]，IPv4 为 4 字节，IPv6 为 16 字节，格式错误时返回 null
+     */
+    private static byte[] parse(String ip) {
+        if (ip.isEmpty()) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            return parseIpv4(ip);
+        }
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (!(c == ':' || c == '.' || Character.digit(c, 16) >= 0)) {
+                return null;
+            }
+        }
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static byte[] parseIpv4(String ip) {
+        byte[] address = new byte[4];
+        int part = 0, value = 0, digits = 0;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c == '.') {
+                if (0 == digits || part == 3) {
+                    return null;
+                }
+                address[part++] = (byte) value;
+                value = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        if (0 == digits || part != 3) {
+            return null;
+        }
+        address[3] = (byte) value;
+        return address;
+    }
+
+    /**
+     * 二叉前缀树，children[node * 2 + bit] 为子节点编号，0 表示不存在（根节点不会作为子节点）
+     */
+    private static class Trie {
+        private int[] children = new int[32];
+        private boolean[] terminal = new boolean[16];
+        private int count = 1;
+
+        void insert(byte[] address, int prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix; i++) {
+                if (terminal[node]) {
+                    // 已被更短的网段覆盖
+                    return;
+                }
+                int slot = node * 2 + bit(address, i);
+                int child = children[slot];
+                if (0 == child) {
+                    // newNode 可能扩容 children，需要先取得编号再写入
+                    child = newNode();
+                    children[slot] = child;
+                }
+                node = child;
+            }
+            terminal[node] = true;
+        }
+
+        boolean match(byte[] address) {
+            int node = 0;
+            int bits = address.length * 8;
+            for (int i = 0; i < bits; i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                node = children[node * 2 + bit(address, i)];
+                if (0 == node) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+
+        private int newNode() {
+            if (count == terminal.length) {
+                terminal = Arrays.copyOf(terminal, count * 2);
+                children = Arrays.copyOf(children, count * 4);
+            }
+            return count++;
+        }
+
+        private static int bit(byte[] address, int index) {
+            return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.dc3.common.constant.Common;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在 RedisCacheManager 创建的缓存外层增加合并加载，列表类缓存额外增加代数失效
+ * <p>
+ * 使用 commonKeyGenerator 的分页列表缓存 Key 由参数整体生成，无法按实体精确清理，
+ * 只有 {@link #GENERATION_CACHES} 中的缓存增加代数，其 allEntries 清理只递增代数；
+ * 按 Key 精确清理的缓存不增加代数，避免每次访问多一次 Redis 读取
+ * <p>
+ * localMaximumSize 大于 0 时在 Redis 前增加进程内一级缓存，各实例通过 Redis pub/sub 同步一级缓存失效，
+ * 同时按缓存名称统计一级、二级缓存的命中、未命中以及一级缓存的淘汰次数
+ *
+ * @author pnoker
+ */
+@Slf4j
+public class DecoratingCacheManager implements CacheManager, MeterBinder {
+
+    /**
+     * 一级缓存失效消息的 Redis Channel
+     */
+    public static final String CACHE_TOPIC = "dc3_cache_invalidation";
+
+    /**
+     * 使用 commonKeyGenerator 生成 Key 的缓存，新增此类缓存时需要同步加入
+     */
+    public static final Set<String> GENERATION_CACHES = new HashSet<>(Arrays.asList(
+            Common.Cache.BLACK_IP + Common.Cache.LIST,
+            Common.Cache.DEVICE + Common.Cache.LIST,
+            Common.Cache.DRIVER + Common.Cache.LIST,
+            Common.Cache.DRIVER_ATTRIBUTE + Common.Cache.LIST,
+            Common.Cache.DRIVER_INFO + Common.Cache.LIST,
+            Common.Cache.GROUP + Common.Cache.LIST,
+            Common.Cache.LABEL + Common.Cache.LIST,
+            Common.Cache.LABEL_BIND + Common.Cache.LIST,
+            Common.Cache.POINT + Common.Cache.LIST,
+            Common.Cache.POINT + Common.Cache.UNIT,
+            Common.Cache.POINT_ATTRIBUTE + Common.Cache.LIST,
+            Common.Cache.POINT_INFO + Common.Cache.LIST,
+            Common.Cache.PROFILE + Common.Cache.LIST,
+            Common.Cache.PROFILE_BIND + Common.Cache.LIST,
+            Common.Cache.TENANT + Common.Cache.LIST,
+            Common.Cache.TENANT_BIND + Common.Cache.LIST,
+            Common.Cache.USER + Common.Cache.LIST
+    ));
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+
+    private final Map<String, Cache> cacheMap = new ConcurrentHashMap<>(16);
+    private final Map<String, TwoLevelCache> twoLevelCacheMap = new ConcurrentHashMap<>(16);
+    private volatile MeterRegistry meterRegistry;
+
+    public DecoratingCacheManager(CacheManager cacheManager, StringRedisTemplate stringRedisTemplate, long localMaximumSize, Duration localTimeToLive) {
+        this.cacheManager = cacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return cacheMap.computeIfAbsent(name, key -> {
+            Cache cache = cacheManager.getCache(key);
+            if (null == cache) {
+                return null;
+            }
+            if (isGeneration(key)) {
+                cache = new GenerationCache(cache, stringRedisTemplate);
+            }
+            if (localMaximumSize > 0) {
+                TwoLevelCache twoLevelCache = new TwoLevelCache(cache, localCache(), this::publish);
+                twoLevelCacheMap.put(key, twoLevelCache);
+                if (null != meterRegistry) {
+                    bindTo(meterRegistry, twoLevelCache);
+                }
+                cache = twoLevelCache;
+            }
+            return new CoalescingCache(cache);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return cacheManager.getCacheNames();
+    }
+
+    /**
+     * 处理其他实例广播的一级缓存失效消息
+     *
+     * @param message CacheMessage Json
+     */
+    public void receive(String message) {
+        CacheMessage cacheMessage = JSON.parseObject(message, CacheMessage.class);
+        if (null == cacheMessage || instanceId.equals(cacheMessage.getInstanceId())) {
+            return;
+        }
+        TwoLevelCache twoLevelCache = twoLevelCacheMap.get(cacheMessage.getName());
+        if (null != twoLevelCache) {
+            twoLevelCache.invalidateLocal(cacheMessage.getKey());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        twoLevelCacheMap.values().forEach(twoLevelCache -> bindTo(registry, twoLevelCache));
+    }
+
+    private void bindTo(MeterRegistry registry, TwoLevelCache twoLevelCache) {
+        String name = twoLevelCache.getName();
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = twoLevelCache.getLocalCache();
+        FunctionCounter.builder("dc3.cache.gets", localCache, cache -> cache.stats().hitCount())
+                .tags("cache", name, "level", "l1", "result", "hit").register(registry);
+        FunctionCounter.builder("dc3.cache.gets", localCache, cache -> cache.stats().missCount())
+                .tags("cache", name, "level", "l1", "result", "miss").register(registry);
+        FunctionCounter.builder("dc3.cache.gets", twoLevelCache, TwoLevelCache::getRemoteHit)
+                .tags("cache", name, "level", "l2", "result", "hit").register(registry);
+        FunctionCounter.builder("dc3.cache.gets", twoLevelCache, TwoLevelCache::getRemoteMiss)
+                .tags("cache", name, "level", "l2", "result", "miss").register(registry);
+        FunctionCounter.builder("dc3.cache.evictions", localCache, cache -> cache.stats().evictionCount())
+                .tags("cache", name, "level", "l1").register(registry);
+        Gauge.builder("dc3.cache.size", localCache, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .tags("cache", name, "level", "l1").register(registry);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> localCache() {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder().maximumSize(localMaximumSize).recordStats();
+        if (null != localTimeToLive) {
+            caffeine.expireAfterWrite(localTimeToLive);
+        }
+        return caffeine.build();
+    }
+
+    private void publish(CacheMessage cacheMessage) {
+        try {
+            stringRedisTemplate.convertAndSend(CACHE_TOPIC, JSON.toJSONString(cacheMessage.setInstanceId(instanceId)));
+        } catch (Exception e) {
+            log.warn("Publish cache message {} failed: {}", cacheMessage, e.getMessage());
+        }
+    }
+
+    private boolean isGeneration(String name) {
+        return GENERATION_CACHES.contains(name);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.cache;
+
+import com.dc3.common.constant.Common;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 按代数失效的缓存
+ * <p>
+ * 实际存储的 Key 会带上当前代数，clear 时只递增代数而不删除数据，
+ * 旧代数的数据不再被访问并随 TTL 过期，用于 Key 无法精确计算的列表类缓存
+ *
+ * @author pnoker
+ */
+@Slf4j
+public class GenerationCache implements Cache {
+
+    private final Cache cache;
+    private final String generationKey;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public GenerationCache(Cache cache, StringRedisTemplate stringRedisTemplate) {
+        this.cache = cache;
+        this.generationKey = "generation" + Common.Cache.SEPARATOR + cache.getName();
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return cache.get(generationKey(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return cache.get(generationKey(key), type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return cache.get(generationKey(key), valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cache.put(generationKey(key), value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return cache.putIfAbsent(generationKey(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.evict(generationKey(key));
+    }
+
+    @Override
+    public void clear() {
+        Long generation = stringRedisTemplate.opsForValue().increment(generationKey);
+        log.debug("Cache {} generation increased to {}", getName(), generation);
+    }
+
+    /**
+     * 获取当前代数
+     *
+     * @return Generation
+     */
+    public long generation() {
+        String generation = stringRedisTemplate.opsForValue().get(generationKey);
+        return null == generation ? 0 : Long.parseLong(generation);
+    }
+
+    private String generationKey(Object key) {
+        return generation() + Common.Cache.DOT + key;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.cache;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 稳定的缓存 Key 生成策略
+ * <p>
+ * 按参数的规范值生成 Key：对象按属性名排序，忽略 null 属性，Set 与 Map 按元素排序，
+ * 不依赖 Lombok 的 toString 格式。规范值经 128 位 MurmurHash 压缩，
+ * Key 格式为 {@code 类名.方法名:哈希值}，长度固定。
+ * 参数中出现循环引用时，回到祖先对象处写为 {@code ^类名}，不会无限递归。
+ *
+ * @author pnoker
+ */
+public class StableKeyGenerator implements KeyGenerator {
+
+    private static final Map<Class<?>, Method[]> GETTERS = new ConcurrentHashMap<>(64);
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        StringBuilder sb = new StringBuilder(128);
+        for (Object param : params) {
+            canonical(param, sb);
+            sb.append('|');
+        }
+        long[] hash = MurmurHash.hash128(sb.toString().getBytes(StandardCharsets.UTF_8));
+        return target.getClass().getSimpleName() + "." + method.getName() + ":" + hex(hash[0]) + hex(hash[1]);
+    }
+
+    /**
+     * 将参数写为规范值
+     *
+     * @param value Object
+     * @param sb    StringBuilder
+     */
+    static void canonical(Object value, StringBuilder sb) {
+        canonical(value, sb, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * 将参数写为规范值，path 为当前递归路径上的容器与对象，用于识别循环引用
+     *
+     * @param value Object
+     * @param sb    StringBuilder
+     * @param path  Set
+     */
+    private static void canonical(Object value, StringBuilder sb, Set<Object> path) {
+        if (null == value) {
+            sb.append('~');
+        } else if (value instanceof CharSequence) {
+            String string = value.toString();
+            sb.append('"').append(string.length()).append(':').append(string);
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            sb.append(value);
+        } else if (value instanceof Enum) {
+            sb.append(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            sb.append('@').append(((Date) value).getTime());
+        } else if (!path.add(value)) {
+            sb.append('^').append(value.getClass().getSimpleName());
+        } else {
+            try {
+                composite(value, sb, path);
+            } finally {
+                path.remove(value);
+            }
+        }
+    }
+
+    private static void composite(Object value, StringBuilder sb, Set<Object> path) {
+        if (value instanceof Set) {
+            List<String> elements = new ArrayList<>(((Set<?>) value).size());
+            for (Object element : (Set<?>) value) {
+                elements.add(canonical(element, path));
+            }
+            Collections.sort(elements);
+            sb.append('{');
+            elements.forEach(element -> sb.append(element).append(','));
+            sb.append('}');
+        } else if (value instanceof Collection) {
+            sb.append('[');
+            for (Object element : (Collection<?>) value) {
+                canonical(element, sb, path);
+                sb.append(',');
+            }
+            sb.append(']');
+        } else if (value instanceof Map) {
+            TreeMap<String, String> entries = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> entries.put(canonical(k, path), canonical(v, path)));
+            sb.append('{');
+            entries.forEach((k, v) -> sb.append(k).append('=').append(v).append(','));
+            sb.append('}');
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            sb.append('[');
+            for (int i = 0; i < length; i++) {
+                canonical(Array.get(value, i), sb, path);
+                sb.append(',');
+            }
+            sb.append(']');
+        } else {
+            bean(value, sb, path);
+        }
+    }
+
+    private static String canonical(Object value, Set<Object> path) {
+        StringBuilder sb = new StringBuilder(32);
+        canonical(value, sb, path);
+        return sb.toString();
+    }
+
+    /**
+     * 按属性名顺序写出非 null 的属性，新增的可空属性不会改变原有 Key
+     *
+     * @param bean Object
+     * @param sb   StringBuilder
+     * @param path Set
+     */
+    private static void bean(Object bean, StringBuilder sb, Set<Object> path) {
+        sb.append(bean.getClass().getSimpleName()).append('(');
+        for (Method getter : GETTERS.computeIfAbsent(bean.getClass(), StableKeyGenerator::getters)) {
+            Object property;
+            try {
+                property = getter.invoke(bean);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to read cache key property " + getter.getName(), e);
+            }
+            if (null != property) {
+                sb.append(getter.getName()).append('=');
+                canonical(property, sb, path);
+                sb.append(',');
+            }
+        }
+        sb.append(')');
+    }
+
+    private static Method[] getters(Class<?> type) {
+        return Arrays.stream(BeanUtils.getPropertyDescriptors(type))
+                .filter(descriptor -> null != descriptor.getReadMethod() && !"class".equals(descriptor.getName()))
+                .sorted(Comparator.comparing(PropertyDescriptor::getName))
+                .map(PropertyDescriptor::getReadMethod)
+                .toArray(Method[]::new);
+    }
+
+    private static String hex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() < 16 ? "0000000000000000".substring(hex.length()) + hex : hex;
+    }
+
+}
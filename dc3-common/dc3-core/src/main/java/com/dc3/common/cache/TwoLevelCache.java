@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 二级缓存，一级为进程内 Caffeine，二级为 Redis
+ * <p>
+ * 读取时先查一级缓存，未命中再查二级缓存并回填一级缓存；
+ * 写入、清理同时作用于两级缓存，显式写入以及清理会广播失效消息让其他实例清理各自的一级缓存。
+ * 只有 valueLoader 加载（@Cacheable(sync = true)）的回填不广播；
+ * 非 sync 的 @Cacheable 回填经由 put 写入，无法与 @CachePut 区分，仍然广播
+ *
+ * @author pnoker
+ */
+public class TwoLevelCache implements Cache {
+
+    private final Cache cache;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final Consumer<CacheMessage> publisher;
+
+    private final LongAdder remoteHit = new LongAdder();
+    private final LongAdder remoteMiss = new LongAdder();
+
+    public TwoLevelCache(Cache cache, com.github.benmanes.caffeine.cache.Cache<String, Object> localCache, Consumer<CacheMessage> publisher) {
+        this.cache = cache;
+        this.localCache = localCache;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (null != value) {
+            return new SimpleValueWrapper(value);
+        }
+
+        ValueWrapper valueWrapper = cache.get(key);
+        if (null != valueWrapper && null != valueWrapper.get()) {
+            remoteHit.increment();
+            localCache.put(localKey, valueWrapper.get());
+        } else {
+            remoteMiss.increment();
+        }
+        return valueWrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = null != valueWrapper ? valueWrapper.get() : null;
+        if (null != value && null != type && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper valueWrapper = get(key);
+        if (null != valueWrapper) {
+            return (T) valueWrapper.get();
+        }
+        try {
+            T value = valueLoader.call();
+            if (null != value) {
+                fill(key, value);
+            }
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        cache.put(key, value);
+        if (null != value) {
+            localCache.put(localKey, value);
+        }
+        publisher.accept(new CacheMessage().setName(getName()).setKey(localKey));
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.evict(key);
+        localCache.invalidate(localKey(key));
+        publisher.accept(new CacheMessage().setName(getName()).setKey(localKey(key)));
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        localCache.invalidateAll();
+        publisher.accept(new CacheMessage().setName(getName()));
+    }
+
+    /**
+     * 未命中后由 valueLoader 加载的回填，写入两级缓存但不广播失效消息
+     *
+     * @param key   Key
+     * @param value Value
+     */
+    public void fill(Object key, Object value) {
+        cache.put(key, value);
+        if (null != value) {
+            localCache.put(localKey(key), value);
+        }
+    }
+
+    /**
+     * 处理其他实例广播的失效消息，只清理一级缓存
+     *
+     * @param key Local Key，为 null 时清空一级缓存
+     */
+    public void invalidateLocal(String key) {
+        if (null == key) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, Object> getLocalCache() {
+        return localCache;
+    }
+
+    public long getRemoteHit() {
+        return remoteHit.sum();
+    }
+
+    public long getRemoteMiss() {
+        return remoteMiss.sum();
+    }
+
+    /**
+     * Redis 中的 Key 同样以字符串保存，一级缓存与其保持一致
+     *
+     * @param key Key
+     * @return Local Key
+     */
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
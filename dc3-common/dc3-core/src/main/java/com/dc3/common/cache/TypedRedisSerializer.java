@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 按类型序列化的 Redis Value 序列化器
+ * <p>
+ * 不再在数据中写入类名，支持 JSON 和二进制 Smile 两种格式，写入的数据以 MAGIC + 格式 两个字节开头；
+ * 读取时没有该前缀的数据按原有的 NON_FINAL 默认类型 JSON 解析，切换序列化器后已有的 Key 仍然可以读取
+ *
+ * @author pnoker
+ */
+public class TypedRedisSerializer<T> implements RedisSerializer<T> {
+
+    public static final String JSON = "json";
+    public static final String SMILE = "smile";
+
+    private static final byte MAGIC = (byte) 0xDC;
+    private static final byte FORMAT_JSON = 1;
+    private static final byte FORMAT_SMILE = 2;
+
+    private static final ObjectMapper JSON_MAPPER = typedMapper(new ObjectMapper());
+    private static final ObjectMapper SMILE_MAPPER = typedMapper(new ObjectMapper(new SmileFactory()));
+    private static final Jackson2JsonRedisSerializer<Object> LEGACY_SERIALIZER = legacySerializer();
+
+    private final JavaType javaType;
+    private final byte format;
+
+    private TypedRedisSerializer(JavaType javaType, byte format) {
+        this.javaType = javaType;
+        this.format = format;
+    }
+
+    public static <T> TypedRedisSerializer<T> json(Class<T> type) {
+        return new TypedRedisSerializer<>(TypeFactory.defaultInstance().constructType(type), FORMAT_JSON);
+    }
+
+    public static <T> TypedRedisSerializer<T> smile(Class<T> type) {
+        return new TypedRedisSerializer<>(TypeFactory.defaultInstance().constructType(type), FORMAT_SMILE);
+    }
+
+    public static <T> TypedRedisSerializer<T> of(String format, Class<T> type) {
+        return SMILE.equalsIgnoreCase(format) ? smile(type) : json(type);
+    }
+
+    /**
+     * 根据格式名称和 Jackson 规范类型名称创建序列化器，如 java.util.List&lt;com.dc3.common.model.Point&gt;
+     *
+     * @param format        json or smile
+     * @param canonicalType Canonical Type Name
+     * @return TypedRedisSerializer
+     */
+    public static TypedRedisSerializer<Object> of(String format, String canonicalType) {
+        JavaType javaType = TypeFactory.defaultInstance().constructFromCanonical(canonicalType);
+        return new TypedRedisSerializer<>(javaType, SMILE.equalsIgnoreCase(format) ? FORMAT_SMILE : FORMAT_JSON);
+    }
+
+    /**
+     * 原有的 NON_FINAL 默认类型 JSON 序列化器，未配置类型的缓存继续使用
+     *
+     * @return Jackson2JsonRedisSerializer
+     */
+    public static Jackson2JsonRedisSerializer<Object> legacy() {
+        return LEGACY_SERIALIZER;
+    }
+
+    private static Jackson2JsonRedisSerializer<Object> legacySerializer() {
+        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
+        // 解决查询缓存转换异常的问题
+        ObjectMapper om = new ObjectMapper();
+        om.activateDefaultTyping(om.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL);
+        jackson2JsonRedisSerializer.setObjectMapper(om);
+        return jackson2JsonRedisSerializer;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (null == value) {
+            return new byte[0];
+        }
+        try {
+            byte[] body = mapper(format).writeValueAsBytes(value);
+            byte[] bytes = new byte[body.length + 2];
+            bytes[0] = MAGIC;
+            bytes[1] = format;
+            System.arraycopy(body, 0, bytes, 2, body.length);
+            return bytes;
+        } catch (Exception e) {
+            throw new SerializationException("Could not write " + javaType + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (null == bytes || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (bytes.length > 1 && bytes[0] == MAGIC) {
+                return mapper(bytes[1]).readValue(bytes, 2, bytes.length - 2, javaType);
+            }
+            Object value = LEGACY_SERIALIZER.deserialize(bytes);
+            if (null == value || javaType.getRawClass().isInstance(value) && !javaType.isContainerType()) {
+                return cast(value);
+            }
+            return JSON_MAPPER.convertValue(value, javaType);
+        } catch (Exception e) {
+            throw new SerializationException("Could not read " + javaType + ": " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object value) {
+        return (T) value;
+    }
+
+    private static ObjectMapper mapper(byte format) {
+        return format == FORMAT_SMILE ? SMILE_MAPPER : JSON_MAPPER;
+    }
+
+    private static ObjectMapper typedMapper(ObjectMapper objectMapper) {
+        return objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
@@ -13,21 +13,27 @@
 
 package com.dc3.common.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.dc3.common.cache.DecoratingCacheManager;
+import com.dc3.common.cache.StableKeyGenerator;
+import com.dc3.common.cache.TypedRedisSerializer;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Redis Cache
@@ -40,6 +46,33 @@ public class RedisCacheConfig {
     @Setter
     private Duration timeToLive;
 
+    /**
+     * 进程内一级缓存每个缓存名称的最大条目数，小于等于 0 时不启用一级缓存
+     * <p>
+     * 默认不启用，一级缓存向所有调用方返回同一个对象实例，失效消息丢失时最长返回 localTimeToLive 之前的数据，
+     * 需要的服务在配置文件中通过 spring.cache.redis.local-maximum-size 单独启用
+     */
+    @Setter
+    private long localMaximumSize = 0;
+
+    /**
+     * 进程内一级缓存的失效时间，作为 pub/sub 失效消息丢失时的兜底
+     */
+    @Setter
+    private Duration localTimeToLive = Duration.ofMinutes(5);
+
+    /**
+     * 按类型序列化的缓存格式，json 或 smile
+     */
+    @Setter
+    private String valueFormat = TypedRedisSerializer.JSON;
+
+    /**
+     * 按类型序列化的缓存，map(缓存名称, Jackson 规范类型名称)，未配置的缓存使用默认类型 JSON
+     */
+    @Setter
+    private Map<String, String> valueTypes = new HashMap<>(16);
+
     /**
      * 自定义缓存 Key 生成策略
      *
@@ -51,44 +84,57 @@ public class RedisCacheConfig {
     }
 
     /**
-     * 自定义缓存 Key 生成策略
+     * 自定义缓存 Key 生成策略，按参数的规范值生成定长哈希 Key
      *
      * @return KeyGenerator
      */
     @Bean
     public KeyGenerator commonKeyGenerator() {
-        return (target, method, params) -> {
-            StringBuilder sb = new StringBuilder();
-            sb.append(target.getClass().getName());
-            sb.append(".");
-            sb.append(method.getName());
-            sb.append("#");
-            for (Object obj : params) {
-                sb.append(obj.toString());
-            }
-            return sb.toString();
-        };
+        return new StableKeyGenerator();
     }
 
     /**
      * 自定义 RedisCacheManager 类，主要是设置序列化，解决乱码问题
+     * <p>
+     * 外层由 DecoratingCacheManager 增加进程内一级缓存、缓存未命中合并加载以及列表类缓存的代数失效
      *
      * @param factory RedisConnectionFactory
      * @return CacheManager
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory factory) {
-        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
-        // 解决查询缓存转换异常的问题
-        ObjectMapper om = new ObjectMapper();
-        om.activateDefaultTyping(om.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL);
-        jackson2JsonRedisSerializer.setObjectMapper(om);
+    public DecoratingCacheManager cacheManager(RedisConnectionFactory factory) {
         // 配置序列化（解决乱码的问题）
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jackson2JsonRedisSerializer))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(TypedRedisSerializer.legacy()))
                 .disableCachingNullValues().entryTtl(timeToLive);
-        return RedisCacheManager.builder(factory).cacheDefaults(config).build();
+
+        // 配置了类型的缓存不再写入类名，读取时兼容原有数据
+        Map<String, RedisCacheConfiguration> configMap = new HashMap<>(16);
+        valueTypes.forEach((name, type) -> configMap.put(name, config.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(TypedRedisSerializer.of(valueFormat, type))
+        )));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(factory).cacheDefaults(config).withInitialCacheConfigurations(configMap).build();
+        redisCacheManager.afterPropertiesSet();
+        return new DecoratingCacheManager(redisCacheManager, new StringRedisTemplate(factory), localMaximumSize, localTimeToLive);
+    }
+
+    /**
+     * 订阅其他实例广播的一级缓存失效消息
+     *
+     * @param factory      RedisConnectionFactory
+     * @param cacheManager DecoratingCacheManager
+     * @return RedisMessageListenerContainer
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheMessageListenerContainer(RedisConnectionFactory factory, DecoratingCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.receive(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(DecoratingCacheManager.CACHE_TOPIC)
+        );
+        return container;
     }
 
 }
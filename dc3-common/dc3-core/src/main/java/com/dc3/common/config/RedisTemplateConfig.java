@@ -13,7 +13,7 @@
 
 package com.dc3.common.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.dc3.common.cache.TypedRedisSerializer;
 import lombok.AllArgsConstructor;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
@@ -39,11 +39,8 @@ public class RedisTemplateConfig {
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate() {
-        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
-        // 解决查询缓存转换异常的问题
-        ObjectMapper om = new ObjectMapper();
-        om.activateDefaultTyping(om.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL);
-        jackson2JsonRedisSerializer.setObjectMapper(om);
+        // 默认使用 NON_FINAL 默认类型 JSON，需要按类型序列化的调用通过 RedisUtil 传入 RedisSerializer
+        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = TypedRedisSerializer.legacy();
         // 配置序列化（解决乱码的问题）
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setKeySerializer(new StringRedisSerializer());
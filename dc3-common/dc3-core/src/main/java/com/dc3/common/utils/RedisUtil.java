@@ -17,14 +17,17 @@ import cn.hutool.core.convert.Convert;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * @author pnoker
@@ -36,6 +39,8 @@ public class RedisUtil {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    private final StringRedisSerializer keySerializer = new StringRedisSerializer();
+
     /**
      * 添加 Key 缓存
      *
@@ -80,15 +85,81 @@ public class RedisUtil {
     }
 
     /**
-     * 批量添加 Key 缓存,并设置失效时间
+     * 批量添加 Key 缓存,并设置失效时间，在一次管道中完成
      *
      * @param valueMap     Map<String, Object>
      * @param expireMillis Map<String, Long>
      */
+    @SuppressWarnings("unchecked")
     public void setKey(Map<String, Object> valueMap, Map<String, Long> expireMillis) {
+        setKey(valueMap, expireMillis, (RedisSerializer<Object>) redisTemplate.getValueSerializer());
+    }
+
+    /**
+     * 使用指定的序列化器添加 Key 缓存
+     *
+     * @param key        String key
+     * @param value      T
+     * @param serializer RedisSerializer
+     */
+    public <T> void setKey(String key, T value, RedisSerializer<T> serializer) {
+        setKey(key, value, 0, TimeUnit.MILLISECONDS, serializer);
+    }
+
+    /**
+     * 使用指定的序列化器添加 Key 缓存,并设置失效时间
+     *
+     * @param key        String key
+     * @param value      T
+     * @param time       Time，小于等于 0 时不失效
+     * @param unit       TimeUnit
+     * @param serializer RedisSerializer
+     */
+    public <T> void setKey(String key, T value, long time, TimeUnit unit, RedisSerializer<T> serializer) {
+        try {
+            byte[] rawKey = keySerializer.serialize(key);
+            byte[] rawValue = serializer.serialize(value);
+            if (null == rawKey || null == rawValue) {
+                return;
+            }
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                if (time > 0) {
+                    connection.pSetEx(rawKey, unit.toMillis(time), rawValue);
+                } else {
+                    connection.set(rawKey, rawValue);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 使用指定的序列化器批量添加 Key 缓存,并设置失效时间，在一次管道中完成
+     *
+     * @param valueMap     Map<String, T>
+     * @param expireMillis Map<String, Long>
+     * @param serializer   RedisSerializer
+     */
+    public <T> void setKey(Map<String, T> valueMap, Map<String, Long> expireMillis, RedisSerializer<T> serializer) {
         try {
-            redisTemplate.opsForValue().multiSet(valueMap);
-            setExpire(expireMillis);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                valueMap.forEach((key, value) -> {
+                    byte[] rawKey = keySerializer.serialize(key);
+                    byte[] rawValue = serializer.serialize(value);
+                    if (null == rawKey || null == rawValue) {
+                        return;
+                    }
+                    Long expire = null != expireMillis ? expireMillis.get(key) : null;
+                    if (null != expire && expire > 0) {
+                        connection.pSetEx(rawKey, expire, rawValue);
+                    } else {
+                        connection.set(rawKey, rawValue);
+                    }
+                });
+                return null;
+            });
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
@@ -104,6 +175,30 @@ public class RedisUtil {
     public <T> T getKey(String key, Class<T> type) {
         try {
             Object object = redisTemplate.opsForValue().get(key);
+            if (null == object || type.isInstance(object)) {
+                return type.cast(object);
+            }
+            return Convert.convert(type, object);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * 设置 Key 缓存并返回原有的值
+     *
+     * @param key   String key
+     * @param value Object
+     * @param <T>   T
+     * @return 原有的值，不存在时返回 null
+     */
+    public <T> T getAndSetKey(String key, Object value, Class<T> type) {
+        try {
+            Object object = redisTemplate.opsForValue().getAndSet(key, value);
+            if (null == object || type.isInstance(object)) {
+                return type.cast(object);
+            }
             return Convert.convert(type, object);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -121,6 +216,9 @@ public class RedisUtil {
     public <T> List<T> getKey(List<String> keys, Class<T> type) {
         try {
             List<Object> objects = redisTemplate.opsForValue().multiGet(keys);
+            if (null != objects && objects.stream().allMatch(object -> null == object || type.isInstance(object))) {
+                return objects.stream().map(type::cast).collect(Collectors.toList());
+            }
             return Convert.toList(type, objects);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
@@ -128,6 +226,52 @@ public class RedisUtil {
         return null;
     }
 
+    /**
+     * 使用指定的序列化器获取 Key 缓存
+     *
+     * @param key        String key
+     * @param serializer RedisSerializer
+     * @param <T>        T
+     * @return T
+     */
+    public <T> T getKey(String key, RedisSerializer<T> serializer) {
+        try {
+            byte[] rawKey = keySerializer.serialize(key);
+            if (null == rawKey) {
+                return null;
+            }
+            byte[] rawValue = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey));
+            return serializer.deserialize(rawValue);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * 使用指定的序列化器批量获取 Key 缓存，不存在的 Key 对应位置为 null
+     *
+     * @param keys       String key array
+     * @param serializer RedisSerializer
+     * @param <T>        T
+     * @return T Array
+     */
+    public <T> List<T> getKey(List<String> keys, RedisSerializer<T> serializer) {
+        try {
+            byte[][] rawKeys = keys.stream().map(keySerializer::serialize).toArray(byte[][]::new);
+            List<byte[]> rawValues = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(rawKeys));
+            if (null == rawValues) {
+                return null;
+            }
+            List<T> values = new ArrayList<>(rawValues.size());
+            rawValues.forEach(rawValue -> values.add(serializer.deserialize(rawValue)));
+            return values;
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+        return null;
+    }
+
     /**
      * 删除 Key 缓存
      *
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.cache;
+
+import com.baomidou.mybatisplus.core.metadata.OrderItem;
+import com.dc3.common.bean.Pages;
+import com.dc3.common.dto.PointDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StableKeyGenerator 与原 commonKeyGenerator 的对比测试
+ *
+ * @author pnoker
+ */
+class StableKeyGeneratorTest {
+
+    /**
+     * 原 commonKeyGenerator：类全名、方法名与参数 toString 拼接
+     */
+    private final KeyGenerator legacy = (target, method, params) -> {
+        StringBuilder sb = new StringBuilder();
+        sb.append(target.getClass().getName());
+        sb.append(".");
+        sb.append(method.getName());
+        sb.append("#");
+        for (Object obj : params) {
+            sb.append(obj.toString());
+        }
+        return sb.toString();
+    };
+
+    private final KeyGenerator stable = new StableKeyGenerator();
+
+    private final Method method = PointService.method();
+
+    @Test
+    void pointDtoWithPagesKey() {
+        PointService target = new PointService();
+        String legacyKey = (String) legacy.generate(target, method, pointDto(3, "temperature"));
+        String stableKey = (String) stable.generate(target, method, pointDto(3, "temperature"));
+
+        assertEquals(stableKey, stable.generate(target, method, pointDto(3, "temperature")));
+        assertEquals("PointService.list:".length() + 32, stableKey.length());
+        assertTrue(stableKey.length() < legacyKey.length());
+    }
+
+    @Test
+    void distinctArgumentsDoNotCollide() {
+        PointService target = new PointService();
+        Set<Object> keys = new HashSet<>();
+        for (int current = 1; current <= 100; current++) {
+            for (int i = 0; i < 50; i++) {
+                keys.add(stable.generate(target, method, pointDto(current, "point-" + i)));
+            }
+        }
+        assertEquals(100 * 50, keys.size());
+
+        PointDto withoutPage = pointDto(1, "temperature");
+        withoutPage.setPage(null);
+        assertNotEquals(stable.generate(target, method, pointDto(1, "temperature")), stable.generate(target, method, withoutPage));
+        assertNotEquals(stable.generate(target, method, "ab", "c"), stable.generate(target, method, "a", "bc"));
+    }
+
+    @Test
+    void stableAcrossHashOrdering() {
+        PointService target = new PointService();
+        List<String> names = new ArrayList<>(64);
+        for (int i = 0; i < 64; i++) {
+            names.add("point-" + i);
+        }
+
+        Set<String> small = new HashSet<>(names);
+        Set<String> large = new HashSet<>(1024);
+        Map<String, Long> smallMap = new HashMap<>(4);
+        Map<String, Long> largeMap = new HashMap<>(1024);
+        List<String> reversed = new ArrayList<>(names);
+        Collections.reverse(reversed);
+        for (String name : reversed) {
+            large.add(name);
+            largeMap.put(name, (long) name.length());
+        }
+        for (String name : names) {
+            smallMap.put(name, (long) name.length());
+        }
+
+        assertNotEquals(new ArrayList<>(small), new ArrayList<>(large));
+        assertEquals(stable.generate(target, method, small), stable.generate(target, method, large));
+        assertEquals(stable.generate(target, method, smallMap), stable.generate(target, method, largeMap));
+        assertNotEquals(stable.generate(target, method, small), stable.generate(target, method, new HashSet<>(names.subList(1, 64))));
+    }
+
+    @Test
+    void selfReferenceDoesNotOverflow() {
+        PointService target = new PointService();
+        List<Object> list = new ArrayList<>(2);
+        list.add("point");
+        list.add(list);
+        Map<String, Object> map = new HashMap<>(4);
+        map.put("self", map);
+        map.put("list", list);
+
+        assertEquals(stable.generate(target, method, list), stable.generate(target, method, list));
+        assertNotNull(stable.generate(target, method, map));
+    }
+
+    private PointDto pointDto(long current, String name) {
+        Pages pages = new Pages().setCurrent(current).setSize(50);
+        pages.getOrders().add(OrderItem.desc("create_time"));
+        PointDto pointDto = new PointDto().setPage(pages);
+        pointDto.setName(name).setType("float").setProfileId(1000L).setTenantId(-1L).setEnable(true);
+        return pointDto;
+    }
+
+    static class PointService {
+        public void list(PointDto pointDto) {
+        }
+
+        static Method method() {
+            try {
+                return PointService.class.getMethod("list", PointDto.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+}
@@ -17,20 +17,25 @@ import com.dc3.common.bean.R;
 import com.dc3.common.constant.Common;
 import com.dc3.common.bean.point.PointValue;
 import com.dc3.common.sdk.bean.command.CmdParameter;
+import com.dc3.common.sdk.bean.command.CmdResult;
+import com.dc3.common.sdk.bean.schedule.DeviceCycle;
 import com.dc3.common.sdk.service.DriverCommandService;
+import com.dc3.common.sdk.service.DriverPollService;
+import com.dc3.common.sdk.service.DriverQueueService;
 import com.dc3.common.valid.Read;
+import com.dc3.common.valid.Write;
 import com.dc3.common.valid.ValidatableList;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 /**
  * 驱动操作指令 Rest Api
@@ -44,46 +49,70 @@ public class DriverCommandApi {
 
     @Resource
     private DriverCommandService driverCommandService;
+    @Resource
+    private DriverQueueService driverQueueService;
+    @Resource
+    private DriverPollService driverPollService;
 
     /**
-     * 读
+     * 读，按设备分组并发执行，超时后返回部分结果
      *
      * @param cmdParameters list<{deviceId,pointId}>
      * @return R<List < PointValue>>
      */
     @PostMapping("/read")
     public R<List<PointValue>> readPoint(@Validated(Read.class) @RequestBody ValidatableList<CmdParameter> cmdParameters) {
-        List<PointValue> pointValues = new ArrayList<>(16);
         try {
             if (cmdParameters.size() > Common.Driver.MAX_REQUEST_SIZE) {
                 return R.fail("point request size are limited to " + Common.Driver.MAX_REQUEST_SIZE);
             }
-            cmdParameters.forEach(cmdParameter -> {
-                PointValue pointValue = driverCommandService.read(cmdParameter.getDeviceId(), cmdParameter.getPointId());
-                Optional.ofNullable(pointValue).ifPresent(pointValues::add);
-            });
+            List<PointValue> pointValues = driverCommandService.read(cmdParameters);
+            if (pointValues.size() < cmdParameters.size()) {
+                return R.ok(pointValues, "Partial result, " + pointValues.size() + " of " + cmdParameters.size() + " points read");
+            }
+            return R.ok(pointValues);
         } catch (Exception e) {
             return R.fail(e.getMessage());
         }
-        return R.ok(pointValues);
     }
 
     /**
-     * 写
+     * 写，按设备分组并发执行，同一位号的写操作保持请求顺序
      *
      * @param cmdParameters list<{deviceId,pointId,stringValue}>
-     * @return R<Boolean>
+     * @return R<List < CmdResult>> 逐项执行结果
      */
     @PostMapping("/write")
-    public R<Boolean> writePoint(@Validated(Read.class) @RequestBody ValidatableList<CmdParameter> cmdParameters) {
+    public R<List<CmdResult>> writePoint(@Validated(Write.class) @RequestBody ValidatableList<CmdParameter> cmdParameters) {
         try {
             if (cmdParameters.size() > Common.Driver.MAX_REQUEST_SIZE) {
                 return R.fail("point request size are limited to " + Common.Driver.MAX_REQUEST_SIZE);
             }
-            cmdParameters.forEach(cmdParameter -> driverCommandService.write(cmdParameter.getDeviceId(), cmdParameter.getPointId(), cmdParameter.getValue()));
+            List<CmdResult> cmdResults = driverCommandService.write(cmdParameters);
+            long failed = cmdResults.stream().filter(cmdResult -> !cmdResult.getSuccess()).count();
+            return failed > 0 ? R.ok(cmdResults, failed + " of " + cmdResults.size() + " points write failed") : R.ok(cmdResults);
         } catch (Exception e) {
             return R.fail(e.getMessage());
         }
-        return R.ok();
+    }
+
+    /**
+     * 设备指令队列深度
+     *
+     * @return R<Map < Long, Integer>> Device Id -> Queue Depth
+     */
+    @GetMapping("/queue")
+    public R<Map<Long, Integer>> queueDepth() {
+        return R.ok(driverQueueService.depth());
+    }
+
+    /**
+     * 设备采集周期统计，包含跳过以及延迟的采集次数
+     *
+     * @return R<Map < Long, DeviceCycle>> Device Id -> DeviceCycle
+     */
+    @GetMapping("/poll")
+    public R<Map<Long, DeviceCycle>> pollCycle() {
+        return R.ok(driverPollService.cycles());
     }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.bean.command;
+
+/**
+ * 设备指令优先级，数值越小越优先执行
+ *
+ * @author pnoker
+ */
+public enum CmdPriority {
+    /**
+     * 控制写指令
+     */
+    WRITE,
+
+    /**
+     * 接口发起的读指令
+     */
+    READ,
+
+    /**
+     * 周期采集的读指令，同一位号尚未执行的采集会被合并
+     */
+    POLL
+}
@@ -11,17 +11,16 @@
  * limitations under the License.
  */
 
-package com.dc3.center.auth.bean;
+
+package com.dc3.common.sdk.bean.command;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
-import java.util.Date;
-
 /**
- * 用户登录限制
+ * 写指令的逐项执行结果
  *
  * @author pnoker
  */
@@ -29,14 +28,9 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
-public class UserLimit {
-    /**
-     * 登录验证错误次数
-     */
-    private Integer times;
-
-    /**
-     * 限制失效时间
-     */
-    private Date expireTime;
+public class CmdResult {
+    private Long deviceId;
+    private Long pointId;
+    private Boolean success;
+    private String message;
 }
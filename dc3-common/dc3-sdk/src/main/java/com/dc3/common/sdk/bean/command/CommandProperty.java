@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.bean.command;
+
+import lombok.Data;
+
+/**
+ * 驱动配置文件 driver.command 字段内容，读写指令的并发控制
+ *
+ * @author pnoker
+ */
+@Data
+public class CommandProperty {
+    /**
+     * 单个设备同时执行的指令数量，默认串行访问设备
+     */
+    private Integer deviceConcurrency = 1;
+
+    /**
+     * 单个设备每次占用 I/O 线程时最多连续执行的指令数量，之后让出线程重新排队
+     */
+    private Integer drainBatch = 16;
+
+    /**
+     * 一次读写指令的整体超时时间，毫秒，超时后返回已完成的部分结果
+     */
+    private Long timeout = 10000L;
+}
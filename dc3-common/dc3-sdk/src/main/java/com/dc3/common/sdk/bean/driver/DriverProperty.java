@@ -16,6 +16,7 @@ package com.dc3.common.sdk.bean.driver;
 import com.dc3.common.constant.Common;
 import com.dc3.common.model.DriverAttribute;
 import com.dc3.common.model.PointAttribute;
+import com.dc3.common.sdk.bean.command.CommandProperty;
 import com.dc3.common.sdk.bean.schedule.ScheduleProperty;
 import com.dc3.common.valid.Insert;
 import com.dc3.common.valid.Update;
@@ -48,6 +49,12 @@ public class DriverProperty {
     private String type = Common.Driver.Type.DRIVER;
     private String description;
     private ScheduleProperty schedule;
+
+    /**
+     * 分块同步驱动元数据时每块包含的设备数量，为空或小于 1 时一次性同步全部元数据
+     */
+    private Integer metadataChunkSize;
+    private CommandProperty command = new CommandProperty();
     private List<DriverAttribute> driverAttribute;
     private List<PointAttribute> pointAttribute;
 }
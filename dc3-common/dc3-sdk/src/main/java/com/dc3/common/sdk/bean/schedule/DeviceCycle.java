@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.bean.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * 设备采集周期统计
+ *
+ * @author pnoker
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+public class DeviceCycle {
+    /**
+     * 参与周期采集的位号数量
+     */
+    private Integer points;
+
+    /**
+     * 已下发的采集次数
+     */
+    private Long polls;
+
+    /**
+     * 跳过的采集次数，位号到达采集时间时上一次采集仍未完成，或者落后超过一个采集周期
+     */
+    private Long skipped;
+
+    /**
+     * 延迟下发的采集次数，即下发时间晚于采集时间超过一个时间轮精度
+     */
+    private Long late;
+
+    /**
+     * 最近一次跳过采集的时间，毫秒
+     */
+    private Long lastSkipTime;
+}
@@ -13,10 +13,14 @@
 
 package com.dc3.common.sdk.bean.schedule;
 
-import lombok.AllArgsConstructor;
+import com.dc3.common.exception.ServiceException;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.SneakyThrows;
+import org.quartz.CronExpression;
+
+import java.util.Date;
 
 /**
  * @author pnoker
@@ -24,8 +28,36 @@ import lombok.Setter;
 @Setter
 @Getter
 @NoArgsConstructor
-@AllArgsConstructor
 public class ScheduleConfig {
     private Boolean enable = false;
     private String corn = "* */1 * * * ?";
+
+    /**
+     * 调度周期，毫秒，为空时取 corn 相邻两次触发的间隔
+     */
+    private Long interval;
+
+    public ScheduleConfig(Boolean enable, String corn) {
+        this.enable = enable;
+        this.corn = corn;
+    }
+
+    /**
+     * 获取调度周期，未配置 interval 时取 corn 相邻两次触发的间隔
+     *
+     * @return 调度周期，毫秒
+     */
+    @SneakyThrows
+    public long period() {
+        if (null != interval && interval > 0) {
+            return interval;
+        }
+        CronExpression cronExpression = new CronExpression(corn);
+        Date next = cronExpression.getNextValidTimeAfter(new Date());
+        Date after = null != next ? cronExpression.getNextValidTimeAfter(next) : null;
+        if (null == after) {
+            throw new ServiceException("The schedule corn does not repeat: " + corn);
+        }
+        return after.getTime() - next.getTime();
+    }
 }
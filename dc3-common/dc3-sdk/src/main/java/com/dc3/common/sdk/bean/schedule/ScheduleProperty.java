@@ -27,4 +27,9 @@ public class ScheduleProperty {
     private ScheduleConfig read;
     private ScheduleConfig custom;
     private ScheduleConfig status;
+
+    /**
+     * 设备批量心跳的状态超时时间为 custom 调度周期的倍数，连续错过该数量的心跳后设备离线
+     */
+    private Integer heartbeatMultiple = 5;
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 设备 I/O 执行器
+ * <p>
+ * 虚拟线程模式下每个任务运行在独立的虚拟线程上，并发数量由信号量限制；
+ * 平台线程模式下任务交给设备 I/O 专用的线程池，并发数量由线程池以及队列大小限制，该线程池满时直接拒绝。
+ * 两种模式下 {@link #tryExecute(Runnable)} 均不会阻塞调用线程。
+ *
+ * @author pnoker
+ */
+@Slf4j
+public class DriverExecutor {
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+    private final ExecutorService virtualExecutor;
+    private final Semaphore permits;
+
+    /**
+     * 平台线程模式
+     *
+     * @param threadPoolExecutor 设备 I/O 专用的 ThreadPoolExecutor，拒绝策略必须为 AbortPolicy
+     */
+    public DriverExecutor(ThreadPoolExecutor threadPoolExecutor) {
+        this.threadPoolExecutor = threadPoolExecutor;
+        this.virtualExecutor = null;
+        this.permits = null;
+    }
+
+    /**
+     * 虚拟线程模式
+     *
+     * @param virtualExecutor 每个任务一个虚拟线程的 ExecutorService
+     * @param concurrency     最大并发数量
+     */
+    public DriverExecutor(ExecutorService virtualExecutor, int concurrency) {
+        this.threadPoolExecutor = null;
+        this.virtualExecutor = virtualExecutor;
+        this.permits = new Semaphore(Math.max(1, concurrency));
+    }
+
+    public boolean isVirtual() {
+        return null != virtualExecutor;
+    }
+
+    /**
+     * 尝试执行任务，没有可用的执行名额时直接返回 false
+     *
+     * @param task Runnable
+     * @return 是否已提交执行
+     */
+    public boolean tryExecute(Runnable task) {
+        if (null != virtualExecutor) {
+            if (!permits.tryAcquire()) {
+                return false;
+            }
+            try {
+                virtualExecutor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                log.warn("Driver virtual thread executor rejected: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        try {
+            threadPoolExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 关闭执行器
+     */
+    public void shutdown() {
+        if (null != virtualExecutor) {
+            virtualExecutor.shutdown();
+        } else {
+            threadPoolExecutor.shutdown();
+        }
+    }
+}
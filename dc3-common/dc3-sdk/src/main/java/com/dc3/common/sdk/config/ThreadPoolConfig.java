@@ -38,6 +38,12 @@ public class ThreadPoolConfig {
 
     private final AtomicInteger threadPoolAtomic = new AtomicInteger(1);
     private final AtomicInteger scheduledThreadPoolAtomic = new AtomicInteger(1);
+    private final AtomicInteger driverThreadPoolAtomic = new AtomicInteger(1);
+
+    /**
+     * 虚拟线程执行方式
+     */
+    private static final String VIRTUAL_EXECUTOR = "virtual";
 
     /**
      * LinkedBlockingQueue ThreadPoolExecutor
@@ -51,18 +57,61 @@ public class ThreadPoolConfig {
                 TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(thread.getMaximumPoolSize() * 2),
                 (r) -> new Thread(r, "[T]" + thread.getPrefix() + threadPoolAtomic.getAndIncrement()),
-                (r, e) -> new BlockingRejectedExecutionHandler());
+                new BlockingRejectedExecutionHandler());
     }
 
     /**
      * ScheduledThreadPoolExecutor ThreadPoolExecutor
+     * <p>
+     * 队列无界，只在关闭后拒绝任务，使用默认的 AbortPolicy
      */
     @Bean
     public ScheduledThreadPoolExecutor scheduledThreadPoolExecutor() {
         return new ScheduledThreadPoolExecutor(
                 thread.getCorePoolSize(),
-                (r) -> new Thread(r, "[S]" + thread.getPrefix() + scheduledThreadPoolAtomic.getAndIncrement()),
-                (r, e) -> new BlockingRejectedExecutionHandler());
+                (r) -> new Thread(r, "[S]" + thread.getPrefix() + scheduledThreadPoolAtomic.getAndIncrement()));
+    }
+
+    /**
+     * 设备 I/O 执行器，server.thread.executor 为 virtual 且运行在 JDK 21 及以上时使用虚拟线程，
+     * 否则使用独立的平台线程池，该线程池队列满时直接拒绝，不会阻塞提交线程
+     */
+    @Bean
+    public DriverExecutor driverExecutor() {
+        if (VIRTUAL_EXECUTOR.equalsIgnoreCase(thread.getExecutor())) {
+            ExecutorService virtualExecutor = virtualThreadExecutor();
+            if (null != virtualExecutor) {
+                int concurrency = thread.getConcurrency() > 0 ? thread.getConcurrency() : thread.getMaximumPoolSize();
+                log.info("Driver device I/O runs on virtual threads, concurrency: {}", concurrency);
+                return new DriverExecutor(virtualExecutor, concurrency);
+            }
+            log.warn("Virtual threads require JDK 21 or later, current: {}, fallback to platform thread pool", System.getProperty("java.version"));
+        }
+        return new DriverExecutor(new ThreadPoolExecutor(
+                thread.getCorePoolSize(),
+                thread.getMaximumPoolSize(),
+                thread.getKeepAliveTime(),
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(thread.getMaximumPoolSize() * 2),
+                (r) -> new Thread(r, "[D]" + thread.getPrefix() + driverThreadPoolAtomic.getAndIncrement()),
+                new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    /**
+     * 通过反射创建每个任务一个虚拟线程的 ExecutorService，保持在 JDK 8 下可编译运行
+     *
+     * @return ExecutorService，当前 JDK 不支持虚拟线程时返回 null
+     */
+    private ExecutorService virtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "[V]" + thread.getPrefix(), 1L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
     }
 
     private static class BlockingRejectedExecutionHandler implements RejectedExecutionHandler {
@@ -14,6 +14,10 @@
 package com.dc3.common.sdk.service;
 
 import com.dc3.common.bean.point.PointValue;
+import com.dc3.common.sdk.bean.command.CmdParameter;
+import com.dc3.common.sdk.bean.command.CmdResult;
+
+import java.util.List;
 
 /**
  * @author pnoker
@@ -39,4 +43,25 @@ public interface DriverCommandService {
      */
     Boolean write(Long deviceId, Long pointId, String value);
 
+    /**
+     * 批量读操作
+     * <p>
+     * 按设备分组并发执行，单个设备的并发数以及整体超时时间由 driver.command 配置，
+     * 超时后返回已经读取成功的部分结果
+     *
+     * @param cmdParameters Command Parameter Array
+     * @return PointValue Array
+     */
+    List<PointValue> read(List<CmdParameter> cmdParameters);
+
+    /**
+     * 批量写操作
+     * <p>
+     * 按设备分组并发执行，同一位号的写操作保持请求中的先后顺序
+     *
+     * @param cmdParameters Command Parameter Array
+     * @return 与请求顺序一致的逐项执行结果
+     */
+    List<CmdResult> write(List<CmdParameter> cmdParameters);
+
 }
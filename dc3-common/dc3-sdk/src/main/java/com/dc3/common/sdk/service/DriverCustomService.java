@@ -16,7 +16,10 @@ package com.dc3.common.sdk.service;
 import com.dc3.common.model.Device;
 import com.dc3.common.model.Point;
 import com.dc3.common.bean.driver.AttributeInfo;
+import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -25,6 +28,7 @@ import java.util.Map;
  * <ol>
  * <li>{@link DriverCustomService#initial} 初始化操作，需要根据不同的驱动实现该功能</li>
  * <li>{@link DriverCustomService#read} 读操作，需要根据不同的驱动实现该功能</li>
+ * <li>{@link DriverCustomService#batchRead} 批量读操作，支持一次读取多个位号的驱动可以覆盖该方法</li>
  * <li>{@link DriverCustomService#write} 写操作，需要根据不同的驱动实现该功能</li>
  * <li>{@link DriverCustomService#schedule} 调度操作，需要根据不同的驱动实现该功能</li>
  * </ol>
@@ -49,6 +53,31 @@ public interface DriverCustomService {
      */
     String read(Map<String, AttributeInfo> driverInfo, Map<String, AttributeInfo> pointInfo, Device device, Point point) throws Exception;
 
+    /**
+     * Batch Read Operation
+     * <p>
+     * 读取同一设备的多个位号，默认逐个调用 {@link DriverCustomService#read}，
+     * 读取失败的位号记录日志，不包含在返回结果中
+     *
+     * @param driverInfo   Driver Attribute Info
+     * @param pointInfoMap Point Attribute Info Map, Point Id -> Point Attribute Info
+     * @param device       Device
+     * @param points       Point Array
+     * @return Point Id -> String Value
+     */
+    default Map<Long, String> batchRead(Map<String, AttributeInfo> driverInfo, Map<Long, Map<String, AttributeInfo>> pointInfoMap, Device device, List<Point> points) {
+        Map<Long, String> values = new HashMap<>(points.size() * 2);
+        for (Point point : points) {
+            try {
+                values.put(point.getId(), read(driverInfo, pointInfoMap.get(point.getId()), device, point));
+            } catch (Exception e) {
+                // 单个位号读取失败不影响其他位号
+                LoggerFactory.getLogger(DriverCustomService.class).warn("Read device({}) point({}) failed: {}", device.getId(), point.getId(), e.getMessage());
+            }
+        }
+        return values;
+    }
+
     /**
      * Write Operation
      *
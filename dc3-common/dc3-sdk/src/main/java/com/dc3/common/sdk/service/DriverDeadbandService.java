@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.service;
+
+import com.dc3.common.bean.point.PointValue;
+
+import java.util.List;
+
+/**
+ * 位号值死区过滤服务接口
+ * <p>
+ * 位号配置了死区或者最长静默时间时按例外上报：只有变化量超过死区，或者超过最长静默时间未上报的位号值才会发送，
+ * 未配置时每次读取的位号值都会发送
+ *
+ * @author pnoker
+ */
+public interface DriverDeadbandService {
+
+    /**
+     * 判断位号值是否需要上报，需要上报时同时记录为该位号的上次上报值
+     *
+     * @param pointValue PointValue
+     * @return 是否需要上报
+     */
+    boolean report(PointValue pointValue);
+
+    /**
+     * 过滤出需要上报的位号值
+     *
+     * @param pointValues PointValue Array
+     * @return 需要上报的 PointValue Array
+     */
+    List<PointValue> report(List<PointValue> pointValues);
+
+    /**
+     * 删除设备全部位号的上次上报值，设备删除或更新时调用
+     *
+     * @param deviceId Device Id
+     */
+    void removeDevice(Long deviceId);
+
+    /**
+     * 删除所有设备上该位号的上次上报值，位号删除或更新（例如基础值、倍数变化）时调用
+     *
+     * @param pointId Point Id
+     */
+    void removePoint(Long pointId);
+
+    /**
+     * 删除设备上某个位号的上次上报值，位号配置变化时调用
+     *
+     * @param deviceId Device Id
+     * @param pointId  Point Id
+     */
+    void remove(Long deviceId, Long pointId);
+
+    /**
+     * 删除全部上次上报值，重新同步驱动元数据时调用
+     */
+    void clear();
+
+}
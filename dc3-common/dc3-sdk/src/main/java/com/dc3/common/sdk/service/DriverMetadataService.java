@@ -13,6 +13,7 @@
 
 package com.dc3.common.sdk.service;
 
+import com.dc3.common.bean.driver.DriverMetadataChunk;
 import com.dc3.common.model.*;
 
 /**
@@ -25,6 +26,13 @@ public interface DriverMetadataService {
      */
     void initial();
 
+    /**
+     * 向 DeviceDriver 中应用一块分块同步的驱动元数据
+     *
+     * @param driverMetadataChunk DriverMetadataChunk
+     */
+    void upsertMetadataChunk(DriverMetadataChunk driverMetadataChunk);
+
     /**
      * 向 DeviceDriver 中添加模板
      *
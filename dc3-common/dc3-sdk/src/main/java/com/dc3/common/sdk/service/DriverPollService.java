@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.service;
+
+import com.dc3.common.sdk.bean.schedule.DeviceCycle;
+
+import java.util.Map;
+
+/**
+ * 位号周期采集服务接口
+ * <p>
+ * 每个位号按自身的采集周期放入时间轮，并按设备与位号错开首次采集时间，
+ * 使采集均匀分布在整个周期内，而不是在同一时刻集中下发
+ *
+ * @author pnoker
+ */
+public interface DriverPollService {
+
+    /**
+     * 启动时间轮
+     *
+     * @param interval 默认采集周期，毫秒
+     */
+    void initial(Long interval);
+
+    /**
+     * 按当前驱动元数据同步参与采集的位号，新增位号放入时间轮，已删除的位号移出时间轮
+     */
+    void refresh();
+
+    /**
+     * 获取每个设备的采集周期统计
+     *
+     * @return Device Id -> DeviceCycle
+     */
+    Map<Long, DeviceCycle> cycles();
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.service;
+
+import com.dc3.common.sdk.bean.command.CmdPriority;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 设备指令队列服务接口
+ * <p>
+ * 每个设备一个队列，同一设备最多同时执行 driver.command.device-concurrency 个指令，
+ * 队列中按 {@link CmdPriority} 优先执行写指令
+ *
+ * @author pnoker
+ */
+public interface DriverQueueService {
+
+    /**
+     * 提交设备指令
+     * <p>
+     * {@link CmdPriority#POLL} 指令以 key 去重，同一 key 已有尚未执行的采集时直接返回该采集的结果
+     *
+     * @param deviceId Device Id
+     * @param priority CmdPriority
+     * @param key      去重 Key，通常为 Point Id
+     * @param command  Command
+     * @param <T>      T
+     * @return CompletableFuture，取消尚未执行的指令后该指令不会再执行
+     */
+    <T> CompletableFuture<T> submit(Long deviceId, CmdPriority priority, Long key, Callable<T> command);
+
+    /**
+     * 获取每个设备队列中等待执行的指令数量
+     *
+     * @return Device Id -> Queue Depth
+     */
+    Map<Long, Integer> depth();
+
+}
@@ -13,10 +13,12 @@
 
 package com.dc3.common.sdk.service;
 
+import com.dc3.common.bean.driver.DeviceHeartbeat;
 import com.dc3.common.model.DeviceEvent;
 import com.dc3.common.model.DriverEvent;
 import com.dc3.common.bean.point.PointValue;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -34,6 +36,46 @@ public interface DriverService {
      */
     String convertValue(Long deviceId, Long pointId, String rawValue);
 
+    /**
+     * 将数值类型的位号原始值进行处理和转换，驱动已经得到数值时不需要先转换为字符串
+     *
+     * @param deviceId Device Id
+     * @param pointId  Point Id
+     * @param rawValue Raw Value
+     * @return 按位号 format 格式化后的值
+     */
+    String convertValue(Long deviceId, Long pointId, double rawValue);
+
+    /**
+     * 将整数类型的位号原始值进行处理和转换
+     *
+     * @param deviceId Device Id
+     * @param pointId  Point Id
+     * @param rawValue Raw Value
+     * @return 按位号 format 格式化后的值
+     */
+    String convertValue(Long deviceId, Long pointId, long rawValue);
+
+    /**
+     * 将布尔类型的位号原始值进行处理和转换
+     *
+     * @param deviceId Device Id
+     * @param pointId  Point Id
+     * @param rawValue Raw Value
+     * @return 转换后的值
+     */
+    String convertValue(Long deviceId, Long pointId, boolean rawValue);
+
+    /**
+     * 对数值类型的位号原始值应用 base、multiple 并检查上下限，返回未格式化的数值
+     *
+     * @param deviceId Device Id
+     * @param pointId  Point Id
+     * @param rawValue Raw Value
+     * @return double
+     */
+    double convertNumber(Long deviceId, Long pointId, double rawValue);
+
     /**
      * 发送驱动事件
      *
@@ -67,6 +109,21 @@ public interface DriverService {
      */
     void deviceEventSender(Long deviceId, Long pointId, String type, String content);
 
+    /**
+     * 批量发送设备心跳，一条消息携带全部设备的状态
+     *
+     * @param deviceHeartbeat Device Heartbeat
+     */
+    void deviceHeartbeatSender(DeviceHeartbeat deviceHeartbeat);
+
+    /**
+     * 批量发送设备心跳，设备均为同一状态
+     *
+     * @param deviceIds Device Id Array
+     * @param status    Device Status, ONLINE、OFFLINE、MAINTAIN、FAULT
+     */
+    void deviceHeartbeatSender(Collection<Long> deviceIds, String status);
+
     /**
      * 发送位号值到消息组件
      *
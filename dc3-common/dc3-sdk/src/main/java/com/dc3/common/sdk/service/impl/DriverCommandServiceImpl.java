@@ -17,14 +17,25 @@ import com.dc3.common.bean.driver.AttributeInfo;
 import com.dc3.common.exception.ServiceException;
 import com.dc3.common.model.Device;
 import com.dc3.common.bean.point.PointValue;
+import com.dc3.common.model.Point;
+import com.dc3.common.sdk.bean.command.CmdParameter;
+import com.dc3.common.sdk.bean.command.CmdPriority;
+import com.dc3.common.sdk.bean.command.CmdResult;
 import com.dc3.common.sdk.bean.driver.DriverContext;
+import com.dc3.common.sdk.bean.driver.DriverProperty;
 import com.dc3.common.sdk.service.DriverCommandService;
 import com.dc3.common.sdk.service.DriverCustomService;
+import com.dc3.common.sdk.service.DriverDeadbandService;
+import com.dc3.common.sdk.service.DriverQueueService;
 import com.dc3.common.sdk.service.DriverService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
 
 /**
  * @author pnoker
@@ -39,6 +50,12 @@ public class DriverCommandServiceImpl implements DriverCommandService {
     private DriverService driverService;
     @Resource
     private DriverCustomService driverCustomService;
+    @Resource
+    private DriverProperty driverProperty;
+    @Resource
+    private DriverQueueService driverQueueService;
+    @Resource
+    private DriverDeadbandService driverDeadbandService;
 
     @Override
     public PointValue read(Long deviceId, Long pointId) {
@@ -53,7 +70,9 @@ public class DriverCommandServiceImpl implements DriverCommandService {
             );
 
             PointValue pointValue = new PointValue(deviceId, pointId, rawValue, driverService.convertValue(deviceId, pointId, rawValue));
-            driverService.pointValueSender(pointValue);
+            if (driverDeadbandService.report(pointValue)) {
+                driverService.pointValueSender(pointValue);
+            }
             return pointValue;
         } catch (Exception e) {
             throw new ServiceException(e.getMessage());
@@ -75,4 +94,129 @@ public class DriverCommandServiceImpl implements DriverCommandService {
         }
     }
 
+    @Override
+    public List<PointValue> read(List<CmdParameter> cmdParameters) {
+        int concurrency = Math.max(1, driverProperty.getCommand().getDeviceConcurrency());
+        Map<Long, List<Long>> devicePointMap = new LinkedHashMap<>(16);
+        cmdParameters.forEach(cmdParameter -> devicePointMap.computeIfAbsent(cmdParameter.getDeviceId(), k -> new ArrayList<>()).add(cmdParameter.getPointId()));
+
+        // 同一设备的位号按并发数切分为连续的若干段，每段调用一次批量读
+        List<CompletableFuture<List<PointValue>>> futures = new ArrayList<>(16);
+        devicePointMap.forEach((deviceId, pointIds) -> {
+            int size = (pointIds.size() + concurrency - 1) / concurrency;
+            for (int i = 0; i < pointIds.size(); i += size) {
+                List<Long> chunk = pointIds.subList(i, Math.min(i + size, pointIds.size()));
+                futures.add(driverQueueService.submit(deviceId, CmdPriority.READ, null, () -> batchRead(deviceId, chunk)));
+            }
+        });
+
+        await(futures);
+        return futures.stream()
+                .filter(future -> future.isDone() && !future.isCompletedExceptionally())
+                .flatMap(future -> future.join().stream())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<CmdResult> write(List<CmdParameter> cmdParameters) {
+        int concurrency = Math.max(1, driverProperty.getCommand().getDeviceConcurrency());
+        AtomicReferenceArray<CmdResult> results = new AtomicReferenceArray<>(cmdParameters.size());
+
+        // 同一设备的写操作按位号分配到若干通道，通道内顺序执行，保证同一位号的写操作不会乱序
+        Map<Long, Map<Integer, List<Integer>>> laneMap = new LinkedHashMap<>(16);
+        for (int i = 0; i < cmdParameters.size(); i++) {
+            CmdParameter cmdParameter = cmdParameters.get(i);
+            results.set(i, new CmdResult(cmdParameter.getDeviceId(), cmdParameter.getPointId(), false, "Timeout, the result is unknown"));
+            int lane = Math.floorMod(cmdParameter.getPointId().hashCode(), concurrency);
+            laneMap.computeIfAbsent(cmdParameter.getDeviceId(), k -> new LinkedHashMap<>(4))
+                    .computeIfAbsent(lane, k -> new ArrayList<>()).add(i);
+        }
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(16);
+        laneMap.forEach((deviceId, lanes) -> lanes.values().forEach(indexes -> futures.add(
+                driverQueueService.submit(deviceId, CmdPriority.WRITE, null, () -> {
+                    indexes.forEach(index -> {
+                        CmdParameter cmdParameter = cmdParameters.get(index);
+                        // 超时后结果已经返回给调用方，这里只替换数组元素，不修改已返回的对象
+                        try {
+                            Boolean success = write(cmdParameter.getDeviceId(), cmdParameter.getPointId(), cmdParameter.getValue());
+                            results.set(index, new CmdResult(cmdParameter.getDeviceId(), cmdParameter.getPointId(), Boolean.TRUE.equals(success), null));
+                        } catch (Exception e) {
+                            results.set(index, new CmdResult(cmdParameter.getDeviceId(), cmdParameter.getPointId(), false, e.getMessage()));
+                        }
+                    });
+                    return true;
+                })
+        )));
+
+        await(futures);
+        List<CmdResult> cmdResults = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            cmdResults.add(results.get(i));
+        }
+        return cmdResults;
+    }
+
+    /**
+     * 读取同一设备的多个位号，发送超过死区的位号值，并返回全部读取成功的位号值
+     *
+     * @param deviceId Device Id
+     * @param pointIds Point Id Array
+     * @return PointValue Array
+     */
+    private List<PointValue> batchRead(Long deviceId, List<Long> pointIds) {
+        Device device = driverContext.getDeviceByDeviceId(deviceId);
+        Map<Long, Map<String, AttributeInfo>> pointInfoMap = new HashMap<>(pointIds.size() * 2);
+        List<Point> points = new ArrayList<>(pointIds.size());
+        pointIds.forEach(pointId -> {
+            try {
+                pointInfoMap.put(pointId, driverContext.getPointInfoByDeviceIdAndPointId(deviceId, pointId));
+                points.add(driverContext.getPointByDeviceIdAndPointId(deviceId, pointId));
+            } catch (Exception e) {
+                log.warn("Read device({}) point({}) skipped: {}", deviceId, pointId, e.getMessage());
+            }
+        });
+        if (points.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, String> rawValues = driverCustomService.batchRead(driverContext.getDriverInfoByDeviceId(deviceId), pointInfoMap, device, points);
+        List<PointValue> pointValues = new ArrayList<>(rawValues.size());
+        points.forEach(point -> {
+            String rawValue = rawValues.get(point.getId());
+            if (null != rawValue) {
+                try {
+                    pointValues.add(new PointValue(deviceId, point.getId(), rawValue, driverService.convertValue(deviceId, point.getId(), rawValue)));
+                } catch (Exception e) {
+                    log.warn("Convert device({}) point({}) value failed: {}", deviceId, point.getId(), e.getMessage());
+                }
+            }
+        });
+        List<PointValue> reports = driverDeadbandService.report(pointValues);
+        if (!reports.isEmpty()) {
+            driverService.pointValueSender(reports);
+        }
+        return pointValues;
+    }
+
+    /**
+     * 等待全部任务完成，最多等待 driver.command.timeout 毫秒，超时后取消仍在队列中的任务
+     *
+     * @param futures CompletableFuture Array
+     */
+    private void await(List<? extends CompletableFuture<?>> futures) {
+        long timeout = driverProperty.getCommand().getTimeout();
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Command not completed within {} ms, return partial results", timeout);
+            futures.forEach(future -> future.cancel(false));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 单个任务的失败已经体现在结果中
+            log.debug("Command execution error: {}", e.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.service.impl;
+
+import com.dc3.common.bean.driver.AttributeInfo;
+import com.dc3.common.bean.point.PointValue;
+import com.dc3.common.constant.Common;
+import com.dc3.common.model.Point;
+import com.dc3.common.sdk.bean.driver.DriverContext;
+import com.dc3.common.sdk.service.DriverDeadbandService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 位号值死区过滤服务接口实现类
+ * <p>
+ * 每个设备一张上次上报值表，以 Point Id 为 Key 开放寻址，数值以 double 保存，
+ * 判断是否上报时不需要为每个位号值创建对象。
+ * 启用过滤的位号至少每隔位号值超时时间的一半上报一次，避免实时值在 Redis 中过期，
+ * 最长静默时间超过该间隔时按该间隔处理。
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+public class DriverDeadbandServiceImpl implements DriverDeadbandService {
+
+    @Resource
+    private DriverContext driverContext;
+
+    /**
+     * deviceId,LastValueTable
+     */
+    private final Map<Long, LastValueTable> tables = new ConcurrentHashMap<>(16);
+
+    @Override
+    public boolean report(PointValue pointValue) {
+        Long deviceId = pointValue.getDeviceId();
+        Long pointId = pointValue.getPointId();
+        double deadband;
+        double deadbandPercent;
+        long maxSilence;
+        boolean numeric;
+        try {
+            Map<String, AttributeInfo> pointInfo = driverContext.getPointInfoByDeviceIdAndPointId(deviceId, pointId);
+            deadband = attribute(pointInfo, Common.Driver.Attribute.DEADBAND);
+            deadbandPercent = attribute(pointInfo, Common.Driver.Attribute.DEADBAND_PERCENT);
+            maxSilence = (long) attribute(pointInfo, Common.Driver.Attribute.MAX_SILENCE);
+            numeric = numeric(driverContext.getPointByDeviceIdAndPointId(deviceId, pointId));
+        } catch (Exception e) {
+            return true;
+        }
+        if (deadband <= 0 && deadbandPercent <= 0 && maxSilence <= 0) {
+            return true;
+        }
+        long silence = silence(pointValue);
+        if (maxSilence > 0 && maxSilence < silence) {
+            silence = maxSilence;
+        }
+
+        double value = 0;
+        String text = pointValue.getValue();
+        if (numeric) {
+            try {
+                value = Double.parseDouble(text.trim());
+                text = null;
+            } catch (Exception e) {
+                // 无法解析的数值按文本比较
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        LastValueTable table = tables.computeIfAbsent(deviceId, k -> new LastValueTable());
+        synchronized (table) {
+            int slot = table.find(pointId);
+            if (slot < 0) {
+                table.put(-slot - 1, pointId, value, text, now);
+                return true;
+            }
+            boolean changed;
+            if (null != text || null != table.texts[slot]) {
+                changed = !Objects.equals(text, table.texts[slot]);
+            } else {
+                double last = table.values[slot];
+                double delta = Math.abs(value - last);
+                if (deadband <= 0 && deadbandPercent <= 0) {
+                    changed = delta > 0;
+                } else {
+                    changed = (deadband > 0 && delta > deadband) || (deadbandPercent > 0 && delta > Math.abs(last) * deadbandPercent / 100);
+                }
+            }
+            boolean silent = now - table.times[slot] >= silence;
+            if (!changed && !silent) {
+                return false;
+            }
+            table.values[slot] = value;
+            table.texts[slot] = text;
+            table.times[slot] = now;
+            return true;
+        }
+    }
+
+    @Override
+    public List<PointValue> report(List<PointValue> pointValues) {
+        List<PointValue> reports = new ArrayList<>(pointValues.size());
+        pointValues.forEach(pointValue -> {
+            if (report(pointValue)) {
+                reports.add(pointValue);
+            }
+        });
+        return reports;
+    }
+
+    @Override
+    public void removeDevice(Long deviceId) {
+        tables.remove(deviceId);
+    }
+
+    @Override
+    public void removePoint(Long pointId) {
+        tables.values().forEach(table -> {
+            synchronized (table) {
+                table.remove(pointId);
+            }
+        });
+    }
+
+    @Override
+    public void remove(Long deviceId, Long pointId) {
+        LastValueTable table = tables.get(deviceId);
+        if (null != table) {
+            synchronized (table) {
+                table.remove(pointId);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        tables.clear();
+    }
+
+    /**
+     * 隐式心跳间隔，为位号值超时时间的一半，保证实时值过期前至少重新上报一次
+     *
+     * @param pointValue PointValue
+     * @return 毫秒
+     */
+    private long silence(PointValue pointValue) {
+        if (null == pointValue.getTimeOut() || null == pointValue.getTimeUnit() || pointValue.getTimeOut() <= 0) {
+            return TimeUnit.MINUTES.toMillis(15) / 2;
+        }
+        return pointValue.getTimeUnit().toMillis(pointValue.getTimeOut()) / 2;
+    }
+
+    /**
+     * 获取位号的数值属性，未配置或配置错误时返回 0
+     *
+     * @param pointInfo Point Info
+     * @param name      Attribute Name
+     * @return double
+     */
+    private double attribute(Map<String, AttributeInfo> pointInfo, String name) {
+        AttributeInfo attributeInfo = pointInfo.get(name);
+        if (null == attributeInfo || null == attributeInfo.getValue()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(attributeInfo.getValue().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private boolean numeric(Point point) {
+        switch (point.getType()) {
+            case Common.ValueType.BYTE:
+            case Common.ValueType.SHORT:
+            case Common.ValueType.INT:
+            case Common.ValueType.LONG:
+            case Common.ValueType.DOUBLE:
+            case Common.ValueType.FLOAT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 单个设备的上次上报值表，Point Id 开放寻址，所有字段由表对象的锁保护
+     * <p>
+     * texts 仅保存非数值类型的位号值，数值类型对应位置为 null
+     */
+    private static class LastValueTable {
+        private long[] keys = new long[16];
+        private boolean[] used = new boolean[16];
+        private double[] values = new double[16];
+        private String[] texts = new String[16];
+        private long[] times = new long[16];
+        private int size;
+
+        /**
+         * 查找位号所在的位置
+         *
+         * @param key Point Id
+         * @return 已存在时返回位置，否则返回 -(插入位置 + 1)
+         */
+        int find(long key) {
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (used[index]) {
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -index - 1;
+        }
+
+        void put(int index, long key, double value, String text, long time) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize();
+                index = -find(key) - 1;
+            }
+            used[index] = true;
+            keys[index] = key;
+            values[index] = value;
+            texts[index] = text;
+            times[index] = time;
+            size++;
+        }
+
+        /**
+         * 删除位号，之后同一探测链上的位号依次前移，保证查找不会在空位提前结束
+         *
+         * @param key Point Id
+         */
+        void remove(long key) {
+            int hole = find(key);
+            if (hole < 0) {
+                return;
+            }
+            int mask = keys.length - 1;
+            int index = (hole + 1) & mask;
+            while (used[index]) {
+                int home = hash(keys[index]) & mask;
+                // 空位位于该位号的起始位置与当前位置之间时，该位号可以前移到空位
+                if (((index - home) & mask) >= ((index - hole) & mask)) {
+                    keys[hole] = keys[index];
+                    values[hole] = values[index];
+                    texts[hole] = texts[index];
+                    times[hole] = times[index];
+                    hole = index;
+                }
+                index = (index + 1) & mask;
+            }
+            used[hole] = false;
+            texts[hole] = null;
+            size--;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            double[] oldValues = values;
+            String[] oldTexts = texts;
+            long[] oldTimes = times;
+            int capacity = oldKeys.length * 2;
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            values = new double[capacity];
+            texts = new String[capacity];
+            times = new long[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int index = -find(oldKeys[i]) - 1;
+                    used[index] = true;
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                    texts[index] = oldTexts[i];
+                    times[index] = oldTimes[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            int hash = Long.hashCode(key) * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+}
@@ -15,12 +15,15 @@ package com.dc3.common.sdk.service.impl;
 
 import cn.hutool.core.thread.ThreadUtil;
 import com.dc3.common.bean.driver.AttributeInfo;
+import com.dc3.common.bean.driver.DriverMetadata;
+import com.dc3.common.bean.driver.DriverMetadataChunk;
 import com.dc3.common.bean.driver.DriverRegister;
 import com.dc3.common.constant.Common;
 import com.dc3.common.exception.ServiceException;
 import com.dc3.common.model.*;
 import com.dc3.common.sdk.bean.driver.DriverContext;
 import com.dc3.common.sdk.bean.driver.DriverProperty;
+import com.dc3.common.sdk.service.DriverDeadbandService;
 import com.dc3.common.sdk.service.DriverMetadataService;
 import com.dc3.common.sdk.service.DriverService;
 import com.dc3.common.utils.Dc3Util;
@@ -29,6 +32,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
@@ -52,8 +58,12 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
     @Resource
     private DriverProperty driverProperty;
     @Resource
+    private DriverDeadbandService driverDeadbandService;
+    @Resource
     private ThreadPoolExecutor threadPoolExecutor;
 
+    private volatile int metadataChunkSequence = -1;
+
     @Override
     public void initial() {
         String localHost = Dc3Util.localHost();
@@ -76,7 +86,7 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
                         driverProperty.getTenant(),
                         driver,
                         driverProperty.getDriverAttribute(),
-                        driverProperty.getPointAttribute()
+                        pointAttributes()
                 )
         ));
         syncDriverMetadata(driver);
@@ -84,6 +94,34 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
         log.info("The driver {}/{} is initialized successfully", driver.getServiceName(), driver.getName());
     }
 
+    @Override
+    public void upsertMetadataChunk(DriverMetadataChunk driverMetadataChunk) {
+        int sequence = driverMetadataChunk.getSequence();
+        if (sequence == 0) {
+            // The first chunk starts a new metadata snapshot
+            DriverMetadata driverMetadata = new DriverMetadata();
+            driverMetadata.setDriverId(driverMetadataChunk.getDriverId()).setTenantId(driverMetadataChunk.getTenantId());
+            putAll(driverMetadata.getDriverAttributeMap(), driverMetadataChunk.getDriverAttributeMap());
+            putAll(driverMetadata.getPointAttributeMap(), driverMetadataChunk.getPointAttributeMap());
+            driverContext.setDriverMetadata(driverMetadata);
+            driverDeadbandService.clear();
+        } else if (sequence != metadataChunkSequence + 1) {
+            log.warn("Driver metadata chunk out of order, expected: {}, received: {}", metadataChunkSequence + 1, sequence);
+        }
+        metadataChunkSequence = sequence;
+
+        // Device map is filled last, so a device is only polled once all of its configuration is present
+        DriverMetadata driverMetadata = driverContext.getDriverMetadata();
+        putAll(driverMetadata.getProfilePointMap(), driverMetadataChunk.getProfilePointMap());
+        putAll(driverMetadata.getDriverInfoMap(), driverMetadataChunk.getDriverInfoMap());
+        putAll(driverMetadata.getPointInfoMap(), driverMetadataChunk.getPointInfoMap());
+        putAll(driverMetadata.getDeviceMap(), driverMetadataChunk.getDeviceMap());
+
+        if (Boolean.TRUE.equals(driverMetadataChunk.getLast())) {
+            log.info("Driver metadata sync completed, {} chunk(s), {} device(s)", sequence + 1, driverMetadataChunk.getTotal());
+        }
+    }
+
     @Override
     public void upsertProfile(Profile profile) {
         // Add profile point to context
@@ -103,6 +141,8 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
         driverContext.getDriverMetadata().getDriverInfoMap().computeIfAbsent(device.getId(), k -> new ConcurrentHashMap<>(16));
         // Add device point info to context
         driverContext.getDriverMetadata().getPointInfoMap().computeIfAbsent(device.getId(), k -> new ConcurrentHashMap<>(16));
+        // The profiles may have changed, compare against fresh values
+        driverDeadbandService.removeDevice(device.getId());
     }
 
     @Override
@@ -110,12 +150,15 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
         driverContext.getDriverMetadata().getDeviceMap().entrySet().removeIf(next -> next.getKey().equals(id));
         driverContext.getDriverMetadata().getDriverInfoMap().entrySet().removeIf(next -> next.getKey().equals(id));
         driverContext.getDriverMetadata().getPointInfoMap().entrySet().removeIf(next -> next.getKey().equals(id));
+        driverDeadbandService.removeDevice(id);
     }
 
     @Override
     public void upsertPoint(Point point) {
         // Upsert point to profile point map context
         driverContext.getDriverMetadata().getProfilePointMap().computeIfAbsent(point.getProfileId(), k -> new ConcurrentHashMap<>(16)).put(point.getId(), point);
+        // Base or multiple may have changed, the last value is in the old units
+        driverDeadbandService.removePoint(point.getId());
     }
 
     @Override
@@ -125,6 +168,7 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
             v.entrySet().removeIf(next -> next.getKey().equals(pointId));
             return v;
         });
+        driverDeadbandService.removePoint(pointId);
     }
 
     @Override
@@ -160,6 +204,7 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
             driverContext.getDriverMetadata().getPointInfoMap().computeIfAbsent(pointInfo.getDeviceId(), k -> new ConcurrentHashMap<>(16))
                     .computeIfAbsent(pointInfo.getPointId(), k -> new ConcurrentHashMap<>(16))
                     .put(attribute.getName(), new AttributeInfo(pointInfo.getValue(), attribute.getType()));
+            driverDeadbandService.remove(pointInfo.getDeviceId(), pointInfo.getPointId());
         }
     }
 
@@ -181,6 +226,32 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
                 value.entrySet().removeIf(next -> next.getValue().size() < 1);
                 return value;
             });
+            driverDeadbandService.remove(deviceId, pointId);
+        }
+    }
+
+    /**
+     * 驱动声明的位号属性，并追加驱动未声明的 SDK 内置位号属性
+     *
+     * @return PointAttribute Array
+     */
+    private List<PointAttribute> pointAttributes() {
+        List<PointAttribute> pointAttributes = new ArrayList<>();
+        if (null != driverProperty.getPointAttribute()) {
+            pointAttributes.addAll(driverProperty.getPointAttribute());
+        }
+        appendPointAttribute(pointAttributes, "采集周期", Common.Driver.Attribute.SCAN_INTERVAL, "long", "位号采集周期，毫秒，为 0 时使用驱动默认采集周期");
+        appendPointAttribute(pointAttributes, "绝对死区", Common.Driver.Attribute.DEADBAND, "double", "数值变化量超过该值时上报，为 0 时不启用");
+        appendPointAttribute(pointAttributes, "百分比死区", Common.Driver.Attribute.DEADBAND_PERCENT, "double", "数值变化量超过上次上报值的该百分比时上报，为 0 时不启用");
+        appendPointAttribute(pointAttributes, "最长静默时间", Common.Driver.Attribute.MAX_SILENCE, "long", "超过该时间未上报时上报一次，毫秒，为 0 或超过位号值超时时间的一半时按超时时间的一半");
+        return pointAttributes;
+    }
+
+    private void appendPointAttribute(List<PointAttribute> pointAttributes, String displayName, String name, String type, String description) {
+        if (pointAttributes.stream().noneMatch(attribute -> name.equals(attribute.getName()))) {
+            PointAttribute pointAttribute = new PointAttribute().setDisplayName(displayName).setName(name).setType(type).setValue("0");
+            pointAttribute.setDescription(description);
+            pointAttributes.add(pointAttribute);
         }
     }
 
@@ -205,11 +276,20 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
     private void syncDriverMetadata(Driver driver) {
         try {
             threadPoolExecutor.submit(() -> {
-                driverService.driverEventSender(new DriverEvent(
-                        serviceName,
-                        Common.Driver.Event.DRIVER_METADATA_SYNC,
-                        driver.getServiceName()
-                ));
+                Integer chunkSize = driverProperty.getMetadataChunkSize();
+                if (null != chunkSize && chunkSize > 0) {
+                    driverService.driverEventSender(new DriverEvent(
+                            serviceName,
+                            Common.Driver.Event.DRIVER_METADATA_SYNC_CHUNK,
+                            chunkSize
+                    ));
+                } else {
+                    driverService.driverEventSender(new DriverEvent(
+                            serviceName,
+                            Common.Driver.Event.DRIVER_METADATA_SYNC,
+                            driver.getServiceName()
+                    ));
+                }
 
                 while (!Common.Driver.Status.ONLINE.equals(driverContext.getDriverStatus())) {
                     ThreadUtil.sleep(500);
@@ -219,4 +299,10 @@ public class DriverMetadataServiceImpl implements DriverMetadataService {
             driverService.close("The driver initialization failed, Sync driver metadata from dc3-manager timeout");
         }
     }
+
+    private <K, V> void putAll(Map<K, V> target, Map<K, V> source) {
+        if (null != source) {
+            target.putAll(source);
+        }
+    }
 }
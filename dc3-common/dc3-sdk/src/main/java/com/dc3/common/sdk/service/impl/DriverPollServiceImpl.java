@@ -0,0 +1,321 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.service.impl;
+
+import com.dc3.common.bean.driver.AttributeInfo;
+import com.dc3.common.constant.Common;
+import com.dc3.common.model.Device;
+import com.dc3.common.model.Point;
+import com.dc3.common.sdk.bean.command.CmdPriority;
+import com.dc3.common.sdk.bean.driver.DriverContext;
+import com.dc3.common.sdk.bean.schedule.DeviceCycle;
+import com.dc3.common.sdk.service.DriverCommandService;
+import com.dc3.common.sdk.service.DriverPollService;
+import com.dc3.common.sdk.service.DriverQueueService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 位号周期采集服务接口实现类
+ * <p>
+ * 时间轮每个槽位对应一个 TICK，位号到期时下发一次 POLL 指令并按采集周期放入下一个槽位，
+ * 超过一圈的采集时间在到达槽位时重新放入，位号配置的采集周期在每次采集时重新读取。
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+public class DriverPollServiceImpl implements DriverPollService {
+
+    /**
+     * 时间轮精度，毫秒
+     */
+    private static final long TICK = 100;
+
+    /**
+     * 时间轮槽位数量
+     */
+    private static final int WHEEL_SIZE = 512;
+
+    @Resource
+    private DriverContext driverContext;
+    @Resource
+    private DriverQueueService driverQueueService;
+    @Resource
+    private DriverCommandService driverCommandService;
+    @Resource
+    private ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+
+    /**
+     * deviceId,(pointId,PollTask)
+     */
+    private final Map<Long, Map<Long, PollTask>> taskTable = new ConcurrentHashMap<>(16);
+
+    /**
+     * deviceId,Cycle
+     */
+    private final Map<Long, Cycle> cycleTable = new ConcurrentHashMap<>(16);
+
+    /**
+     * 时间轮，槽位以及 cursor 均由 wheel 加锁保护
+     */
+    private final List<List<PollTask>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private long cursor;
+    private volatile long interval;
+    private ScheduledFuture<?> ticker;
+
+    @Override
+    public synchronized void initial(Long interval) {
+        if (null != ticker) {
+            return;
+        }
+        this.interval = Math.max(TICK, interval);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        cursor = System.currentTimeMillis() / TICK;
+        ticker = scheduledThreadPoolExecutor.scheduleAtFixedRate(this::tick, TICK, TICK, TimeUnit.MILLISECONDS);
+        refresh();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (null != ticker) {
+            ticker.cancel(false);
+        }
+    }
+
+    @Override
+    public synchronized void refresh() {
+        if (null == ticker) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Map<Long, Set<Long>> current = new HashMap<>(16);
+        Map<Long, Device> deviceMap = driverContext.getDriverMetadata().getDeviceMap();
+        deviceMap.values().forEach(device -> {
+            Set<Long> profileIds = device.getProfileIds();
+            Map<Long, Map<String, AttributeInfo>> pointInfoMap = driverContext.getDriverMetadata().getPointInfoMap().get(device.getId());
+            if (null == pointInfoMap || null == profileIds) {
+                return;
+            }
+            Set<Long> pointIds = current.computeIfAbsent(device.getId(), k -> new HashSet<>());
+            Map<Long, PollTask> tasks = taskTable.computeIfAbsent(device.getId(), k -> new ConcurrentHashMap<>(16));
+            cycleTable.computeIfAbsent(device.getId(), k -> new Cycle());
+            profileIds.forEach(profileId -> {
+                Map<Long, Point> pointMap = driverContext.getDriverMetadata().getProfilePointMap().get(profileId);
+                if (null == pointMap) {
+                    return;
+                }
+                pointMap.keySet().forEach(pointId -> {
+                    Map<String, AttributeInfo> pointInfo = pointInfoMap.get(pointId);
+                    if (null == pointInfo) {
+                        return;
+                    }
+                    pointIds.add(pointId);
+                    if (!tasks.containsKey(pointId)) {
+                        PollTask task = new PollTask(device.getId(), pointId);
+                        task.interval = interval(pointInfo);
+                        task.due = now + phase(device.getId(), pointId, task.interval);
+                        tasks.put(pointId, task);
+                        schedule(task);
+                    }
+                });
+            });
+        });
+
+        // 已删除的设备以及位号只做标记，在到达槽位时丢弃
+        taskTable.entrySet().removeIf(entry -> {
+            Set<Long> pointIds = current.get(entry.getKey());
+            entry.getValue().values().removeIf(task -> {
+                boolean removed = null == pointIds || !pointIds.contains(task.pointId);
+                if (removed) {
+                    task.removed = true;
+                }
+                return removed;
+            });
+            if (null == pointIds) {
+                cycleTable.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public Map<Long, DeviceCycle> cycles() {
+        Map<Long, DeviceCycle> cycles = new HashMap<>(cycleTable.size() * 2);
+        cycleTable.forEach((deviceId, cycle) -> {
+            Map<Long, PollTask> tasks = taskTable.get(deviceId);
+            cycles.put(deviceId, new DeviceCycle(null != tasks ? tasks.size() : 0, cycle.polls, cycle.skipped, cycle.late, cycle.lastSkipTime));
+        });
+        return cycles;
+    }
+
+    /**
+     * 将位号放入采集时间所在的槽位，至少为下一个槽位，至多为一圈之内
+     *
+     * @param task PollTask
+     */
+    private void schedule(PollTask task) {
+        synchronized (wheel) {
+            long target = Math.min(Math.max(task.due / TICK, cursor + 1), cursor + WHEEL_SIZE - 1);
+            wheel.get((int) (target % WHEEL_SIZE)).add(task);
+        }
+    }
+
+    /**
+     * 推进时间轮，处理到期槽位中的位号
+     */
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            long target = now / TICK;
+            while (true) {
+                List<PollTask> slot;
+                synchronized (wheel) {
+                    if (cursor >= target) {
+                        break;
+                    }
+                    cursor++;
+                    int index = (int) (cursor % WHEEL_SIZE);
+                    slot = wheel.get(index);
+                    if (slot.isEmpty()) {
+                        continue;
+                    }
+                    wheel.set(index, new ArrayList<>());
+                }
+                for (PollTask task : slot) {
+                    if (task.removed) {
+                        continue;
+                    }
+                    if (task.due / TICK > cursor) {
+                        schedule(task);
+                        continue;
+                    }
+                    poll(task, now);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Driver poll tick error: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 下发一次采集并放入下一个采集周期
+     * <p>
+     * 上一次采集仍未完成时跳过本次采集，不会在设备队列中堆积同一位号的采集；
+     * 落后超过一个采集周期时不再补齐错过的采集，错过的周期同样记为跳过。
+     * 该方法运行在时间轮线程上，设备队列的提交不会阻塞。
+     *
+     * @param task PollTask
+     * @param now  当前时间
+     */
+    private void poll(PollTask task, long now) {
+        Cycle cycle = cycleTable.computeIfAbsent(task.deviceId, k -> new Cycle());
+        if (null != task.future && !task.future.isDone()) {
+            cycle.skipped++;
+            cycle.lastSkipTime = now;
+        } else {
+            if (now - task.due >= TICK * 2) {
+                cycle.late++;
+            }
+            cycle.polls++;
+            task.future = driverQueueService.submit(task.deviceId, CmdPriority.POLL, task.pointId, () -> driverCommandService.read(task.deviceId, task.pointId));
+        }
+
+        try {
+            task.interval = interval(driverContext.getPointInfoByDeviceIdAndPointId(task.deviceId, task.pointId));
+        } catch (Exception ignored) {
+            // 位号已删除，等待 refresh 移出时间轮
+        }
+        task.due += task.interval;
+        if (task.due <= now) {
+            long missed = (now - task.due) / task.interval + 1;
+            cycle.skipped += missed;
+            cycle.lastSkipTime = now;
+            task.due += missed * task.interval;
+        }
+        schedule(task);
+    }
+
+    /**
+     * 获取位号的采集周期，位号未配置时使用默认采集周期
+     *
+     * @param pointInfo Point Info
+     * @return 采集周期，毫秒
+     */
+    private long interval(Map<String, AttributeInfo> pointInfo) {
+        AttributeInfo attributeInfo = null != pointInfo ? pointInfo.get(Common.Driver.Attribute.SCAN_INTERVAL) : null;
+        if (null != attributeInfo && null != attributeInfo.getValue()) {
+            try {
+                long value = Long.parseLong(attributeInfo.getValue().trim());
+                if (value > 0) {
+                    return Math.max(TICK, value);
+                }
+            } catch (NumberFormatException ignored) {
+                // 配置错误时使用默认采集周期
+            }
+        }
+        return interval;
+    }
+
+    /**
+     * 按设备与位号计算首次采集的偏移量，使同一周期内的采集均匀分布
+     *
+     * @param deviceId Device Id
+     * @param pointId  Point Id
+     * @param interval 采集周期
+     * @return 偏移量，毫秒
+     */
+    private static long phase(Long deviceId, Long pointId, long interval) {
+        long hash = (deviceId * 31 + pointId) * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash ^ (hash >>> 32), interval);
+    }
+
+    /**
+     * 单个位号的采集任务，除 removed 外的字段仅由时间轮线程修改
+     */
+    private static class PollTask {
+        private final Long deviceId;
+        private final Long pointId;
+        private long interval;
+        private long due;
+        private Future<?> future;
+        private volatile boolean removed;
+
+        PollTask(Long deviceId, Long pointId) {
+            this.deviceId = deviceId;
+            this.pointId = pointId;
+        }
+    }
+
+    /**
+     * 单个设备的采集统计，仅由时间轮线程修改
+     */
+    private static class Cycle {
+        private volatile long polls;
+        private volatile long skipped;
+        private volatile long late;
+        private volatile long lastSkipTime;
+    }
+
+}
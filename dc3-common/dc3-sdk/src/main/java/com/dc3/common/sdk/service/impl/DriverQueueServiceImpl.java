@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.service.impl;
+
+import com.dc3.common.sdk.bean.command.CmdPriority;
+import com.dc3.common.sdk.bean.driver.DriverProperty;
+import com.dc3.common.sdk.config.DriverExecutor;
+import com.dc3.common.sdk.service.DriverQueueService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 设备指令队列服务接口实现类
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+public class DriverQueueServiceImpl implements DriverQueueService {
+
+    /**
+     * 设备 I/O 执行器没有可用名额时重新提交设备队列的间隔，毫秒
+     */
+    private static final long DISPATCH_RETRY = 100;
+
+    @Resource
+    private DriverProperty driverProperty;
+    @Resource
+    private DriverExecutor driverExecutor;
+    @Resource
+    private ScheduledThreadPoolExecutor scheduledThreadPoolExecutor;
+
+    private final Map<Long, DeviceQueue> queues = new ConcurrentHashMap<>(16);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(Long deviceId, CmdPriority priority, Long key, Callable<T> command) {
+        DeviceQueue queue = queues.computeIfAbsent(deviceId, k -> new DeviceQueue());
+        CompletableFuture<T> future;
+        synchronized (queue) {
+            Command<?> pending = CmdPriority.POLL == priority && null != key ? queue.polls.get(key) : null;
+            if (null != pending && !pending.future.isDone()) {
+                future = (CompletableFuture<T>) pending.future;
+            } else {
+                Command<T> cmd = new Command<>(priority, key, command);
+                if (CmdPriority.POLL == priority && null != key) {
+                    queue.polls.put(key, cmd);
+                }
+                queue.deques[priority.ordinal()].addLast(cmd);
+                queue.size++;
+                future = cmd.future;
+            }
+            if (queue.running >= Math.max(1, driverProperty.getCommand().getDeviceConcurrency())) {
+                return future;
+            }
+            queue.running++;
+        }
+        dispatch(deviceId, queue);
+        return future;
+    }
+
+    @Override
+    public Map<Long, Integer> depth() {
+        Map<Long, Integer> depth = new HashMap<>(queues.size() * 2);
+        queues.forEach((deviceId, queue) -> {
+            synchronized (queue) {
+                depth.put(deviceId, queue.size);
+            }
+        });
+        return depth;
+    }
+
+    /**
+     * 将设备队列交给设备 I/O 执行器执行，没有可用的执行名额时不等待，稍后重试
+     * <p>
+     * 提交方可能是采集时间轮或者 Quartz 调度线程，这些线程不能被执行器阻塞
+     *
+     * @param deviceId Device Id
+     * @param queue    DeviceQueue
+     */
+    private void dispatch(Long deviceId, DeviceQueue queue) {
+        if (driverExecutor.tryExecute(() -> drain(deviceId, queue))) {
+            return;
+        }
+        // 指令保留在队列中，已占用的执行名额在重试成功前保持不变
+        try {
+            scheduledThreadPoolExecutor.schedule(() -> dispatch(deviceId, queue), DISPATCH_RETRY, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            synchronized (queue) {
+                queue.running--;
+            }
+            log.error("Device({}) command queue dispatch retry rejected: {}", deviceId, e.getMessage());
+        }
+    }
+
+    /**
+     * 依次执行设备队列中的指令，队列为空时释放执行名额
+     * <p>
+     * 每次最多执行 drainBatch 个指令，之后让出 I/O 线程并重新提交设备队列，
+     * 避免跟不上采集周期的设备一直占用线程，使其他设备得不到执行
+     *
+     * @param deviceId Device Id
+     * @param queue    DeviceQueue
+     */
+    private void drain(Long deviceId, DeviceQueue queue) {
+        int batch = Math.max(1, driverProperty.getCommand().getDrainBatch());
+        for (int i = 0; i < batch; i++) {
+            Command<?> command;
+            synchronized (queue) {
+                command = queue.poll();
+                if (null == command) {
+                    queue.running--;
+                    return;
+                }
+            }
+            command.run();
+        }
+        dispatch(deviceId, queue);
+    }
+
+    /**
+     * 单个设备的指令队列，所有字段由队列对象的锁保护
+     */
+    private static class DeviceQueue {
+        @SuppressWarnings("unchecked")
+        private final ArrayDeque<Command<?>>[] deques = new ArrayDeque[CmdPriority.values().length];
+        private final Map<Long, Command<?>> polls = new HashMap<>(16);
+        private int running;
+        private int size;
+
+        DeviceQueue() {
+            for (int i = 0; i < deques.length; i++) {
+                deques[i] = new ArrayDeque<>();
+            }
+        }
+
+        Command<?> poll() {
+            for (ArrayDeque<Command<?>> deque : deques) {
+                Command<?> command = deque.pollFirst();
+                if (null != command) {
+                    size--;
+                    if (CmdPriority.POLL == command.priority && null != command.key) {
+                        polls.remove(command.key, command);
+                    }
+                    return command;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Command<T> {
+        private final CmdPriority priority;
+        private final Long key;
+        private final Callable<T> callable;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Command(CmdPriority priority, Long key, Callable<T> callable) {
+            this.priority = priority;
+            this.key = key;
+            this.callable = callable;
+        }
+
+        void run() {
+            // 已取消的指令直接跳过
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(callable.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+}
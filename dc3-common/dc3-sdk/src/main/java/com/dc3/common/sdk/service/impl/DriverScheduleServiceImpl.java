@@ -16,6 +16,7 @@ package com.dc3.common.sdk.service.impl;
 import com.dc3.common.sdk.bean.driver.DriverProperty;
 import com.dc3.common.sdk.bean.schedule.ScheduleConfig;
 import com.dc3.common.sdk.bean.schedule.ScheduleProperty;
+import com.dc3.common.sdk.service.DriverPollService;
 import com.dc3.common.sdk.service.DriverScheduleService;
 import com.dc3.common.sdk.service.job.DriverCustomScheduleJob;
 import com.dc3.common.sdk.service.job.DriverReadScheduleJob;
@@ -38,6 +39,8 @@ public class DriverScheduleServiceImpl implements DriverScheduleService {
     private Scheduler scheduler;
     @Resource
     private DriverProperty driverProperty;
+    @Resource
+    private DriverPollService driverPollService;
 
     @Override
     public void initial() {
@@ -47,6 +50,7 @@ public class DriverScheduleServiceImpl implements DriverScheduleService {
                 property.setStatus(new ScheduleConfig(true, "0/5 * * * * ?"));
             }
             if (property.getRead().getEnable()) {
+                driverPollService.initial(property.getRead().period());
                 createScheduleJobWithCorn("DriverScheduleGroup", "ReadScheduleJob", property.getRead().getCorn(), DriverReadScheduleJob.class);
             }
             if (property.getCustom().getEnable()) {
@@ -16,6 +16,7 @@ package com.dc3.common.sdk.service.impl;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson.JSON;
+import com.dc3.common.bean.driver.DeviceHeartbeat;
 import com.dc3.common.constant.Common;
 import com.dc3.common.exception.ServiceException;
 import com.dc3.common.model.DeviceEvent;
@@ -23,7 +24,10 @@ import com.dc3.common.model.DriverEvent;
 import com.dc3.common.model.Point;
 import com.dc3.common.bean.point.PointValue;
 import com.dc3.common.sdk.bean.driver.DriverContext;
+import com.dc3.common.sdk.bean.driver.DriverProperty;
+import com.dc3.common.sdk.bean.schedule.ScheduleProperty;
 import com.dc3.common.sdk.service.DriverService;
+import com.dc3.common.sdk.util.ValueFormatter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
@@ -32,7 +36,12 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author pnoker
@@ -44,72 +53,149 @@ public class DriverServiceImpl implements DriverService {
     @Value("${spring.application.name}")
     private String serviceName;
 
+    private volatile Long heartbeatTimeout;
+
     @Resource
     private DriverContext driverContext;
     @Resource
+    private DriverProperty driverProperty;
+    @Resource
     private RabbitTemplate rabbitTemplate;
     @Resource
     private ApplicationContext applicationContext;
 
+    /**
+     * format,ValueFormatter
+     */
+    private final Map<String, ValueFormatter> formatters = new ConcurrentHashMap<>(16);
+
+    @Override
     public String convertValue(Long deviceId, Long pointId, String rawValue) {
-        String value;
         Point point = driverContext.getPointByDeviceIdAndPointId(deviceId, pointId);
         switch (point.getType()) {
             case Common.ValueType.STRING:
-                value = rawValue;
-                break;
+                return rawValue;
             case Common.ValueType.BYTE:
             case Common.ValueType.SHORT:
             case Common.ValueType.INT:
             case Common.ValueType.LONG:
             case Common.ValueType.DOUBLE:
             case Common.ValueType.FLOAT:
+                double number;
                 try {
-                    float base = null != point.getBase() ? point.getBase() : 0;
-                    float multiple = null != point.getMultiple() ? point.getMultiple() : 1;
-                    double temp = (Convert.convert(Double.class, rawValue.trim()) + base) * multiple;
-                    if (null != point.getMinimum() && temp < point.getMinimum()) {
-                        log.info("Device({}) point({}) value({}) is lower than lower limit({})", deviceId, pointId, temp, point.getMinimum());
-                        deviceEventSender(deviceId, pointId, Common.Device.Event.OVER_LOWER_LIMIT,
-                                String.format("Value(%s) is lower than lower limit %s", temp, point.getMinimum()));
-                    }
-                    if (null != point.getMaximum() && temp > point.getMaximum()) {
-                        log.info("Device({}) point({}) value({}) is greater than upper limit({})", deviceId, pointId, temp, point.getMaximum());
-                        deviceEventSender(deviceId, pointId, Common.Device.Event.OVER_UPPER_LIMIT,
-                                String.format("Value(%s) is greater than upper limit %s", temp, point.getMaximum()));
-                    }
-                    if (StrUtil.isNotBlank(point.getFormat())) {
-                        value = String.format(point.getFormat(), temp);
-                    } else {
-                        value = String.valueOf(temp);
-                    }
+                    number = parseNumber(rawValue);
                 } catch (Exception e) {
                     throw new ServiceException("Invalid device({}) point({}) value({}), error: {}", deviceId, pointId, rawValue, e.getMessage());
                 }
-                break;
+                return convertNumberValue(point, deviceId, pointId, number);
             case Common.ValueType.BOOLEAN:
                 try {
                     try {
-                        Double booleanValue = Convert.convert(Double.class, rawValue.trim());
-                        if (booleanValue > 0) {
-                            value = Boolean.TRUE.toString();
-                        } else {
-                            value = Boolean.FALSE.toString();
-                        }
+                        return String.valueOf(parseNumber(rawValue) > 0);
                     } catch (Exception e) {
-                        value = String.valueOf(Boolean.parseBoolean(rawValue.trim()));
+                        return String.valueOf(Boolean.parseBoolean(rawValue.trim()));
                     }
                 } catch (Exception e) {
                     throw new ServiceException("Invalid device({}) point({}) value({}), error: {}", deviceId, pointId, rawValue, e.getMessage());
                 }
-                break;
             default:
                 throw new ServiceException("Invalid device({}) point({}) value({}) type: {} ", deviceId, pointId, rawValue, point.getType());
         }
+    }
+
+    @Override
+    public String convertValue(Long deviceId, Long pointId, double rawValue) {
+        Point point = driverContext.getPointByDeviceIdAndPointId(deviceId, pointId);
+        switch (point.getType()) {
+            case Common.ValueType.STRING:
+                return String.valueOf(rawValue);
+            case Common.ValueType.BYTE:
+            case Common.ValueType.SHORT:
+            case Common.ValueType.INT:
+            case Common.ValueType.LONG:
+            case Common.ValueType.DOUBLE:
+            case Common.ValueType.FLOAT:
+                return convertNumberValue(point, deviceId, pointId, rawValue);
+            case Common.ValueType.BOOLEAN:
+                return String.valueOf(rawValue > 0);
+            default:
+                throw new ServiceException("Invalid device({}) point({}) value({}) type: {} ", deviceId, pointId, rawValue, point.getType());
+        }
+    }
+
+    @Override
+    public String convertValue(Long deviceId, Long pointId, long rawValue) {
+        Point point = driverContext.getPointByDeviceIdAndPointId(deviceId, pointId);
+        if (Common.ValueType.STRING.equals(point.getType())) {
+            return String.valueOf(rawValue);
+        }
+        return convertValue(deviceId, pointId, (double) rawValue);
+    }
+
+    @Override
+    public String convertValue(Long deviceId, Long pointId, boolean rawValue) {
+        Point point = driverContext.getPointByDeviceIdAndPointId(deviceId, pointId);
+        if (Common.ValueType.STRING.equals(point.getType()) || Common.ValueType.BOOLEAN.equals(point.getType())) {
+            return String.valueOf(rawValue);
+        }
+        return convertValue(deviceId, pointId, rawValue ? 1D : 0D);
+    }
+
+    @Override
+    public double convertNumber(Long deviceId, Long pointId, double rawValue) {
+        return convertNumber(driverContext.getPointByDeviceIdAndPointId(deviceId, pointId), deviceId, pointId, rawValue);
+    }
 
+    /**
+     * 转换数值并使用位号预编译的格式化器输出
+     *
+     * @param point    Point
+     * @param deviceId Device Id
+     * @param pointId  Point Id
+     * @param rawValue Raw Value
+     * @return String Value
+     */
+    private String convertNumberValue(Point point, Long deviceId, Long pointId, double rawValue) {
+        try {
+            double value = convertNumber(point, deviceId, pointId, rawValue);
+            return formatters.computeIfAbsent(null != point.getFormat() ? point.getFormat() : "", ValueFormatter::compile).format(value);
+        } catch (Exception e) {
+            throw new ServiceException("Invalid device({}) point({}) value({}), error: {}", deviceId, pointId, rawValue, e.getMessage());
+        }
+    }
+
+    private double convertNumber(Point point, Long deviceId, Long pointId, double rawValue) {
+        float base = null != point.getBase() ? point.getBase() : 0;
+        float multiple = null != point.getMultiple() ? point.getMultiple() : 1;
+        double value = (rawValue + base) * multiple;
+        if (null != point.getMinimum() && value < point.getMinimum()) {
+            log.info("Device({}) point({}) value({}) is lower than lower limit({})", deviceId, pointId, value, point.getMinimum());
+            deviceEventSender(deviceId, pointId, Common.Device.Event.OVER_LOWER_LIMIT,
+                    String.format("Value(%s) is lower than lower limit %s", value, point.getMinimum()));
+        }
+        if (null != point.getMaximum() && value > point.getMaximum()) {
+            log.info("Device({}) point({}) value({}) is greater than upper limit({})", deviceId, pointId, value, point.getMaximum());
+            deviceEventSender(deviceId, pointId, Common.Device.Event.OVER_UPPER_LIMIT,
+                    String.format("Value(%s) is greater than upper limit %s", value, point.getMaximum()));
+        }
         return value;
     }
 
+    /**
+     * 解析字符串数值，非常规格式交给 Convert 处理
+     *
+     * @param rawValue Raw Value
+     * @return double
+     */
+    private double parseNumber(String rawValue) {
+        String trim = rawValue.trim();
+        try {
+            return Double.parseDouble(trim);
+        } catch (NumberFormatException e) {
+            return Convert.convert(Double.class, trim);
+        }
+    }
+
     @Override
     public void driverEventSender(DriverEvent driverEvent) {
         if (null != driverEvent) {
@@ -141,6 +227,38 @@ public class DriverServiceImpl implements DriverService {
         deviceEventSender(new DeviceEvent(deviceId, pointId, type, content));
     }
 
+    public void deviceHeartbeatSender(DeviceHeartbeat deviceHeartbeat) {
+        if (null != deviceHeartbeat && null != deviceHeartbeat.getStatuses() && deviceHeartbeat.getStatuses().size() > 0) {
+            deviceHeartbeat.setServiceName(serviceName);
+            log.debug("Send device heartbeat: {} device(s)", deviceHeartbeat.getStatuses().size());
+            rabbitTemplate.convertAndSend(
+                    Common.Rabbit.TOPIC_EXCHANGE_EVENT,
+                    Common.Rabbit.ROUTING_DEVICE_HEARTBEAT_PREFIX + serviceName,
+                    deviceHeartbeat
+            );
+        }
+    }
+
+    public void deviceHeartbeatSender(Collection<Long> deviceIds, String status) {
+        Map<Long, String> statuses = new HashMap<>(deviceIds.size() * 4 / 3 + 1);
+        deviceIds.forEach(id -> statuses.put(id, status));
+        deviceHeartbeatSender(new DeviceHeartbeat(serviceName, statuses, (int) heartbeatTimeout(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 设备心跳的状态超时时间，为 custom 调度周期的 heartbeatMultiple 倍
+     *
+     * @return 毫秒
+     */
+    private long heartbeatTimeout() {
+        if (null == heartbeatTimeout) {
+            ScheduleProperty schedule = driverProperty.getSchedule();
+            int multiple = null != schedule.getHeartbeatMultiple() ? Math.max(1, schedule.getHeartbeatMultiple()) : 5;
+            heartbeatTimeout = schedule.getCustom().period() * multiple;
+        }
+        return heartbeatTimeout;
+    }
+
     public void pointValueSender(PointValue pointValue) {
         if (null != pointValue) {
             log.debug("Send point value: {}", JSON.toJSONString(pointValue));
@@ -13,11 +13,7 @@
 
 package com.dc3.common.sdk.service.job;
 
-import com.dc3.common.bean.driver.AttributeInfo;
-import com.dc3.common.model.Device;
-import com.dc3.common.model.Point;
-import com.dc3.common.sdk.bean.driver.DriverContext;
-import com.dc3.common.sdk.service.DriverCommandService;
+import com.dc3.common.sdk.service.DriverPollService;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
@@ -25,12 +21,12 @@ import org.springframework.scheduling.quartz.QuartzJobBean;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Read Schedule Job
+ * <p>
+ * 位号的采集由 {@link DriverPollService} 的时间轮按各自的采集周期分散执行，
+ * 该任务只在每个 corn 周期同步参与采集的位号
  *
  * @author pnoker
  */
@@ -39,31 +35,10 @@ import java.util.concurrent.ThreadPoolExecutor;
 public class DriverReadScheduleJob extends QuartzJobBean {
 
     @Resource
-    private DriverContext driverContext;
-    @Resource
-    private ThreadPoolExecutor threadPoolExecutor;
-    @Resource
-    private DriverCommandService driverCommandService;
+    private DriverPollService driverPollService;
 
     @Override
     protected void executeInternal(JobExecutionContext jobExecutionContext) throws JobExecutionException {
-        Map<Long, Device> deviceMap = driverContext.getDriverMetadata().getDeviceMap();
-        deviceMap.values().forEach(device -> {
-            Set<Long> profileIds = device.getProfileIds();
-            Map<Long, Map<String, AttributeInfo>> pointInfoMap = driverContext.getDriverMetadata().getPointInfoMap().get(device.getId());
-            if (null != pointInfoMap && null != profileIds) {
-                profileIds.forEach(profileId -> {
-                    Map<Long, Point> pointMap = driverContext.getDriverMetadata().getProfilePointMap().get(profileId);
-                    if (null != pointMap) {
-                        pointMap.keySet().forEach(pointId -> {
-                            Map<String, AttributeInfo> map = pointInfoMap.get(pointId);
-                            if (null != map) {
-                                threadPoolExecutor.execute(() -> driverCommandService.read(device.getId(), pointId));
-                            }
-                        });
-                    }
-                });
-            }
-        });
+        driverPollService.refresh();
     }
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@ import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson.JSON;
 import com.dc3.common.bean.driver.DriverConfiguration;
 import com.dc3.common.bean.driver.DriverMetadata;
+import com.dc3.common.bean.driver.DriverMetadataChunk;
 import com.dc3.common.constant.Common;
 import com.dc3.common.model.*;
 import com.dc3.common.sdk.bean.driver.DriverContext;
@@ -31,6 +32,7 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
+import java.util.List;
 
 /**
  * 接收驱动发送过来的数据
@@ -58,33 +60,69 @@ public class DriverMetadataReceiver {
                 return;
             }
 
-            switch (driverConfiguration.getType()) {
-                case Common.Driver.Type.DRIVER:
-                    configurationDriver(driverConfiguration);
-                    break;
-                case Common.Driver.Type.PROFILE:
-                    configurationProfile(driverConfiguration);
-                    break;
-                case Common.Driver.Type.DEVICE:
-                    configurationDevice(driverConfiguration);
-                    break;
-                case Common.Driver.Type.POINT:
-                    configurationPoint(driverConfiguration);
-                    break;
-                case Common.Driver.Type.DRIVER_INFO:
-                    configurationDriverInfo(driverConfiguration);
-                    break;
-                case Common.Driver.Type.POINT_INFO:
-                    configurationPointInfo(driverConfiguration);
-                    break;
-                default:
-                    break;
+            if (Common.Driver.Type.BATCH.equals(driverConfiguration.getType())) {
+                configurationBatch(driverConfiguration);
+            } else {
+                synchronized (driverContext) {
+                    configuration(driverConfiguration);
+                }
             }
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
     }
 
+    /**
+     * 批量配置，content 为合并后的 DriverConfiguration 数组
+     * <p>
+     * 整批变更在同一把锁内按顺序应用，不会与其他元数据变更交错
+     *
+     * @param driverConfiguration DriverConfiguration
+     */
+    private void configurationBatch(DriverConfiguration driverConfiguration) {
+        List<DriverConfiguration> driverConfigurations = Convert.toList(DriverConfiguration.class, driverConfiguration.getContent());
+        log.info("Batch configuration, size: {}", driverConfigurations.size());
+        synchronized (driverContext) {
+            driverConfigurations.forEach(configuration -> {
+                try {
+                    configuration(configuration);
+                } catch (Exception e) {
+                    log.error("Invalid driver configuration {}: {}", configuration, e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * 按类型分发配置
+     *
+     * @param driverConfiguration DriverConfiguration
+     */
+    private void configuration(DriverConfiguration driverConfiguration) {
+        switch (driverConfiguration.getType()) {
+            case Common.Driver.Type.DRIVER:
+                configurationDriver(driverConfiguration);
+                break;
+            case Common.Driver.Type.PROFILE:
+                configurationProfile(driverConfiguration);
+                break;
+            case Common.Driver.Type.DEVICE:
+                configurationDevice(driverConfiguration);
+                break;
+            case Common.Driver.Type.POINT:
+                configurationPoint(driverConfiguration);
+                break;
+            case Common.Driver.Type.DRIVER_INFO:
+                configurationDriverInfo(driverConfiguration);
+                break;
+            case Common.Driver.Type.POINT_INFO:
+                configurationPointInfo(driverConfiguration);
+                break;
+            default:
+                break;
+        }
+    }
+
     /**
      * 配置 driver
      *
@@ -107,6 +145,11 @@ public class DriverMetadataReceiver {
                 log.debug("Initialization driver metadata : {}", JSON.toJSONString(driverMetadata, true));
                 driverContext.setDriverMetadata(driverMetadata);
                 break;
+            case Common.Driver.Event.DRIVER_METADATA_SYNC_CHUNK_BACK:
+                DriverMetadataChunk driverMetadataChunk = Convert.convert(DriverMetadataChunk.class, driverConfiguration.getContent());
+                log.debug("Driver metadata chunk {}, last: {}", driverMetadataChunk.getSequence(), driverMetadataChunk.getLast());
+                driverMetadataService.upsertMetadataChunk(driverMetadataChunk);
+                break;
             default:
                 break;
         }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.common.sdk.util;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * 预编译的位号值格式化器
+ * <p>
+ * 位号 format 只包含一个 %f 或 %.Nf 时，直接按精度拼接数字，输出与 String.format 一致；
+ * 其余格式以及无法精确舍入的值仍交给 String.format 处理。
+ *
+ * @author pnoker
+ */
+public final class ValueFormatter {
+
+    private static final int PLAIN = -1;
+    private static final int FALLBACK = -2;
+    private static final int MAX_PRECISION = 9;
+    private static final long[] POWERS = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+
+    /**
+     * 超过该值的数字无法在 long 中精确表示缩放后的结果
+     */
+    private static final double MAX_SCALED = 1e15;
+
+    private final String format;
+    private final String prefix;
+    private final String suffix;
+    private final int precision;
+    private final char decimalSeparator;
+
+    private ValueFormatter(String format, String prefix, String suffix, int precision, char decimalSeparator) {
+        this.format = format;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.precision = precision;
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * 预编译位号 format
+     *
+     * @param format Point Format，为空时直接输出数值
+     * @return ValueFormatter
+     */
+    public static ValueFormatter compile(String format) {
+        if (StrUtil.isBlank(format)) {
+            return new ValueFormatter(format, "", "", PLAIN, '.');
+        }
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        if ('0' != symbols.getZeroDigit()) {
+            return new ValueFormatter(format, "", "", FALLBACK, '.');
+        }
+
+        StringBuilder prefix = new StringBuilder();
+        StringBuilder suffix = new StringBuilder();
+        int precision = FALLBACK;
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if ('%' != c) {
+                (FALLBACK == precision ? prefix : suffix).append(c);
+                continue;
+            }
+            if (i < format.length() && '%' == format.charAt(i)) {
+                (FALLBACK == precision ? prefix : suffix).append('%');
+                i++;
+                continue;
+            }
+            // 只支持一个 %f 或 %.Nf
+            if (FALLBACK != precision) {
+                return new ValueFormatter(format, "", "", FALLBACK, '.');
+            }
+            int spec = 6;
+            if (i < format.length() && '.' == format.charAt(i)) {
+                int start = ++i;
+                while (i < format.length() && Character.isDigit(format.charAt(i))) {
+                    i++;
+                }
+                if (start == i || i - start > 1) {
+                    return new ValueFormatter(format, "", "", FALLBACK, '.');
+                }
+                spec = format.charAt(start) - '0';
+            }
+            if (i >= format.length() || 'f' != format.charAt(i) || spec > MAX_PRECISION) {
+                return new ValueFormatter(format, "", "", FALLBACK, '.');
+            }
+            i++;
+            precision = spec;
+        }
+        if (FALLBACK == precision) {
+            return new ValueFormatter(format, "", "", FALLBACK, '.');
+        }
+        return new ValueFormatter(format, prefix.toString(), suffix.toString(), precision, symbols.getDecimalSeparator());
+    }
+
+    /**
+     * 格式化位号值
+     *
+     * @param value double
+     * @return String
+     */
+    public String format(double value) {
+        if (PLAIN == precision) {
+            return String.valueOf(value);
+        }
+        if (FALLBACK == precision || Double.isNaN(value) || Double.isInfinite(value)) {
+            return String.format(format, value);
+        }
+
+        double scaled = Math.abs(value) * POWERS[precision];
+        double floor = Math.floor(scaled);
+        // String.format 按最短十进制表示四舍五入，接近 0.5 的值交给 String.format 处理
+        if (scaled >= MAX_SCALED || Math.abs(scaled - floor - 0.5) < Math.max(1e-6, Math.ulp(scaled) * 8)) {
+            return String.format(format, value);
+        }
+        long rounded = (long) floor + (scaled - floor > 0.5 ? 1 : 0);
+
+        StringBuilder builder = new StringBuilder(prefix.length() + suffix.length() + 24).append(prefix);
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            builder.append('-');
+        }
+        builder.append(rounded / POWERS[precision]);
+        if (precision > 0) {
+            builder.append(decimalSeparator);
+            String fraction = Long.toString(rounded % POWERS[precision]);
+            for (int i = fraction.length(); i < precision; i++) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+        return builder.append(suffix).toString();
+    }
+}
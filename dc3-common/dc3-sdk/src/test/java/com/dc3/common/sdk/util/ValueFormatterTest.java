@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dc3.common.sdk.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ValueFormatter 与 String.format 的输出一致性测试
+ *
+ * @author pnoker
+ */
+class ValueFormatterTest {
+
+    private static final double[] EDGES = {
+            0, -0.0, 0.5, -0.5, 1.5, 2.5, -2.5, 0.125, 0.375, 1.005, 2.675, -0.005, -0.0049, 0.0005, 0.045,
+            1e-10, -1e-10, 123456.789, 999.9995, 9.9999999995, 1e14 + 0.5, 1e15, -1e15, 1e16, 1.7976931348623157e308,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+    private final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+
+    @AfterEach
+    void restoreLocale() {
+        Locale.setDefault(Locale.Category.FORMAT, locale);
+    }
+
+    @Test
+    void edgeValues() {
+        for (String format : formats()) {
+            ValueFormatter formatter = ValueFormatter.compile(format);
+            for (double value : EDGES) {
+                assertEquals(String.format(format, value), formatter.format(value), format + " " + value);
+            }
+        }
+    }
+
+    @Test
+    void ties() {
+        for (int precision = 0; precision <= 9; precision++) {
+            String format = "%." + precision + "f";
+            ValueFormatter formatter = ValueFormatter.compile(format);
+            double step = Math.pow(10, -precision);
+            for (int i = 0; i < 2000; i++) {
+                double value = (i + 0.5) * step;
+                assertEquals(String.format(format, value), formatter.format(value), format + " " + value);
+                assertEquals(String.format(format, -value), formatter.format(-value), format + " " + -value);
+            }
+        }
+    }
+
+    @Test
+    void randomValues() {
+        Random random = new Random(20211019L);
+        for (String format : formats()) {
+            ValueFormatter formatter = ValueFormatter.compile(format);
+            for (int i = 0; i < 20000; i++) {
+                double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(32) - 12);
+                assertEquals(String.format(format, value), formatter.format(value), format + " " + value);
+            }
+        }
+    }
+
+    @Test
+    void localeSeparators() {
+        for (Locale target : new Locale[]{Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.forLanguageTag("ar-SA-u-nu-arab")}) {
+            Locale.setDefault(Locale.Category.FORMAT, target);
+            Random random = new Random(target.hashCode());
+            for (String format : formats()) {
+                ValueFormatter formatter = ValueFormatter.compile(format);
+                for (double value : EDGES) {
+                    assertEquals(String.format(format, value), formatter.format(value), target + " " + format + " " + value);
+                }
+                for (int i = 0; i < 2000; i++) {
+                    double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 6);
+                    assertEquals(String.format(format, value), formatter.format(value), target + " " + format + " " + value);
+                }
+            }
+        }
+    }
+
+    /**
+     * 每种支持的精度，以及带前后缀、%% 与不支持的格式
+     *
+     * @return Format Array
+     */
+    private List<String> formats() {
+        List<String> formats = new ArrayList<>(24);
+        formats.add("%f");
+        for (int precision = 0; precision <= 9; precision++) {
+            formats.add("%." + precision + "f");
+        }
+        formats.add("T=%.2f℃");
+        formats.add("%.1f%%");
+        formats.add("%%%.3f %%");
+        formats.add("%10.2f");
+        formats.add("%.12f");
+        formats.add("%e");
+        return formats;
+    }
+}
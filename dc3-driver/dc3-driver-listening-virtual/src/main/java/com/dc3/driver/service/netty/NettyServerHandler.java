@@ -84,22 +84,22 @@ public class NettyServerHandler {
                     case "速度":
                         double speed = byteBuf.getDouble(start);
                         pointValue = new PointValue(deviceId, pointId, String.valueOf(speed),
-                                driverService.convertValue(deviceId, pointId, String.valueOf(speed)));
+                                driverService.convertValue(deviceId, pointId, speed));
                         break;
                     case "液位":
                         long level = byteBuf.getLong(start);
                         pointValue = new PointValue(deviceId, pointId, String.valueOf(level),
-                                driverService.convertValue(deviceId, pointId, String.valueOf(level)));
+                                driverService.convertValue(deviceId, pointId, level));
                         break;
                     case "方向":
                         int direction = byteBuf.getInt(start);
                         pointValue = new PointValue(deviceId, pointId, String.valueOf(direction),
-                                driverService.convertValue(deviceId, pointId, String.valueOf(direction)));
+                                driverService.convertValue(deviceId, pointId, direction));
                         break;
                     case "锁定":
                         boolean lock = byteBuf.getBoolean(start);
                         pointValue = new PointValue(deviceId, pointId, String.valueOf(lock),
-                                driverService.convertValue(deviceId, pointId, String.valueOf(lock)));
+                                driverService.convertValue(deviceId, pointId, lock));
                         break;
                     case "经纬":
                         String lalo = byteBuf.toString(start, end, CharsetUtil.CHARSET_ISO_8859_1).trim();
@@ -91,7 +91,7 @@ public class DriverCustomServiceImpl implements DriverCustomService {
         /*
         TODO:设备状态
         上传设备状态，可自行灵活拓展，不一定非要在schedule()接口中实现，也可以在read中实现设备状态的设置；
-        你可以通过某种判断机制确定设备的状态，然后通过driverService.deviceEventSender接口将设备状态交给SDK管理。
+        你可以通过某种判断机制确定设备的状态，然后通过driverService.deviceHeartbeatSender接口将设备状态批量交给SDK管理。
 
         设备状态（DeviceStatus）如下：
         ONLINE:在线
@@ -99,7 +99,7 @@ public class DriverCustomServiceImpl implements DriverCustomService {
         MAINTAIN:维护
         FAULT:故障
          */
-        driverContext.getDriverMetadata().getDeviceMap().keySet().forEach(id -> driverService.deviceEventSender(id, Common.Device.Event.HEARTBEAT, Common.Device.Status.ONLINE));
+        driverService.deviceHeartbeatSender(driverContext.getDriverMetadata().getDeviceMap().keySet(), Common.Device.Status.ONLINE);
     }
 
     /**
@@ -15,6 +15,7 @@ package com.dc3.gateway.config;
 
 import com.dc3.gateway.filter.BlackIpGlobalFilter;
 import com.dc3.gateway.filter.factory.AuthenticGatewayFilterFactory;
+import com.dc3.gateway.filter.factory.TenantRateLimitGatewayFilterFactory;
 import com.dc3.gateway.hystrix.GatewayHystrix;
 import feign.codec.Decoder;
 import lombok.extern.slf4j.Slf4j;
@@ -67,6 +68,11 @@ public class GatewayConfig {
         return new AuthenticGatewayFilterFactory();
     }
 
+    @Bean
+    public TenantRateLimitGatewayFilterFactory tenantRateLimitGatewayFilterFactory() {
+        return new TenantRateLimitGatewayFilterFactory();
+    }
+
     @Bean
     public Decoder feignDecoder() {
         return new ResponseEntityDecoder(
@@ -13,7 +13,9 @@
 
 package com.dc3.gateway.config;
 
+import com.dc3.gateway.filter.factory.TenantRateLimitGatewayFilterFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
 import org.springframework.cloud.gateway.route.RouteLocator;
@@ -23,6 +25,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import reactor.core.publisher.Mono;
 
+import javax.annotation.Resource;
 import java.util.Objects;
 
 /**
@@ -34,6 +37,9 @@ import java.util.Objects;
 @Configuration
 public class RouteConfig {
 
+    @Resource
+    private TenantRateLimitGatewayFilterFactory tenantRateLimitGatewayFilterFactory;
+
     /**
      * 根据 HostAddress 进行限流
      *
@@ -54,6 +60,19 @@ public class RouteConfig {
         return new RedisRateLimiter(100, 2000);
     }
 
+    /**
+     * 租户、路由级别的令牌桶限流
+     *
+     * @param replenishRate 每秒补充的令牌数
+     * @param burstCapacity 令牌桶容量
+     * @return GatewayFilter
+     */
+    private GatewayFilter tenantRateLimit(double replenishRate, int burstCapacity) {
+        return tenantRateLimitGatewayFilterFactory.apply(
+                new TenantRateLimitGatewayFilterFactory.Config().setReplenishRate(replenishRate).setBurstCapacity(burstCapacity)
+        );
+    }
+
     /**
      * 自定义 RouteLocator
      *
@@ -67,6 +86,7 @@ public class RouteConfig {
                         r -> r.path("/api/v3/token/salt")
                                 .filters(
                                         f -> f.setPath("/auth/token/salt")
+                                                .filter(tenantRateLimit(5, 10))
                                                 .requestRateLimiter(l -> l.setKeyResolver(hostKeyResolver()).setRateLimiter(redisRateLimiter()))
                                                 .circuitBreaker(h -> h.setName("default").setFallbackUri("forward:/fallback"))
                                 ).uri("lb://dc3-auth")
@@ -75,6 +95,7 @@ public class RouteConfig {
                         r -> r.path("/api/v3/token/generate")
                                 .filters(
                                         f -> f.setPath("/auth/token/generate")
+                                                .filter(tenantRateLimit(1, 5))
                                                 .requestRateLimiter(l -> l.setKeyResolver(hostKeyResolver()).setRateLimiter(redisRateLimiter()))
                                                 .circuitBreaker(h -> h.setName("default").setFallbackUri("forward:/fallback"))
                                 ).uri("lb://dc3-auth")
@@ -83,6 +104,7 @@ public class RouteConfig {
                         r -> r.path("/api/v3/token/check")
                                 .filters(
                                         f -> f.setPath("/auth/token/check")
+                                                .filter(tenantRateLimit(50, 100))
                                                 .requestRateLimiter(l -> l.setKeyResolver(hostKeyResolver()).setRateLimiter(redisRateLimiter()))
                                                 .circuitBreaker(h -> h.setName("default").setFallbackUri("forward:/fallback"))
                                 ).uri("lb://dc3-auth")
@@ -91,6 +113,7 @@ public class RouteConfig {
                         r -> r.path("/api/v3/token/cancel")
                                 .filters(
                                         f -> f.setPath("/auth/token/cancel")
+                                                .filter(tenantRateLimit(5, 10))
                                                 .requestRateLimiter(l -> l.setKeyResolver(hostKeyResolver()).setRateLimiter(redisRateLimiter()))
                                                 .circuitBreaker(h -> h.setName("default").setFallbackUri("forward:/fallback"))
                                 ).uri("lb://dc3-auth")
@@ -99,6 +122,7 @@ public class RouteConfig {
                         r -> r.path("/api/v3/register")
                                 .filters(
                                         f -> f.setPath("/auth/user/add")
+                                                .filter(tenantRateLimit(1, 2))
                                                 .requestRateLimiter(l -> l.setKeyResolver(hostKeyResolver()).setRateLimiter(redisRateLimiter()))
                                                 .circuitBreaker(h -> h.setName("default").setFallbackUri("forward:/fallback"))
                                 ).uri("lb://dc3-auth")
@@ -13,10 +13,10 @@
 
 package com.dc3.gateway.filter;
 
-import com.dc3.api.center.auth.feign.BlackIpClient;
-import com.dc3.common.bean.R;
+import com.dc3.gateway.service.BlackIpService;
 import com.dc3.gateway.utils.GatewayUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -35,8 +35,11 @@ import javax.annotation.Resource;
 @Slf4j
 public class BlackIpGlobalFilter implements GlobalFilter, Ordered {
 
+    @Value("${gateway.trusted-proxies}")
+    private Integer trustedProxies;
+
     @Resource
-    private BlackIpClient blackIpClient;
+    private BlackIpService blackIpService;
 
     @Override
     public int getOrder() {
@@ -46,10 +49,9 @@ public class BlackIpGlobalFilter implements GlobalFilter, Ordered {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String remoteIp = GatewayUtil.getRemoteIp(request);
+        String remoteIp = GatewayUtil.getClientIp(request, trustedProxies);
 
-        R<Boolean> blackIpValid = blackIpClient.checkBlackIpValid(remoteIp);
-        if (blackIpValid.isOk()) {
+        if (blackIpService.checkBlackIpValid(remoteIp)) {
             log.error("Forbidden Ip: {}", remoteIp);
             exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
             return exchange.getResponse().setComplete();
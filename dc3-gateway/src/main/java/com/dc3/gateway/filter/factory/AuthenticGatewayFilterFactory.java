@@ -14,14 +14,11 @@
 package com.dc3.gateway.filter.factory;
 
 import com.alibaba.fastjson.JSON;
-import com.dc3.api.center.auth.feign.TenantClient;
-import com.dc3.api.center.auth.feign.TokenClient;
 import com.dc3.common.bean.Login;
 import com.dc3.common.bean.R;
 import com.dc3.common.constant.Common;
-import com.dc3.common.exception.ServiceException;
-import com.dc3.common.model.Tenant;
 import com.dc3.common.utils.Dc3Util;
+import com.dc3.gateway.service.AuthService;
 import com.dc3.gateway.utils.GatewayUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -59,9 +56,7 @@ public class AuthenticGatewayFilterFactory extends AbstractGatewayFilterFactory<
         private static AuthenticGatewayFilter gatewayFilter;
 
         @Resource
-        private TenantClient tenantClient;
-        @Resource
-        private TokenClient tokenClient;
+        private AuthService authService;
 
         @PostConstruct
         public void init() {
@@ -72,42 +67,42 @@ public class AuthenticGatewayFilterFactory extends AbstractGatewayFilterFactory<
         public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
             ServerHttpRequest request = exchange.getRequest();
 
+            Login login;
             try {
                 String cookieToken = GatewayUtil.getRequestCookie(request, Common.Service.DC3_AUTH_TOKEN);
-                Login login = JSON.parseObject(Dc3Util.decode(cookieToken), Login.class);
+                login = JSON.parseObject(Dc3Util.decode(cookieToken), Login.class);
                 log.debug("Request cookies: {}", login);
-
-                R<Tenant> tenantR = gatewayFilter.tenantClient.selectByName(login.getTenant());
-                if (!tenantR.isOk() || !tenantR.getData().getEnable()) {
-                    throw new ServiceException("Invalid tenant");
-                }
-
-                R<Long> validR = gatewayFilter.tokenClient.checkTokenValid(login);
-                if (!validR.isOk()) {
-                    throw new ServiceException("Invalid token");
-                }
-                Tenant tenant = tenantR.getData();
-                log.debug("Request tenant: {}", tenant);
-
-                ServerHttpRequest build = request.mutate().headers(
-                        httpHeader -> {
-                            httpHeader.set(Common.Service.DC3_AUTH_TENANT_ID, tenant.getId().toString());
-                            httpHeader.set(Common.Service.DC3_AUTH_TENANT, login.getTenant());
-                            httpHeader.set(Common.Service.DC3_AUTH_USER, login.getName());
-                        }
-                ).build();
-                exchange.mutate().request(build).build();
             } catch (Exception e) {
-                ServerHttpResponse response = exchange.getResponse();
-                response.getHeaders().add(Common.Response.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-                response.setStatusCode(HttpStatus.FORBIDDEN);
-                log.error(e.getMessage(), e);
-
-                DataBuffer dataBuffer = response.bufferFactory().wrap(JSON.toJSONBytes(R.fail(e.getMessage())));
-                return response.writeWith(Mono.just(dataBuffer));
+                return forbidden(exchange, e);
             }
 
-            return chain.filter(exchange);
+            return gatewayFilter.authService.selectTenant(login.getTenant())
+                    .flatMap(tenant -> gatewayFilter.authService.checkTokenValid(login).thenReturn(tenant))
+                    .map(tenant -> {
+                        log.debug("Request tenant: {}", tenant);
+                        // 供后续过滤器使用，客户端无法通过请求头伪造
+                        exchange.getAttributes().put(Common.Service.DC3_AUTH_TENANT_ID, tenant.getId().toString());
+                        ServerHttpRequest build = request.mutate().headers(
+                                httpHeader -> {
+                                    httpHeader.set(Common.Service.DC3_AUTH_TENANT_ID, tenant.getId().toString());
+                                    httpHeader.set(Common.Service.DC3_AUTH_TENANT, login.getTenant());
+                                    httpHeader.set(Common.Service.DC3_AUTH_USER, login.getName());
+                                }
+                        ).build();
+                        return exchange.mutate().request(build).build();
+                    })
+                    .onErrorResume(e -> forbidden(exchange, e).then(Mono.empty()))
+                    .flatMap(chain::filter);
+        }
+
+        private Mono<Void> forbidden(ServerWebExchange exchange, Throwable e) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().add(Common.Response.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            log.error(e.getMessage(), e);
+
+            DataBuffer dataBuffer = response.bufferFactory().wrap(JSON.toJSONBytes(R.fail(e.getMessage())));
+            return response.writeWith(Mono.just(dataBuffer));
         }
     }
 
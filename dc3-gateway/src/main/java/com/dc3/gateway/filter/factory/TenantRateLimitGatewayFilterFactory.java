@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.gateway.filter.factory;
+
+import com.alibaba.fastjson.JSON;
+import com.dc3.common.bean.R;
+import com.dc3.common.constant.Common;
+import com.dc3.gateway.service.RateLimitService;
+import com.dc3.gateway.utils.GatewayUtil;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 租户、路由级别的令牌桶限流过滤器
+ * <p>
+ * 限流 Key 为 路由 Id + 租户 Id，未经过 Authentic 过滤器的请求使用可信的客户端 Ip 代替租户 Id，
+ * 该 Ip 不取客户端可以伪造的 x-forwarded-for 首个地址；
+ * 超出限额时返回 429，并通过 Retry-After 提示客户端重试时间
+ *
+ * @author pnoker
+ */
+@Slf4j
+public class TenantRateLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<TenantRateLimitGatewayFilterFactory.Config> {
+
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    @Value("${gateway.trusted-proxies}")
+    private Integer trustedProxies;
+
+    @Resource
+    private RateLimitService rateLimitService;
+
+    public TenantRateLimitGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("replenishRate", "burstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String tenantId = exchange.getAttribute(Common.Service.DC3_AUTH_TENANT_ID);
+            String key = (null != route ? route.getId() : "") + Common.Cache.SEPARATOR
+                    + (null != tenantId ? tenantId : GatewayUtil.getClientIp(exchange.getRequest(), trustedProxies));
+
+            long wait = rateLimitService.tryAcquire(key, config.getReplenishRate(), config.getBurstCapacity());
+            if (wait <= 0) {
+                return chain.filter(exchange);
+            }
+
+            log.debug("Too many requests: {}, retry after {} ms", key, wait);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().add(Common.Response.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            response.getHeaders().add(HttpHeaders.RETRY_AFTER, String.valueOf((wait + 999) / 1000));
+            response.getHeaders().add(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+            response.getHeaders().add(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+
+            DataBuffer dataBuffer = response.bufferFactory().wrap(JSON.toJSONBytes(R.fail("Too many requests, please retry after " + wait + " ms")));
+            return response.writeWith(Mono.just(dataBuffer));
+        };
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Config {
+        /**
+         * 每秒补充的令牌数
+         */
+        private double replenishRate = 10;
+
+        /**
+         * 令牌桶容量
+         */
+        private int burstCapacity = 20;
+    }
+
+}
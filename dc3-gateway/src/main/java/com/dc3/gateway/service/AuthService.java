@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.gateway.service;
+
+import com.dc3.common.bean.Login;
+import com.dc3.common.model.Tenant;
+import reactor.core.publisher.Mono;
+
+/**
+ * 网关鉴权服务接口，租户与 Token 校验结果在本地缓存
+ * <p>
+ * 所有方法均为非阻塞实现，可直接在网关过滤器中组合使用
+ *
+ * @author pnoker
+ */
+public interface AuthService {
+
+    /**
+     * 根据租户名称获取可用租户，不存在或者未启用时返回错误
+     *
+     * @param name Tenant Name
+     * @return Mono<Tenant>
+     */
+    Mono<Tenant> selectTenant(String name);
+
+    /**
+     * 校验 Token，无效时返回错误
+     * <p>
+     * 先在本地完成 JWT 签名及过期校验，命中本地缓存时不再请求 dc3-auth
+     *
+     * @param login Login
+     * @return Mono<Void>
+     */
+    Mono<Void> checkTokenValid(Login login);
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.gateway.service;
+
+/**
+ * 网关本地 Ip 黑名单服务接口
+ *
+ * @author pnoker
+ */
+public interface BlackIpService {
+
+    /**
+     * 检测 Ip 是否在 Ip 黑名单中，支持 CIDR 网段，只查询本地数据
+     *
+     * @param ip Ip
+     * @return boolean
+     */
+    boolean checkBlackIpValid(String ip);
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.gateway.service;
+
+/**
+ * 网关令牌桶限流服务接口
+ *
+ * @author pnoker
+ */
+public interface RateLimitService {
+
+    /**
+     * 从指定 Key 的令牌桶中获取一个令牌
+     * <p>
+     * 令牌桶保存在本地，多个网关实例之间按各自的请求量分配速率
+     *
+     * @param key           限流 Key
+     * @param replenishRate 每秒补充的令牌数
+     * @param burstCapacity 令牌桶容量
+     * @return 需要等待的毫秒数，0 表示获取成功
+     */
+    long tryAcquire(String key, double replenishRate, int burstCapacity);
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.gateway.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.dc3.common.bean.Login;
+import com.dc3.common.bean.R;
+import com.dc3.common.constant.Common;
+import com.dc3.common.exception.ServiceException;
+import com.dc3.common.model.Tenant;
+import com.dc3.common.utils.KeyUtil;
+import com.dc3.gateway.service.AuthService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 网关鉴权服务接口实现类
+ * <p>
+ * 租户及 Token 的校验结果缓存在本地，缓存时长不超过 gateway.auth.cache-ttl 以及 JWT 的过期时间；
+ * dc3-auth 在 Token 重新生成、注销以及租户变更时通过 Redis 频道发布通知，网关收到后立即失效对应缓存。
+ * <p>
+ * 远程校验使用负载均衡的 WebClient，每次请求限制在 gateway.auth.timeout 内并经过 dc3-auth 熔断器，
+ * 任何情况下都不会阻塞网关的事件循环线程
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+public class AuthServiceImpl implements AuthService {
+
+    private static final ParameterizedTypeReference<R<Tenant>> TENANT_TYPE = new ParameterizedTypeReference<R<Tenant>>() {
+    };
+    private static final ParameterizedTypeReference<R<Long>> LONG_TYPE = new ParameterizedTypeReference<R<Long>>() {
+    };
+
+    @Value("${gateway.auth.cache-ttl}")
+    private Duration cacheTtl;
+    @Value("${gateway.auth.cache-size}")
+    private Long cacheSize;
+    @Value("${gateway.auth.timeout}")
+    private Duration timeout;
+
+    @Resource
+    private WebClient.Builder webClientBuilder;
+    @Resource
+    private ReactiveCircuitBreakerFactory<?, ?> reactiveCircuitBreakerFactory;
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    private WebClient webClient;
+    private ReactiveCircuitBreaker circuitBreaker;
+    private Cache<String, Tenant> tenantCache;
+    private Cache<String, TokenEntry> tokenCache;
+    private Disposable tokenRevocation;
+    private Disposable tenantRevocation;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone().baseUrl("http://" + Common.Service.DC3_AUTH_SERVICE_NAME).build();
+        circuitBreaker = reactiveCircuitBreakerFactory.create(Common.Service.DC3_AUTH_SERVICE_NAME);
+
+        tenantCache = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(cacheTtl).build();
+        tokenCache = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(cacheTtl).build();
+
+        tokenRevocation = reactiveStringRedisTemplate.listenTo(ChannelTopic.of(Common.Cache.TOKEN_REVOCATION_TOPIC))
+                .doOnError(e -> log.error("Token revocation subscribe error: {}", e.getMessage()))
+                .retry()
+                .subscribe(message -> tokenCache.invalidate(message.getMessage()));
+        tenantRevocation = reactiveStringRedisTemplate.listenTo(ChannelTopic.of(Common.Cache.TENANT_REVOCATION_TOPIC))
+                .doOnError(e -> log.error("Tenant revocation subscribe error: {}", e.getMessage()))
+                .retry()
+                .subscribe(message -> tenantCache.invalidate(message.getMessage()));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (null != tokenRevocation) {
+            tokenRevocation.dispose();
+        }
+        if (null != tenantRevocation) {
+            tenantRevocation.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Tenant> selectTenant(String name) {
+        if (StrUtil.isBlank(name)) {
+            return Mono.error(new ServiceException("Invalid tenant"));
+        }
+        Tenant cached = tenantCache.getIfPresent(name);
+        Mono<Tenant> tenant = null != cached ? Mono.just(cached) : call(
+                webClient.get().uri(Common.Service.DC3_AUTH_TENANT_URL_PREFIX + "/name/{name}", name),
+                TENANT_TYPE
+        ).flatMap(tenantR -> {
+            if (!tenantR.isOk() || null == tenantR.getData()) {
+                return Mono.error(new ServiceException("Invalid tenant"));
+            }
+            tenantCache.put(name, tenantR.getData());
+            return Mono.just(tenantR.getData());
+        });
+        return tenant.filter(select -> Boolean.TRUE.equals(select.getEnable()))
+                .switchIfEmpty(Mono.error(new ServiceException("Invalid tenant")));
+    }
+
+    @Override
+    public Mono<Void> checkTokenValid(Login login) {
+        if (StrUtil.hasBlank(login.getName(), login.getSalt(), login.getToken())) {
+            return Mono.error(new ServiceException("Invalid token"));
+        }
+
+        // 本地校验签名及过期时间，伪造或过期的 Token 无需请求 dc3-auth
+        long expireTime;
+        try {
+            Claims claims = KeyUtil.parserToken(login.getName(), login.getSalt(), login.getToken());
+            expireTime = claims.getExpiration().getTime();
+        } catch (Exception e) {
+            return Mono.error(new ServiceException("Invalid token"));
+        }
+
+        // salt 来自客户端，只有与 dc3-auth 确认过的 token、salt 一致时才可以信任本地结果
+        TokenEntry entry = tokenCache.getIfPresent(login.getName());
+        if (null != entry && entry.matches(login) && entry.expireTime > System.currentTimeMillis()) {
+            return Mono.empty();
+        }
+
+        return call(
+                webClient.post().uri(Common.Service.DC3_AUTH_TOKEN_URL_PREFIX + "/check").bodyValue(login),
+                LONG_TYPE
+        ).flatMap(validR -> {
+            if (!validR.isOk()) {
+                tokenCache.invalidate(login.getName());
+                return Mono.error(new ServiceException("Invalid token"));
+            }
+            long expire = null != validR.getData() ? Math.min(expireTime, validR.getData()) : expireTime;
+            tokenCache.put(login.getName(), new TokenEntry(login.getToken(), login.getSalt(), expire));
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * 请求 dc3-auth 并解析 R 响应
+     * <p>
+     * 无论 Http 状态码如何都解析响应体，业务失败不计入熔断器，只有超时、连接失败等才会触发熔断
+     *
+     * @param request RequestHeadersSpec
+     * @param type    Response Type
+     * @param <T>     T
+     * @return Mono<R<T>>
+     */
+    private <T> Mono<R<T>> call(WebClient.RequestHeadersSpec<?> request, ParameterizedTypeReference<R<T>> type) {
+        Mono<R<T>> response = request.exchangeToMono(clientResponse -> clientResponse.bodyToMono(type))
+                .switchIfEmpty(Mono.error(new ServiceException("Empty response")))
+                .timeout(timeout);
+        return circuitBreaker.run(response, e -> Mono.error(new ServiceException("Auth service unavailable: " + e.getMessage())));
+    }
+
+    /**
+     * 已通过 dc3-auth 校验的 Token
+     */
+    @AllArgsConstructor
+    private static class TokenEntry {
+        private final String token;
+        private final String salt;
+        private final long expireTime;
+
+        boolean matches(Login login) {
+            return Objects.equals(token, login.getToken()) && Objects.equals(salt, login.getSalt());
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.gateway.service.impl;
+
+import com.dc3.common.bean.R;
+import com.dc3.common.constant.Common;
+import com.dc3.common.exception.ServiceException;
+import com.dc3.common.utils.IpTrie;
+import com.dc3.gateway.service.BlackIpService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 网关本地 Ip 黑名单服务接口实现类
+ * <p>
+ * 启动时从 dc3-auth 批量加载启用的黑名单构建 Ip 前缀树，之后在收到 dc3-auth 的变更通知
+ * 以及每隔 gateway.black-ip.refresh 时重新加载并整体替换，查询时只访问本地前缀树
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+public class BlackIpServiceImpl implements BlackIpService {
+
+    private static final ParameterizedTypeReference<R<List<String>>> LIST_TYPE = new ParameterizedTypeReference<R<List<String>>>() {
+    };
+
+    @Value("${gateway.black-ip.refresh}")
+    private Duration refresh;
+    @Value("${gateway.auth.timeout}")
+    private Duration timeout;
+
+    @Resource
+    private WebClient.Builder webClientBuilder;
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    private volatile IpTrie blackIps = new IpTrie();
+    private WebClient webClient;
+    private Disposable reload;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone().baseUrl("http://" + Common.Service.DC3_AUTH_SERVICE_NAME).build();
+
+        Flux<String> change = reactiveStringRedisTemplate.listenTo(ChannelTopic.of(Common.Cache.BLACK_IP_CHANGE_TOPIC))
+                .map(message -> message.getMessage())
+                .doOnError(e -> log.error("Black ip change subscribe error: {}", e.getMessage()))
+                .retry();
+        Flux<String> schedule = Flux.interval(Duration.ZERO, refresh).map(tick -> "refresh");
+
+        // 加载过程中到达的多次通知只保留最新的一次
+        reload = Flux.merge(schedule, change)
+                .onBackpressureLatest()
+                .concatMap(reason -> load()
+                        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(refresh)
+                                .doBeforeRetry(signal -> log.warn("Load black ip failed: {}", signal.failure().getMessage()))), 1)
+                .subscribe(trie -> blackIps = trie);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (null != reload) {
+            reload.dispose();
+        }
+    }
+
+    @Override
+    public boolean checkBlackIpValid(String ip) {
+        if (null == ip) {
+            return false;
+        }
+        return blackIps.contains(ip.trim());
+    }
+
+    private Mono<IpTrie> load() {
+        return webClient.get().uri(Common.Service.DC3_AUTH_BLACK_IP_URL_PREFIX + "/enable")
+                .retrieve()
+                .bodyToMono(LIST_TYPE)
+                .timeout(timeout)
+                .flatMap(ipsR -> {
+                    if (!ipsR.isOk() || null == ipsR.getData()) {
+                        return Mono.error(new ServiceException(ipsR.getMessage()));
+                    }
+                    IpTrie trie = new IpTrie();
+                    for (String ip : ipsR.getData()) {
+                        if (!trie.add(ip)) {
+                            log.warn("Invalid black ip: {}", ip);
+                        }
+                    }
+                    log.debug("Black ip loaded, size: {}", trie.size());
+                    return Mono.just(trie);
+                });
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016-2021 Pnoker. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.dc3.gateway.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.dc3.common.constant.Common;
+import com.dc3.gateway.service.RateLimitService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关令牌桶限流服务接口实现类
+ * <p>
+ * 请求只访问本地令牌桶；每隔 gateway.rate-limit.sync 各实例把本地请求速率上报到 Redis，
+ * 并按本实例在集群总请求速率中的占比调整本地令牌桶的速率和容量，使集群整体接近配置的限额
+ *
+ * @author pnoker
+ */
+@Slf4j
+@Service
+public class RateLimitServiceImpl implements RateLimitService {
+
+    private static final String RATE_LIMIT_PREFIX = "gateway_rate_limit" + Common.Cache.SEPARATOR;
+    private static final RedisScript<String> SYNC_SCRIPT = RedisScript.of(new ClassPathResource("lua/rate_limit_sync.lua"), String.class);
+
+    @Value("${gateway.rate-limit.sync}")
+    private Duration sync;
+    @Value("${gateway.rate-limit.max-buckets}")
+    private Integer maxBuckets;
+
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    private final String instance = IdUtil.fastSimpleUUID();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>(64);
+
+    /**
+     * 令牌桶数量达到 gateway.rate-limit.max-buckets 后，新的 Key 共用该令牌桶，只在本地限流
+     */
+    private final Bucket overflow = new Bucket();
+    private Disposable reconcile;
+
+    @PostConstruct
+    public void init() {
+        reconcile = Flux.interval(sync, sync)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (null != reconcile) {
+            reconcile.dispose();
+        }
+    }
+
+    @Override
+    public long tryAcquire(String key, double replenishRate, int burstCapacity) {
+        Bucket bucket = buckets.get(key);
+        if (null == bucket) {
+            bucket = buckets.size() < maxBuckets ? buckets.computeIfAbsent(key, k -> new Bucket()) : overflow;
+        }
+        return bucket.tryAcquire(replenishRate, burstCapacity, System.nanoTime());
+    }
+
+    /**
+     * 上报本地请求速率并更新本地份额，长时间无请求的令牌桶会被移除
+     *
+     * @return Mono<Void>
+     */
+    private Mono<Void> reconcile() {
+        long now = System.currentTimeMillis();
+        long period = sync.toMillis();
+        long idle = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(period * 10);
+        return Flux.fromIterable(buckets.entrySet())
+                .flatMap(entry -> {
+                    Bucket bucket = entry.getValue();
+                    long demand = bucket.drainDemand();
+                    if (0 == demand && bucket.lastAccess < idle) {
+                        buckets.remove(entry.getKey(), bucket);
+                        return Mono.empty();
+                    }
+
+                    double rate = demand * 1000.0 / period;
+                    return reactiveStringRedisTemplate.execute(SYNC_SCRIPT,
+                            Collections.singletonList(RATE_LIMIT_PREFIX + entry.getKey()),
+                            Arrays.asList(instance, String.valueOf(rate), String.valueOf(now), String.valueOf(period * 3))
+                    ).next().doOnNext(result -> {
+                        String[] values = result.split(",");
+                        bucket.share(rate, Double.parseDouble(values[0]), Integer.parseInt(values[1]));
+                    }).onErrorResume(e -> {
+                        log.warn("Rate limit reconcile failed: {}", e.getMessage());
+                        return Mono.empty();
+                    });
+                }, 16)
+                .then();
+    }
+
+    /**
+     * 本地令牌桶，速率和容量按 share 缩放
+     */
+    private static class Bucket {
+        private double tokens = -1;
+        private long refillTime;
+        private long demand;
+        private double share = 1.0;
+        private volatile long lastAccess = System.nanoTime();
+
+        synchronized long tryAcquire(double replenishRate, int burstCapacity, long now) {
+            demand++;
+            lastAccess = now;
+            double rate = replenishRate * share;
+            double capacity = Math.max(1.0, burstCapacity * share);
+            tokens = tokens < 0 ? capacity : Math.min(capacity, tokens + (now - refillTime) / 1e9 * rate);
+            refillTime = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / rate * 1000);
+        }
+
+        synchronized long drainDemand() {
+            long value = demand;
+            demand = 0;
+            return value;
+        }
+
+        /**
+         * 按本实例请求速率占集群总请求速率的比例更新份额，
+         * 份额不低于平均份额的一半，避免请求刚转移过来的实例长时间得不到令牌
+         */
+        synchronized void share(double rate, double total, int count) {
+            double floor = 1.0 / Math.max(1, count * 2);
+            share = total > 0 ? Math.max(floor, Math.min(1.0, rate / total)) : 1.0 / Math.max(1, count);
+        }
+    }
+
+}
@@ -18,6 +18,8 @@ import com.dc3.common.exception.NotFoundException;
 import org.springframework.http.HttpCookie;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -48,6 +50,30 @@ public class GatewayUtil {
         return ip;
     }
 
+    /**
+     * 获取可信的客户端 IP
+     * <p>
+     * x-forwarded-for 中靠前的 Ip 可以由客户端任意填写，只信任网关之前 trustedProxies 个代理追加的 Ip，
+     * 为 0 时直接使用连接的对端地址
+     *
+     * @param request        ServerHttpRequest
+     * @param trustedProxies 网关之前的可信代理数量
+     * @return Client Ip
+     */
+    public static String getClientIp(ServerHttpRequest request, int trustedProxies) {
+        if (trustedProxies > 0) {
+            List<String> ips = new ArrayList<>();
+            List<String> headers = request.getHeaders().get("x-forwarded-for");
+            if (null != headers) {
+                headers.forEach(header -> ips.addAll(StrUtil.split(header, ',', true, true)));
+            }
+            if (ips.size() >= trustedProxies) {
+                return ips.get(ips.size() - trustedProxies);
+            }
+        }
+        return Objects.requireNonNull(request.getRemoteAddress()).getAddress().getHostAddress();
+    }
+
     /**
      * 获取 Request Header
      *
@@ -0,0 +1,40 @@
+--
+-- Copyright 2016-2021 Pnoker. All Rights Reserved.
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--     http://www.apache.org/licenses/LICENSE-2.0
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+
+-- 限流状态同步，各网关实例上报本地请求速率并取回集群总请求速率
+--
+-- KEYS[1] 限流 Key(hash：实例 -> 请求速率:上报时间)
+-- ARGV[1] 实例标识  ARGV[2] 本实例请求速率(次/秒)  ARGV[3] 当前时间(ms)  ARGV[4] 过期时间(ms)
+--
+-- 返回 "集群总请求速率,实例数"，超过过期时间未上报的实例会被移除
+
+local now = tonumber(ARGV[3])
+local expire = tonumber(ARGV[4])
+
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2] .. ':' .. ARGV[3])
+redis.call('PEXPIRE', KEYS[1], expire)
+
+local total, count = 0, 0
+local entries = redis.call('HGETALL', KEYS[1])
+for i = 1, #entries, 2 do
+    local value = entries[i + 1]
+    local index = string.find(value, ':', 1, true)
+    if index == nil or now - tonumber(string.sub(value, index + 1)) > expire then
+        redis.call('HDEL', KEYS[1], entries[i])
+    else
+        total = total + tonumber(string.sub(value, 1, index - 1))
+        count = count + 1
+    end
+end
+return tostring(total) .. ',' .. count